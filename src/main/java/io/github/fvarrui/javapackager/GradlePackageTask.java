@@ -7,12 +7,14 @@ import io.github.fvarrui.javapackager.model.*;
 import io.github.fvarrui.javapackager.packagers.Context;
 import io.github.fvarrui.javapackager.packagers.Packager;
 import io.github.fvarrui.javapackager.packagers.PackagerFactory;
+import io.github.fvarrui.javapackager.utils.Logger;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.Project;
 import org.gradle.api.tasks.OutputFiles;
 import org.gradle.api.tasks.TaskAction;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -66,9 +68,21 @@ public class GradlePackageTask extends DefaultTask implements PackagerFactory {
 
         Packager packager = this.createPackager(extension);
         // generates app, installers and bundles
-        File app = packager.createApp();
-        List<File> installers = packager.generateInstallers();
-        List<File> bundles = packager.createBundles();
+        File app;
+        List<File> installers;
+        List<File> bundles;
+        try {
+            app = packager.createApp();
+            installers = packager.generateInstallers();
+            bundles = packager.createBundles();
+        } finally {
+            try {
+                extension.releaseJdk();
+            } catch (IOException e) {
+                Logger.warn("Could not release JDK: " + e.getMessage());
+            }
+            Logger.flush();
+        }
 
         // sets generated files as output
         outputFiles = new ArrayList<>();
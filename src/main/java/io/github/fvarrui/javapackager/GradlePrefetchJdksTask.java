@@ -0,0 +1,34 @@
+package io.github.fvarrui.javapackager;
+
+import io.github.fvarrui.javapackager.gradle.PackagePlugin;
+import io.github.fvarrui.javapackager.utils.Logger;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Downloads the JDKs of all prefetch targets concurrently into the local JDK store, using
+ * the settings of the global javapackager extension (see {@link PackageTask#prefetchJdks()}).
+ */
+public class GradlePrefetchJdksTask extends DefaultTask {
+
+    public GradlePrefetchJdksTask() {
+        setGroup(PackagePlugin.GROUP_NAME);
+        setDescription("Downloads the JDKs needed to package for several platforms concurrently, before packaging");
+        getOutputs().upToDateWhen(o -> false);
+    }
+
+    /**
+     * Prefetch task action
+     *
+     * @throws Exception Throwed if something went wrong
+     */
+    @TaskAction
+    public void doPrefetch() throws Exception {
+        try {
+            PackagePlugin.GLOBAL_EXTENSION.prefetchJdks();
+        } finally {
+            Logger.flush();
+        }
+    }
+
+}
@@ -4,6 +4,7 @@ import io.github.fvarrui.javapackager.maven.MavenContext;
 import io.github.fvarrui.javapackager.packagers.Context;
 import io.github.fvarrui.javapackager.packagers.Packager;
 import io.github.fvarrui.javapackager.packagers.PackagerFactory;
+import io.github.fvarrui.javapackager.utils.Logger;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.*;
 import org.apache.maven.plugin.logging.Log;
@@ -50,6 +51,13 @@ public class MavenPackageTask extends PackageTask implements Mojo, ContextEnable
             packager.createBundles();
         } catch (Exception e) {
             throw new MojoExecutionException(e.getMessage(), e);
+        } finally {
+            try {
+                releaseJdk();
+            } catch (IOException e) {
+                Logger.warn("Could not release JDK: " + e.getMessage());
+            }
+            Logger.flush();
         }
     }
 
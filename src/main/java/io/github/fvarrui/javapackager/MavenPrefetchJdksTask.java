@@ -0,0 +1,77 @@
+package io.github.fvarrui.javapackager;
+
+import io.github.fvarrui.javapackager.maven.MavenContext;
+import io.github.fvarrui.javapackager.packagers.Context;
+import io.github.fvarrui.javapackager.utils.Logger;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.*;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.twdata.maven.mojoexecutor.MojoExecutor.executionEnvironment;
+
+/**
+ * Downloads the JDKs of all prefetch targets concurrently into the local JDK store
+ * (see {@link PackageTask#prefetchJdks()}).
+ */
+@org.apache.maven.plugins.annotations.Mojo(name = "prefetch-jdks")
+public class MavenPrefetchJdksTask extends PackageTask implements Mojo, ContextEnabled {
+    @Parameter(defaultValue = "${project}", readonly = true)
+    private MavenProject mavenProject;
+    @Parameter(defaultValue = "${session}", readonly = true)
+    private MavenSession mavenSession;
+    @Component
+    private BuildPluginManager pluginManager;
+
+    private Log log;
+    private Map<String, Object> pluginContext;
+
+    public MavenPrefetchJdksTask() throws IOException {
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        Context.setContext(
+                new MavenContext(
+                        executionEnvironment(mavenProject, mavenSession, pluginManager),
+                        getLog()
+                )
+        );
+        try {
+            prefetchJdks();
+        } catch (Exception e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } finally {
+            Logger.flush();
+        }
+    }
+
+    public Log getLog() {
+        if (this.log == null) {
+            this.log = new SystemStreamLog();
+        }
+
+        return this.log;
+    }
+
+    public void setLog(Log log) {
+        this.log = log;
+    }
+
+    public Map<String, Object> getPluginContext() {
+        return this.pluginContext;
+    }
+
+    // ContextEnabled still declares a raw Map
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void setPluginContext(Map pluginContext) {
+        this.pluginContext = pluginContext;
+    }
+
+}
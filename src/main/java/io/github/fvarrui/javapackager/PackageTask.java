@@ -4,6 +4,9 @@ import io.github.fvarrui.javapackager.model.*;
 import io.github.fvarrui.javapackager.packagers.PackagerFactory;
 import io.github.fvarrui.javapackager.utils.Const;
 import io.github.fvarrui.javapackager.utils.updater.AdoptV3API;
+import io.github.fvarrui.javapackager.utils.updater.Github;
+import io.github.fvarrui.javapackager.utils.updater.JdkPrefetch;
+import io.github.fvarrui.javapackager.utils.updater.JdkStore;
 import io.github.fvarrui.javapackager.utils.updater.TaskJavaUpdater;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -15,6 +18,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -170,11 +174,62 @@ public class PackageTask {
     protected File jdkPath;
     /**
      * The JDK version. Supported versions differ from vendor to vendor, thus its recommended checking the vendors' website first before doing any changes.
+     * If not specified, the latest release is used (looked up only when the JDK is needed).
      */
     @Parameter(property = "jdkVersion", required = false)
     @Input
     @Optional
-    protected String jdkVersion = "8";
+    protected String jdkVersion;
+    /**
+     * Time (in hours) the list of available JDK releases, used to find the latest one, is cached on disk.
+     */
+    @Parameter(property = "jdkReleasesCacheTtl", required = false)
+    @Input
+    @Optional
+    protected Integer jdkReleasesCacheTtl;
+    /**
+     * Max size (in MB) of the local store where downloaded JDKs are kept. Least recently used JDKs are removed once exceeded.
+     */
+    @Parameter(property = "jdkStoreMaxSize", required = false)
+    @Input
+    @Optional
+    protected Integer jdkStoreMaxSize;
+    /**
+     * Max number of parallel connections used to download a JDK, resuming interrupted downloads.
+     */
+    @Parameter(property = "jdkDownloadConnections", required = false)
+    @Input
+    @Optional
+    protected Integer jdkDownloadConnections;
+    /**
+     * JDKs (platform, vendor and version) downloaded concurrently by the prefetch goal/task.
+     * Missing vendor or version default to jdkVendor and jdkVersion. All platforms if empty.
+     */
+    @Parameter(property = "jdkPrefetchTargets", required = false)
+    @Input
+    @Optional
+    protected List<JdkTarget> jdkPrefetchTargets;
+    /**
+     * Adoptium API base url, to use a mirror or proxy of it.
+     */
+    @Parameter(property = "adoptiumApiUrl", required = false)
+    @Input
+    @Optional
+    protected String adoptiumApiUrl;
+    /**
+     * GitHub API base url, to use a mirror or proxy of it (used to find GraalVM releases).
+     */
+    @Parameter(property = "githubApiUrl", required = false)
+    @Input
+    @Optional
+    protected String githubApiUrl;
+    /**
+     * Offline mode: JDKs are only resolved from the local JDK store, without network access.
+     */
+    @Parameter(property = "offline", required = false)
+    @Input
+    @Optional
+    protected Boolean offline;
     /**
      * The JDK vendor.
      */
@@ -282,6 +337,35 @@ public class PackageTask {
     @Input
     @Optional
     protected Boolean createTarball;
+    /**
+     * Tarball compression format: "gz", "xz" or "zst"
+     */
+    @Parameter(property = "tarballFormat", required = false)
+    @Input
+    @Optional
+    protected TarballFormat tarballFormat;
+    /**
+     * Tarball compression level (gz: 0-9, xz: 0-9, zst: 1-22), or the format's default one if not specified
+     */
+    @Parameter(property = "tarballCompressionLevel", required = false)
+    @Input
+    @Optional
+    protected Integer tarballCompressionLevel;
+    /**
+     * Number of threads compressing the tarball (0 = number of processors)
+     */
+    @Parameter(property = "tarballCompressionThreads", required = false)
+    @Input
+    @Optional
+    protected Integer tarballCompressionThreads;
+    /**
+     * Generates byte-identical bundles and packages from the same inputs: sorted entries, fixed owner,
+     * SOURCE_DATE_EPOCH (or 1980-02-01) as modification time and name-based GUIDs
+     */
+    @Parameter(property = "reproducible", required = false)
+    @Input
+    @Optional
+    protected Boolean reproducible;
     /**
      * Bundles app in a zipball file
      */
@@ -359,6 +443,75 @@ public class PackageTask {
     @Input
     @Optional
     protected Scripts scripts;
+    /**
+     * Max number of installer generators running at the same time. Generators which don't
+     * read or write the same files run concurrently when greater than 1.
+     */
+    @Parameter(property = "generatorsParallelism", required = false)
+    @Input
+    @Optional
+    protected Integer generatorsParallelism;
+    /**
+     * Max CPU slots used by the external tools (jlink, native-image, appimagetool, ...) running at
+     * the same time in this JVM. Tools which don't fit wait for the running ones (0 = number of processors).
+     */
+    @Parameter(property = "maxProcessSlots", required = false)
+    @Input
+    @Optional
+    protected Integer maxProcessSlots;
+    /**
+     * Max memory in MB estimated for the external tools running at the same time in this JVM
+     * (0 = physical memory).
+     */
+    @Parameter(property = "maxProcessMemory", required = false)
+    @Input
+    @Optional
+    protected Long maxProcessMemory;
+    /**
+     * How the JRE, additional resources and AppImage's AppDir are staged: copying files ("copy")
+     * or cloning/hard linking them when possible ("link"). The JRE is modified once staged, so it's
+     * only cloned, never hard linked.
+     */
+    @Parameter(property = "stagingMode", required = false)
+    @Input
+    @Optional
+    protected StagingMode stagingMode;
+    /**
+     * Keeps the app folder between builds, only rewriting the files which changed since the previous
+     * build and reusing the bundled JRE if the JDK and modules didn't change.
+     */
+    @Parameter(property = "incrementalBuild", required = false)
+    @Input
+    @Optional
+    protected Boolean incrementalBuild;
+    /**
+     * Caches customized JREs created with jlink and the modules each jar depends on found by jdeps
+     * in JavaPackager's temp folder, so the same JRE (same JDK, modules and options) is only created
+     * once and only new or changed jars are analyzed.
+     */
+    @Parameter(property = "cacheJre", required = false)
+    @Input
+    @Optional
+    protected Boolean cacheJre;
+    /**
+     * Max size (in MB) of the cache of customized JREs. Least recently used JREs are removed once exceeded.
+     */
+    @Parameter(property = "runtimeCacheMaxSize", required = false)
+    @Input
+    @Optional
+    protected Integer runtimeCacheMaxSize;
+    /**
+     * Runs jdeps and jlink in-process (through ToolProvider) when the packaging JDK is the one running
+     * JavaPackager, instead of forking them.
+     */
+    @Parameter(property = "inProcessTools", required = false)
+    @Input
+    @Optional
+    protected Boolean inProcessTools;
+    /**
+     * Updater holding the JDK resolved from the JDK store, until {@link #releaseJdk()}
+     */
+    private TaskJavaUpdater jdkUpdater;
 
     public PackageTask() throws IOException {
         //this.outputDirectory = (isGradle ? gradleProject.getBuildDir() : new File("${project.build.directory}"));
@@ -390,7 +543,14 @@ public class PackageTask {
         this.customizedJre = true;
         this.jrePath = null;
         this.jdkPath = null;
-        this.jdkVersion = new AdoptV3API().getLatestRelease();
+        this.jdkVersion = null; // latest release, looked up only when the JDK is needed
+        this.jdkReleasesCacheTtl = 24;
+        this.jdkStoreMaxSize = 4096;
+        this.jdkDownloadConnections = 4;
+        this.jdkPrefetchTargets = new ArrayList<>();
+        this.adoptiumApiUrl = AdoptV3API.DEFAULT_BASE_URL;
+        this.githubApiUrl = Github.DEFAULT_API_URL;
+        this.offline = false;
         this.jdkVendor = Const.graalvm;
         this.additionalResources = new ArrayList<>();
         this.modules = new ArrayList<>();
@@ -404,6 +564,10 @@ public class PackageTask {
         this.linuxConfig = new LinuxConfig();
         this.macConfig = new MacConfig();
         this.createTarball = false;
+        this.tarballFormat = TarballFormat.gz;
+        this.tarballCompressionLevel = null;
+        this.tarballCompressionThreads = 0;
+        this.reproducible = false;
         this.createZipball = false;
         this.extra = new HashMap<>();
         this.useResourcesAsWorkingDir = true;
@@ -415,6 +579,14 @@ public class PackageTask {
         this.fileAssociations = null;
         this.packagingJdk = null;
         scripts = new Scripts();
+        this.generatorsParallelism = 1;
+        this.maxProcessSlots = 0;
+        this.maxProcessMemory = 0L;
+        this.stagingMode = StagingMode.copy;
+        this.incrementalBuild = false;
+        this.cacheJre = true;
+        this.runtimeCacheMaxSize = 2048;
+        this.inProcessTools = true;
     }
 
     /**
@@ -425,8 +597,16 @@ public class PackageTask {
         // Code below was inside the Packager class before,
         // but it turns out that on gradle that class gets initialised multiple times
         // which breaks the logic below, thus I moved it here.
-        TaskJavaUpdater taskJavaUpdater = new TaskJavaUpdater(platform);
+        TaskJavaUpdater taskJavaUpdater = createJavaUpdater(platform);
+        if (jdkVersion == null) {
+            jdkVersion(findLatestJdkVersion(taskJavaUpdater, jdkVendor));
+        }
+        releaseJdk();
+        jdkUpdater = taskJavaUpdater;
         taskJavaUpdater.execute(jdkVersion, jdkVendor);
+        if (taskJavaUpdater.jdkPath == null) {
+            throw new Exception("No JDK " + jdkVersion + " by " + jdkVendor + " found for " + platform);
+        }
         if(platform == Platform.mac){ // mac is our special kid as always
             taskJavaUpdater.jdkPath = new File(taskJavaUpdater.jdkPath + "/Contents/Home");
         }
@@ -437,6 +617,77 @@ public class PackageTask {
         packagingJdk(taskJavaUpdater.jdkPath);
     }
 
+    /**
+     * Releases the JDK resolved from the JDK store (see {@link #setDefaultPackagingJdk()}), so it
+     * can be removed from the store again. Called once the build finishes, as the JVM may run
+     * more builds (e.g. a Gradle daemon).
+     */
+    public void releaseJdk() throws IOException {
+        if (jdkUpdater == null) return;
+        // resolved (and held) again by the next build
+        if (jdkPath != null && jdkPath.equals(jdkUpdater.jdkPath)) jdkPath = null;
+        if (packagingJdk != null && packagingJdk.equals(jdkUpdater.jdkPath)) packagingJdk = null;
+        try {
+            jdkUpdater.close();
+        } finally {
+            jdkUpdater = null;
+        }
+    }
+
+    /**
+     * Downloads the JDKs of all prefetch targets concurrently into the local JDK store,
+     * so packaging for each platform doesn't have to wait for its JDK to be downloaded.
+     *
+     * @return the installed JDK folder of every target
+     */
+    public Map<JdkTarget, File> prefetchJdks() throws Exception {
+        List<JdkTarget> targets = new ArrayList<>();
+        if (jdkPrefetchTargets == null || jdkPrefetchTargets.isEmpty()) {
+            targets.add(new JdkTarget(Platform.linux, null, null));
+            targets.add(new JdkTarget(Platform.mac, null, null));
+            targets.add(new JdkTarget(Platform.windows, null, null));
+        } else {
+            targets.addAll(jdkPrefetchTargets);
+        }
+        List<JdkTarget> resolvedTargets = new ArrayList<>();
+        for (JdkTarget target : targets) {
+            Platform targetPlatform = target.getPlatform() == null || target.getPlatform() == Platform.auto ? Platform.getCurrentPlatform() : target.getPlatform();
+            String vendor = target.getVendor() != null ? target.getVendor() : jdkVendor;
+            String version = target.getVersion() != null ? target.getVersion() : jdkVersion;
+            if (version == null) {
+                version = findLatestJdkVersion(createJavaUpdater(targetPlatform), vendor);
+            }
+            resolvedTargets.add(new JdkTarget(targetPlatform, vendor, version));
+        }
+        return new JdkPrefetch(this::createJavaUpdater).execute(resolvedTargets);
+    }
+
+    /**
+     * Creates the JDK updater of a platform with these settings
+     */
+    private TaskJavaUpdater createJavaUpdater(Platform platform) {
+        TaskJavaUpdater taskJavaUpdater = new TaskJavaUpdater(platform, new JdkStore(jdkStoreMaxSize * 1024L * 1024L));
+        taskJavaUpdater.downloadConnections = jdkDownloadConnections;
+        taskJavaUpdater.adoptiumUrl = adoptiumApiUrl;
+        taskJavaUpdater.githubUrl = githubApiUrl;
+        taskJavaUpdater.offline = offline;
+        return taskJavaUpdater;
+    }
+
+    /**
+     * Finds the latest JDK version: the latest release, or the latest one in the JDK store if offline
+     */
+    private String findLatestJdkVersion(TaskJavaUpdater taskJavaUpdater, String vendor) throws Exception {
+        if (offline) {
+            String version = taskJavaUpdater.findInstalledMajor(vendor);
+            if (version == null) {
+                throw new Exception("Offline mode, and no JDK by " + vendor + " is installed for " + taskJavaUpdater.platform);
+            }
+            return version;
+        }
+        return new AdoptV3API(TimeUnit.HOURS.toMillis(jdkReleasesCacheTtl), adoptiumApiUrl).getLatestRelease();
+    }
+
     /**
      * Get packaging JDK
      *
@@ -636,6 +887,69 @@ public class PackageTask {
         return jdkVersion;
     }
 
+    /**
+     * Get JDK releases cache TTL
+     *
+     * @return JDK releases cache TTL (in hours)
+     */
+    public Integer getJdkReleasesCacheTtl() {
+        return jdkReleasesCacheTtl;
+    }
+
+    /**
+     * Get JDK store max size
+     *
+     * @return JDK store max size (in MB)
+     */
+    public Integer getJdkStoreMaxSize() {
+        return jdkStoreMaxSize;
+    }
+
+    /**
+     * Get JDK download connections
+     *
+     * @return Max number of parallel connections used to download a JDK
+     */
+    public Integer getJdkDownloadConnections() {
+        return jdkDownloadConnections;
+    }
+
+    /**
+     * Get JDK prefetch targets
+     *
+     * @return JDKs downloaded by the prefetch goal/task
+     */
+    public List<JdkTarget> getJdkPrefetchTargets() {
+        return jdkPrefetchTargets;
+    }
+
+    /**
+     * Get Adoptium API url
+     *
+     * @return Adoptium API base url
+     */
+    public String getAdoptiumApiUrl() {
+        return adoptiumApiUrl;
+    }
+
+    /**
+     * Get GitHub API url
+     *
+     * @return GitHub API base url
+     */
+    public String getGithubApiUrl() {
+        return githubApiUrl;
+    }
+
+    /**
+     * Get offline mode
+     *
+     * @return Offline mode
+     */
+    public Boolean getOffline() {
+        return offline;
+    }
+
     /**
      * Get JDK vendor
      *
@@ -762,6 +1076,42 @@ public class PackageTask {
         return createTarball;
     }
 
+    /**
+     * Get tarball format
+     *
+     * @return Tarball format
+     */
+    public TarballFormat getTarballFormat() {
+        return tarballFormat;
+    }
+
+    /**
+     * Get tarball compression level
+     *
+     * @return Tarball compression level
+     */
+    public Integer getTarballCompressionLevel() {
+        return tarballCompressionLevel;
+    }
+
+    /**
+     * Get tarball compression threads
+     *
+     * @return Tarball compression threads
+     */
+    public Integer getTarballCompressionThreads() {
+        return tarballCompressionThreads;
+    }
+
+    /**
+     * Get reproducible
+     *
+     * @return Reproducible
+     */
+    public Boolean getReproducible() {
+        return reproducible;
+    }
+
     /**
      * Get create zipball
      *
@@ -852,6 +1202,78 @@ public class PackageTask {
         return scripts;
     }
 
+    /**
+     * Get generators parallelism
+     *
+     * @return Max number of installer generators running at the same time
+     */
+    public Integer getGeneratorsParallelism() {
+        return generatorsParallelism;
+    }
+
+    /**
+     * Get max process slots
+     *
+     * @return Max CPU slots used by the external tools running at the same time
+     */
+    public Integer getMaxProcessSlots() {
+        return maxProcessSlots;
+    }
+
+    /**
+     * Get max process memory
+     *
+     * @return Max memory in MB estimated for the external tools running at the same time
+     */
+    public Long getMaxProcessMemory() {
+        return maxProcessMemory;
+    }
+
+    /**
+     * Get staging mode
+     *
+     * @return Staging mode
+     */
+    public StagingMode getStagingMode() {
+        return stagingMode;
+    }
+
+    /**
+     * Get incremental build
+     *
+     * @return Incremental build
+     */
+    public Boolean getIncrementalBuild() {
+        return incrementalBuild;
+    }
+
+    /**
+     * Get cache JRE
+     *
+     * @return Cache JRE
+     */
+    public Boolean getCacheJre() {
+        return cacheJre;
+    }
+
+    /**
+     * Get runtime cache max size
+     *
+     * @return Runtime cache max size (in MB)
+     */
+    public Integer getRuntimeCacheMaxSize() {
+        return runtimeCacheMaxSize;
+    }
+
+    /**
+     * Get in-process tools
+     *
+     * @return In-process tools
+     */
+    public Boolean getInProcessTools() {
+        return inProcessTools;
+    }
+
     // fluent api
 
     /**
@@ -1095,6 +1517,83 @@ public class PackageTask {
         return this;
     }
 
+    /**
+     * Set JDK releases cache TTL
+     *
+     * @param jdkReleasesCacheTtl JDK releases cache TTL (in hours)
+     * @return Packager settings
+     */
+    public PackageTask jdkReleasesCacheTtl(Integer jdkReleasesCacheTtl) {
+        this.jdkReleasesCacheTtl = jdkReleasesCacheTtl;
+        return this;
+    }
+
+    /**
+     * Set JDK store max size
+     *
+     * @param jdkStoreMaxSize JDK store max size (in MB)
+     * @return Packager settings
+     */
+    public PackageTask jdkStoreMaxSize(Integer jdkStoreMaxSize) {
+        this.jdkStoreMaxSize = jdkStoreMaxSize;
+        return this;
+    }
+
+    /**
+     * Set JDK download connections
+     *
+     * @param jdkDownloadConnections Max number of parallel connections used to download a JDK
+     * @return Packager settings
+     */
+    public PackageTask jdkDownloadConnections(Integer jdkDownloadConnections) {
+        this.jdkDownloadConnections = jdkDownloadConnections;
+        return this;
+    }
+
+    /**
+     * Set JDK prefetch targets
+     *
+     * @param jdkPrefetchTargets JDKs downloaded by the prefetch goal/task
+     * @return Packager settings
+     */
+    public PackageTask jdkPrefetchTargets(List<JdkTarget> jdkPrefetchTargets) {
+        this.jdkPrefetchTargets = jdkPrefetchTargets;
+        return this;
+    }
+
+    /**
+     * Set Adoptium API url
+     *
+     * @param adoptiumApiUrl Adoptium API base url
+     * @return Packager settings
+     */
+    public PackageTask adoptiumApiUrl(String adoptiumApiUrl) {
+        this.adoptiumApiUrl = adoptiumApiUrl;
+        return this;
+    }
+
+    /**
+     * Set GitHub API url
+     *
+     * @param githubApiUrl GitHub API base url
+     * @return Packager settings
+     */
+    public PackageTask githubApiUrl(String githubApiUrl) {
+        this.githubApiUrl = githubApiUrl;
+        return this;
+    }
+
+    /**
+     * Set offline mode
+     *
+     * @param offline Offline mode
+     * @return Packager settings
+     */
+    public PackageTask offline(Boolean offline) {
+        this.offline = offline;
+        return this;
+    }
+
     /**
      * Set JDK vendor
      *
@@ -1249,6 +1748,50 @@ public class PackageTask {
         return this;
     }
 
+    /**
+     * Set tarball format
+     *
+     * @param tarballFormat Tarball format
+     * @return Packager settings
+     */
+    public PackageTask tarballFormat(TarballFormat tarballFormat) {
+        this.tarballFormat = tarballFormat;
+        return this;
+    }
+
+    /**
+     * Set tarball compression level
+     *
+     * @param tarballCompressionLevel Tarball compression level
+     * @return Packager settings
+     */
+    public PackageTask tarballCompressionLevel(Integer tarballCompressionLevel) {
+        this.tarballCompressionLevel = tarballCompressionLevel;
+        return this;
+    }
+
+    /**
+     * Set tarball compression threads
+     *
+     * @param tarballCompressionThreads Tarball compression threads
+     * @return Packager settings
+     */
+    public PackageTask tarballCompressionThreads(Integer tarballCompressionThreads) {
+        this.tarballCompressionThreads = tarballCompressionThreads;
+        return this;
+    }
+
+    /**
+     * Set reproducible
+     *
+     * @param reproducible Reproducible
+     * @return Packager settings
+     */
+    public PackageTask reproducible(Boolean reproducible) {
+        this.reproducible = reproducible;
+        return this;
+    }
+
     /**
      * Set create zipball
      *
@@ -1359,6 +1902,94 @@ public class PackageTask {
         return this;
     }
 
+    /**
+     * Set generators parallelism
+     *
+     * @param generatorsParallelism Max number of installer generators running at the same time
+     * @return Packager settings
+     */
+    public PackageTask generatorsParallelism(Integer generatorsParallelism) {
+        this.generatorsParallelism = generatorsParallelism;
+        return this;
+    }
+
+    /**
+     * Set max process slots
+     *
+     * @param maxProcessSlots Max CPU slots used by the external tools running at the same time
+     * @return Packager settings
+     */
+    public PackageTask maxProcessSlots(Integer maxProcessSlots) {
+        this.maxProcessSlots = maxProcessSlots;
+        return this;
+    }
+
+    /**
+     * Set max process memory
+     *
+     * @param maxProcessMemory Max memory in MB estimated for the external tools running at the same time
+     * @return Packager settings
+     */
+    public PackageTask maxProcessMemory(Long maxProcessMemory) {
+        this.maxProcessMemory = maxProcessMemory;
+        return this;
+    }
+
+    /**
+     * Set staging mode
+     *
+     * @param stagingMode Staging mode
+     * @return Packager settings
+     */
+    public PackageTask stagingMode(StagingMode stagingMode) {
+        this.stagingMode = stagingMode;
+        return this;
+    }
+
+    /**
+     * Set incremental build
+     *
+     * @param incrementalBuild Incremental build
+     * @return Packager settings
+     */
+    public PackageTask incrementalBuild(Boolean incrementalBuild) {
+        this.incrementalBuild = incrementalBuild;
+        return this;
+    }
+
+    /**
+     * Set cache JRE
+     *
+     * @param cacheJre Cache JRE
+     * @return Packager settings
+     */
+    public PackageTask cacheJre(Boolean cacheJre) {
+        this.cacheJre = cacheJre;
+        return this;
+    }
+
+    /**
+     * Set runtime cache max size
+     *
+     * @param runtimeCacheMaxSize Runtime cache max size (in MB)
+     * @return Packager settings
+     */
+    public PackageTask runtimeCacheMaxSize(Integer runtimeCacheMaxSize) {
+        this.runtimeCacheMaxSize = runtimeCacheMaxSize;
+        return this;
+    }
+
+    /**
+     * Set in-process tools
+     *
+     * @param inProcessTools In-process tools
+     * @return Packager settings
+     */
+    public PackageTask inProcessTools(Boolean inProcessTools) {
+        this.inProcessTools = inProcessTools;
+        return this;
+    }
+
     // some helpful methods
 
     /**
@@ -1398,6 +2029,24 @@ public class PackageTask {
                 + extra + ", useResourcesAsWorkingDir=" + useResourcesAsWorkingDir + ", assetsDir=" + assetsDir
                 + ", classpath=" + classpath + ", jreMinVersion=" + jreMinVersion + ", manifest=" + manifest
                 + ", additionalModulePaths=" + additionalModulePaths + ", fileAssociations=" + fileAssociations
-                + ", packagingJdk=" + packagingJdk + ", scripts=" + scripts + "]";
+                + ", packagingJdk=" + packagingJdk + ", scripts=" + scripts
+                + ", generatorsParallelism=" + generatorsParallelism + ", stagingMode=" + stagingMode
+                + ", incrementalBuild=" + incrementalBuild
+                + ", cacheJre=" + cacheJre
+                + ", runtimeCacheMaxSize=" + runtimeCacheMaxSize
+                + ", inProcessTools=" + inProcessTools
+                + ", jdkReleasesCacheTtl=" + jdkReleasesCacheTtl
+                + ", jdkStoreMaxSize=" + jdkStoreMaxSize
+                + ", jdkDownloadConnections=" + jdkDownloadConnections
+                + ", jdkPrefetchTargets=" + jdkPrefetchTargets
+                + ", adoptiumApiUrl=" + adoptiumApiUrl
+                + ", githubApiUrl=" + githubApiUrl
+                + ", offline=" + offline
+                + ", maxProcessSlots=" + maxProcessSlots
+                + ", maxProcessMemory=" + maxProcessMemory
+                + ", tarballFormat=" + tarballFormat
+                + ", tarballCompressionLevel=" + tarballCompressionLevel
+                + ", tarballCompressionThreads=" + tarballCompressionThreads
+                + ", reproducible=" + reproducible + "]";
     }
 }
\ No newline at end of file
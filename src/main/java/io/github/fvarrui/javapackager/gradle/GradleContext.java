@@ -56,16 +56,6 @@ public class GradleContext extends Context<Logger> {
 		return new CopyDependencies().apply(packager);
 	}
 
-	@Override
-	public File createTarball(Packager packager) throws Exception {
-		return new CreateTarball().apply(packager);
-	}
-
-	@Override
-	public File createZipball(Packager packager) throws Exception {
-		return new CreateZipball().apply(packager);
-	}
-
 	@Override
 	public File resolveLicense(Packager packager) throws Exception {
 		// do nothing
@@ -2,6 +2,7 @@ package io.github.fvarrui.javapackager.gradle;
 
 import edu.sc.seis.launch4j.tasks.Launch4jLibraryTask;
 import io.github.fvarrui.javapackager.GradlePackageTask;
+import io.github.fvarrui.javapackager.GradlePrefetchJdksTask;
 import io.github.fvarrui.javapackager.PackageTask;
 import io.github.fvarrui.javapackager.packagers.Context;
 import org.gradle.api.Plugin;
@@ -17,6 +18,7 @@ public class PackagePlugin implements Plugin<Project> {
 	public static final String GROUP_NAME = "JavaPackager";
 	public static final String SETTINGS_EXT_NAME = "javapackager";
 	public static final String PACKAGE_TASK_NAME = "package";
+	public static final String PREFETCH_JDKS_TASK_NAME = "prefetchJdks";
 	public static PackageTask GLOBAL_EXTENSION;
 
 	@Override
@@ -30,6 +32,7 @@ public class PackagePlugin implements Plugin<Project> {
 		GLOBAL_EXTENSION = project.getExtensions().create(SETTINGS_EXT_NAME, PackageTask.class);
 		GradlePackageTask task = (GradlePackageTask) project.getTasks().create(PACKAGE_TASK_NAME, GradlePackageTask.class).dependsOn("build");
 		task.getExtensions().add(SETTINGS_EXT_NAME, GLOBAL_EXTENSION);
+		project.getTasks().create(PREFETCH_JDKS_TASK_NAME, GradlePrefetchJdksTask.class);
 
 		Context.getGradleContext().setLibraryTask(project.getTasks().create("launch4j_" + UUID.randomUUID(), Launch4jLibraryTask.class));
 	}
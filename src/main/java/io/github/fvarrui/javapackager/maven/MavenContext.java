@@ -48,16 +48,6 @@ public class MavenContext extends Context<Log> {
 		return new CopyDependencies().apply(packager);
 	}
 
-	@Override
-	public File createTarball(Packager packager) throws Exception {
-		return new CreateTarball().apply(packager);
-	}
-
-	@Override
-	public File createZipball(Packager packager) throws Exception {
-		return new CreateZipball().apply(packager);
-	}
-
 	@Override
 	public File resolveLicense(Packager packager) throws Exception {
 		return new ResolveLicenseFromPOM().apply(packager);
@@ -0,0 +1,69 @@
+package io.github.fvarrui.javapackager.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * JDK to prefetch: target platform, vendor and version
+ */
+public class JdkTarget implements Serializable {
+	private static final long serialVersionUID = -3151466021962187519L;
+
+	private Platform platform;
+	private String vendor;
+	private String version;
+
+	public JdkTarget() {
+		super();
+	}
+
+	public JdkTarget(Platform platform, String vendor, String version) {
+		super();
+		this.platform = platform;
+		this.vendor = vendor;
+		this.version = version;
+	}
+
+	public Platform getPlatform() {
+		return platform;
+	}
+
+	public void setPlatform(Platform platform) {
+		this.platform = platform;
+	}
+
+	public String getVendor() {
+		return vendor;
+	}
+
+	public void setVendor(String vendor) {
+		this.vendor = vendor;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public void setVersion(String version) {
+		this.version = version;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(platform, vendor, version);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof JdkTarget)) return false;
+		JdkTarget other = (JdkTarget) obj;
+		return platform == other.platform && Objects.equals(vendor, other.vendor) && Objects.equals(version, other.version);
+	}
+
+	@Override
+	public String toString() {
+		return "JdkTarget [platform=" + platform + ", vendor=" + vendor + ", version=" + version + "]";
+	}
+
+}
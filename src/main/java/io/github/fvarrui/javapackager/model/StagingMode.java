@@ -0,0 +1,11 @@
+package io.github.fvarrui.javapackager.model;
+
+/**
+ * How files are staged into the app folder and other intermediate folders
+ */
+public enum StagingMode {
+	/** Files are physically copied */
+	copy,
+	/** Files are cloned (reflink) when the filesystem supports it, hard linked otherwise (except the JRE), and copied as last resort */
+	link;
+}
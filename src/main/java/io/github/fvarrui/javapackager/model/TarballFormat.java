@@ -0,0 +1,24 @@
+package io.github.fvarrui.javapackager.model;
+
+/**
+ * Compression formats for tarballs
+ */
+public enum TarballFormat {
+	/** GZIP compressed tarball (tar.gz), compatible with any system */
+	gz("tar.gz"),
+	/** XZ compressed tarball (tar.xz), the smallest one */
+	xz("tar.xz"),
+	/** Zstandard compressed tarball (tar.zst), the fastest to decompress */
+	zst("tar.zst");
+
+	private final String extension;
+
+	private TarballFormat(String extension) {
+		this.extension = extension;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+}
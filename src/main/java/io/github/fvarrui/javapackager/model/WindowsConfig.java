@@ -5,9 +5,9 @@ import static org.apache.commons.lang3.StringUtils.defaultIfBlank;
 import java.io.File;
 import java.io.Serializable;
 import java.util.LinkedHashMap;
-import java.util.UUID;
 
 import io.github.fvarrui.javapackager.packagers.Packager;
+import io.github.fvarrui.javapackager.utils.GuidGenerator;
 import io.github.fvarrui.javapackager.utils.ObjectUtils;
 
 /**
@@ -338,7 +338,7 @@ public class WindowsConfig implements Serializable {
 		this.setProductName(defaultIfBlank(this.getProductName(), packager.task.getAppName()));
 		this.setInternalName(defaultIfBlank(this.getInternalName(), packager.task.getAppName()));
 		this.setOriginalFilename(defaultIfBlank(this.getOriginalFilename(), packager.task.getAppName() + ".exe"));
-		this.setMsiUpgradeCode(defaultIfBlank(this.getMsiUpgradeCode(), UUID.randomUUID().toString()));
+		this.setMsiUpgradeCode(defaultIfBlank(this.getMsiUpgradeCode(), new GuidGenerator(packager.task.getAppName(), packager.task.getReproducible()).forName("upgrade-code").toString()));
 	}
 
 }
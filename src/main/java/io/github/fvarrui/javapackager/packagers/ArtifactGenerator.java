@@ -1,7 +1,9 @@
 package io.github.fvarrui.javapackager.packagers;
 
 import java.io.File;
+import java.util.List;
 
+import io.github.fvarrui.javapackager.utils.FileUtils;
 import io.github.fvarrui.javapackager.utils.Logger;
 
 
@@ -33,8 +35,81 @@ public abstract class ArtifactGenerator<T extends Packager> {
 		this.artifactName = artifactName;
 	}
 
+	/**
+	 * Files and folders read by this generator while generating its artifact.
+	 * Returning null means that they are unknown, so this generator will never
+	 * run concurrently with any other generator.
+	 * 
+	 * @param packager Packager
+	 * @return Read files and folders, or null if unknown
+	 * @throws Exception Inputs could not be determined
+	 */
+	public List<File> getInputs(T packager) throws Exception {
+		return null;
+	}
+
+	/**
+	 * Files and folders written by this generator while generating its artifact.
+	 * Returning null means that they are unknown, so this generator will never
+	 * run concurrently with any other generator.
+	 * 
+	 * @param packager Packager
+	 * @return Written files and folders, or null if unknown
+	 * @throws Exception Outputs could not be determined
+	 */
+	public List<File> getOutputs(T packager) throws Exception {
+		return null;
+	}
+
+	/**
+	 * Checks if this generator can run at the same time as other one, i.e.
+	 * none of them writes something the other one reads or writes
+	 * 
+	 * @param other    Other generator
+	 * @param packager Packager
+	 * @return true if both generators are independent
+	 * @throws Exception Inputs or outputs could not be determined
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean isIndependentFrom(ArtifactGenerator<?> other, Packager packager) throws Exception {
+		List<File> inputs = getInputs((T) packager);
+		List<File> outputs = getOutputs((T) packager);
+		List<File> otherInputs = other.inputsOf(packager);
+		List<File> otherOutputs = other.outputsOf(packager);
+		if (inputs == null || outputs == null || otherInputs == null || otherOutputs == null) {
+			return false;
+		}
+		return !overlap(outputs, otherInputs) && !overlap(outputs, otherOutputs) && !overlap(inputs, otherOutputs);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<File> inputsOf(Packager packager) throws Exception {
+		return getInputs((T) packager);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<File> outputsOf(Packager packager) throws Exception {
+		return getOutputs((T) packager);
+	}
+
+	private static boolean overlap(List<File> files, List<File> otherFiles) {
+		for (File file : files) {
+			for (File otherFile : otherFiles) {
+				if (FileUtils.isSameOrNested(file, otherFile) || FileUtils.isSameOrNested(otherFile, file)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
 	protected abstract File doApply(T packager) throws Exception;
     
+    @SuppressWarnings("unchecked")
+	public boolean isSkipped(Packager packager) {
+    	return skip((T)packager);
+    }
+
     @SuppressWarnings("unchecked")
 	public File apply(Packager packager) throws Exception {
     	if (skip((T)packager)) {
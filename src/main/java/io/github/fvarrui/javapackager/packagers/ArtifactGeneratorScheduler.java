@@ -0,0 +1,124 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import static org.apache.commons.collections4.CollectionUtils.addIgnoreNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.github.fvarrui.javapackager.utils.Logger;
+
+/**
+ * Runs artifact generators, running the independent ones concurrently.
+ *
+ * Each generator waits for all the previous generators (in declaration order)
+ * which read or write something it writes, or write something it reads.
+ */
+public class ArtifactGeneratorScheduler {
+
+	private final Packager packager;
+	private final int parallelism;
+
+	/**
+	 * @param packager    Packager
+	 * @param parallelism Max number of generators running at the same time
+	 */
+	public ArtifactGeneratorScheduler(Packager packager, int parallelism) {
+		super();
+		this.packager = packager;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Runs the generators
+	 *
+	 * @param generators Artifact generators, in declaration order
+	 * @return Generated artifacts, in declaration order
+	 * @throws Exception Generators dependencies could not be determined
+	 */
+	public List<File> run(List<? extends ArtifactGenerator<?>> generators) throws Exception {
+		List<File> artifacts = new ArrayList<>();
+
+		if (parallelism <= 1) {
+			for (ArtifactGenerator<?> generator : generators) {
+				addIgnoreNull(artifacts, generate(generator));
+			}
+			return artifacts;
+		}
+
+		// skipped generators are left out, so their inputs and outputs are never resolved
+		List<ArtifactGenerator<?>> scheduled = new ArrayList<>();
+		for (ArtifactGenerator<?> generator : generators) {
+			if (generator.isSkipped(packager)) {
+				Logger.warn(generator.getArtifactName() + " artifact generation skipped!");
+			} else {
+				scheduled.add(generator);
+			}
+		}
+
+		// generators continue the indentation of this thread, and their messages are prefixed
+		// with the artifact name, as they are mixed up with the ones of other generators
+		int tabs = Logger.getTabs();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, scheduled.size())));
+		try {
+
+			List<CompletableFuture<File>> futures = new ArrayList<>();
+			for (int i = 0; i < scheduled.size(); i++) {
+				ArtifactGenerator<?> generator = scheduled.get(i);
+				List<CompletableFuture<File>> dependencies = new ArrayList<>();
+				for (int j = 0; j < i; j++) {
+					if (!generator.isIndependentFrom(scheduled.get(j), packager)) {
+						dependencies.add(futures.get(j));
+					}
+				}
+				if (!dependencies.isEmpty()) {
+					Logger.debug(generator.getArtifactName() + " waits for " + dependencies.size() + " generator(s)");
+				}
+				futures.add(
+					CompletableFuture
+						.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+						.thenApplyAsync(v -> generate(generator, tabs), executor)
+				);
+			}
+
+			for (CompletableFuture<File> future : futures) {
+				addIgnoreNull(artifacts, future.join());
+			}
+
+		} finally {
+			executor.shutdown();
+		}
+
+		return artifacts;
+	}
+
+	private File generate(ArtifactGenerator<?> generator, int tabs) {
+		Logger.setTabs(tabs);
+		Logger.setPrefix("[" + generator.getArtifactName() + "]");
+		try {
+			return generate(generator);
+		} finally {
+			Logger.setPrefix(null);
+		}
+	}
+
+	private File generate(ArtifactGenerator<?> generator) {
+		try {
+			Logger.infoIndent("Generating " + generator.getArtifactName() + "...");
+			File artifact = generator.apply(packager);
+			if (artifact != null) {
+				Logger.infoUnindent(generator.getArtifactName() + " generated in " + artifact + "!");
+			} else {
+				Logger.warnUnindent(generator.getArtifactName() + " NOT generated!!!");
+			}
+			return artifact;
+		} catch (Exception e) {
+			Logger.errorUnindent(generator.getArtifactName() + " generation failed due to: " + e.getMessage(), e);
+			return null;
+		}
+	}
+
+}
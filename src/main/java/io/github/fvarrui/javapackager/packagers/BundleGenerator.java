@@ -0,0 +1,88 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.fvarrui.javapackager.model.Platform;
+import io.github.fvarrui.javapackager.utils.SourceDate;
+
+/**
+ * Generates a bundle (an archive containing the app folder). Several bundles can be generated
+ * together reading the app folder only once (see {@link #generate(Packager, List)}).
+ */
+public abstract class BundleGenerator extends ArtifactGenerator<Packager> {
+
+	public BundleGenerator(String artifactName) {
+		super(artifactName);
+	}
+
+	/**
+	 * Gets the bundle file
+	 *
+	 * @param packager Packager
+	 * @return Bundle file
+	 */
+	protected abstract File getBundleFile(Packager packager);
+
+	/**
+	 * Creates the archive writer for the bundle
+	 *
+	 * @param bundleFile Bundle file
+	 * @param packager   Packager
+	 * @return Archive writer
+	 * @throws IOException Bundle file could not be created
+	 */
+	protected abstract BundleSink createSink(File bundleFile, Packager packager) throws IOException;
+
+	@Override
+	protected File doApply(Packager packager) throws Exception {
+		return generate(packager, Collections.singletonList(this)).get(0);
+	}
+
+	/**
+	 * Generates several bundles walking the app folder once
+	 *
+	 * @param packager   Packager
+	 * @param generators Bundle generators
+	 * @return Generated bundles, in the same order as generators
+	 * @throws IOException Some bundle could not be generated
+	 */
+	public static List<File> generate(Packager packager, List<BundleGenerator> generators) throws IOException {
+		List<File> bundles = new ArrayList<>();
+		if (generators.isEmpty()) return bundles;
+
+		// on mac os, bundles only contain the app bundle
+		File folder = Platform.mac.equals(packager.task.getPlatform()) ? ((MacPackager) packager).getAppFile() : packager.getAppFolder();
+
+		List<BundleSink> sinks = new ArrayList<>();
+		try {
+			for (BundleGenerator generator : generators) {
+				File bundleFile = generator.getBundleFile(packager);
+				sinks.add(generator.createSink(bundleFile, packager));
+				bundles.add(bundleFile);
+			}
+		} catch (IOException | RuntimeException e) {
+			for (BundleSink sink : sinks) {
+				try {
+					sink.close();
+				} catch (IOException ce) {
+					e.addSuppressed(ce);
+				}
+			}
+			throw e;
+		}
+
+		try (BundleWriter writer = new BundleWriter(sinks)) {
+			if (packager.task.getReproducible()) {
+				writer.setFixedModTime(SourceDate.getTimestamp());
+			}
+			writer.addFolder(folder, folder.getName(), new ExecutableFiles(packager));
+		}
+
+		return bundles;
+	}
+
+}
@@ -1,19 +1,33 @@
 package io.github.fvarrui.javapackager.packagers;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemUtils;
 
 import io.github.fvarrui.javapackager.model.Platform;
-import io.github.fvarrui.javapackager.utils.CommandUtils;
 import io.github.fvarrui.javapackager.utils.FileUtils;
 import io.github.fvarrui.javapackager.utils.JDKUtils;
+import io.github.fvarrui.javapackager.utils.JdepsCache;
 import io.github.fvarrui.javapackager.utils.Logger;
+import io.github.fvarrui.javapackager.utils.RuntimeCache;
+import io.github.fvarrui.javapackager.utils.ToolUtils;
 import io.github.fvarrui.javapackager.utils.VersionUtils;
 
 /**
@@ -21,6 +35,8 @@ import io.github.fvarrui.javapackager.utils.VersionUtils;
  */
 public class BundleJre extends ArtifactGenerator<Packager> {
 	
+	private static final String [] JLINK_OPTIONS = { "--no-header-files", "--no-man-pages", "--strip-debug", "--compress=2" };
+	
 	public BundleJre() {
 		super("JRE");
 	}
@@ -75,21 +91,27 @@ public class BundleJre extends ArtifactGenerator<Packager> {
 				
 			}
 
-			// removes old jre folder from bundle
-			if (destinationFolder.exists()) FileUtils.removeFolder(destinationFolder);
+			String jreKey = FileUtils.sha256(StringUtils.join(new Object[] { specificJreFolder.getAbsolutePath(), JDKUtils.getReleaseDigest(specificJreFolder) }, "\n"));
+
+			if (!reuseJre(packager, destinationFolder, jreKey)) {
+
+				// removes old jre folder from bundle
+				if (destinationFolder.exists()) FileUtils.removeFolder(destinationFolder);
+	
+				// copies JRE folder to bundle (never hard linked, as it's modified below and it may be shared, e.g. the JDK store)
+				FileUtils.cloneFolderContentToFolder(specificJreFolder, destinationFolder, packager.task.getStagingMode());
+				
+				// sets execute permissions on executables in jre
+				File binFolder = new File(destinationFolder, "bin");
+				Arrays.asList(binFolder.listFiles()).forEach(f -> f.setExecutable(true, false));
+				
+				// sets execute permissions on jspawnhelper in jre
+				File libFolder = new File(destinationFolder, "lib");
+				File jshFile = new File(libFolder, "jspawnhelper");
+				if (jshFile.exists()) {
+					jshFile.setExecutable(true, false);
+				}
 
-			// copies JRE folder to bundle
-			FileUtils.copyFolderContentToFolder(specificJreFolder, destinationFolder);
-			
-			// sets execute permissions on executables in jre
-			File binFolder = new File(destinationFolder, "bin");
-			Arrays.asList(binFolder.listFiles()).forEach(f -> f.setExecutable(true, false));
-			
-			// sets execute permissions on jspawnhelper in jre
-			File libFolder = new File(destinationFolder, "lib");
-			File jshFile = new File(libFolder, "jspawnhelper");
-			if (jshFile.exists()) {
-				jshFile.setExecutable(true, false);
 			}
 
 		} else if (VersionUtils.getJavaMajorVersion() <= 8) {
@@ -111,7 +133,7 @@ public class BundleJre extends ArtifactGenerator<Packager> {
 				throw new Exception("Invalid JDK for platform '" + platform + "': " + jdkPath);
 			}
 			
-			String modules = getRequiredModules(libsFolder, customizedJre, jarFile, requiredModules, additionalModules, additionalModulePaths);
+			String modules = getRequiredModules(libsFolder, customizedJre, jarFile, requiredModules, additionalModules, additionalModulePaths, packager.task.getCacheJre(), packager.task.getInProcessTools());
 
 			Logger.info("Creating JRE with next modules included: " + modules);
 
@@ -121,27 +143,35 @@ public class BundleJre extends ArtifactGenerator<Packager> {
 			}
 			
 			Logger.info("Using " + modulesDir + " modules directory");
-	
-			if (destinationFolder.exists()) FileUtils.removeFolder(destinationFolder);
 
-			String jlink = new File(currentJdk, "/bin/jlink").getAbsolutePath();
+			// identifies the JRE by everything it's created from
+			boolean inProcessTools = packager.task.getInProcessTools();
 			
-			// generates customized jre using modules
-			CommandUtils.execute(
-					jlink, 
-					"--module-path", modulesDir, 
-					additionalModulePathsToParams(additionalModulePaths),
-					"--add-modules", modules, 
-					"--output", destinationFolder, 
-					"--no-header-files", 
-					"--no-man-pages", 
-					"--strip-debug", 
-					"--compress=2"
-				);
+			String jreKey = FileUtils.sha256(StringUtils.join(new Object[] {
+					jdkPath.getAbsolutePath(),
+					JDKUtils.getReleaseDigest(jdkPath),
+					JDKUtils.getReleaseDigest(currentJdk),
+					modules,
+					describeModulePaths(additionalModulePaths),
+					StringUtils.join(JLINK_OPTIONS, " ")
+				}, "\n"));
+
+			if (!reuseJre(packager, destinationFolder, jreKey)) {
+	
+				if (destinationFolder.exists()) FileUtils.removeFolder(destinationFolder);
 	
-			// sets execution permissions on executables in jre
-			File binFolder = new File(destinationFolder, "bin");
-			Arrays.asList(binFolder.listFiles()).forEach(f -> f.setExecutable(true, false));
+				if (packager.task.getCacheJre()) {
+					
+					// links the JRE only if it isn't cached yet
+					new RuntimeCache(packager.task.getRuntimeCacheMaxSize() * 1024L * 1024L).copyTo(jreKey, output -> link(currentJdk, inProcessTools, modulesDir, additionalModulePaths, modules, output), destinationFolder, packager.task.getStagingMode());
+					
+				} else {
+					
+					link(currentJdk, inProcessTools, modulesDir, additionalModulePaths, modules, destinationFolder);
+					
+				}
+
+			}
 
 		}
 		
@@ -170,6 +200,76 @@ public class BundleJre extends ArtifactGenerator<Packager> {
 		return destinationFolder;
 	}
 	
+	/**
+	 * Generates a customized JRE using jlink
+	 * 
+	 * @param jdk JDK containing jlink
+	 * @param inProcess Runs jlink in-process if possible
+	 * @param modulesDir JDK modules directory
+	 * @param additionalModulePaths Additional module paths
+	 * @param modules Comma separated list of modules to include
+	 * @param outputFolder JRE folder (must not exist)
+	 * @throws Exception Process failed
+	 */
+	private void link(File jdk, boolean inProcess, File modulesDir, List<File> additionalModulePaths, String modules, File outputFolder) throws Exception {
+		
+		// generates customized jre using modules
+		ToolUtils.execute(
+				jdk, "jlink", inProcess,
+				"--module-path", modulesDir, 
+				additionalModulePathsToParams(additionalModulePaths),
+				"--add-modules", modules, 
+				"--output", outputFolder, 
+				JLINK_OPTIONS
+			);
+
+		// sets execution permissions on executables in jre
+		File binFolder = new File(outputFolder, "bin");
+		Arrays.asList(binFolder.listFiles()).forEach(f -> f.setExecutable(true, false));
+		
+	}
+	
+	/**
+	 * Describes the content of the additional module paths (files, sizes and last modified times),
+	 * so any change in them is noticed
+	 * 
+	 * @param additionalModulePaths Additional module paths
+	 * @return Module paths description
+	 * @throws IOException Module paths could not be listed
+	 */
+	private String describeModulePaths(List<File> additionalModulePaths) throws IOException {
+		StringBuilder description = new StringBuilder();
+		for (File path : additionalModulePaths) {
+			description.append(path.getAbsolutePath()).append('\n');
+			if (!path.exists()) continue;
+			try (Stream<Path> files = Files.walk(path.toPath())) {
+				files
+					.filter(Files::isRegularFile)
+					.sorted()
+					.map(Path::toFile)
+					.forEach(f -> description.append(f.getAbsolutePath()).append(' ').append(f.length()).append(' ').append(f.lastModified()).append('\n'));
+			}
+		}
+		return description.toString();
+	}
+	
+	/**
+	 * Reuses the JRE bundled by the previous build if it was created from the same inputs
+	 * 
+	 * @param packager Packager
+	 * @param destinationFolder JRE destination folder
+	 * @param key Hash of everything the JRE is created from (JDK, modules, ...)
+	 * @return true if the JRE was reused, false if it has to be created
+	 * @throws Exception Previous JRE could not be reused
+	 */
+	private boolean reuseJre(Packager packager, File destinationFolder, String key) throws Exception {
+		IncrementalBuild incrementalBuild = packager.getIncrementalBuild();
+		if (incrementalBuild == null) return false;
+		if (!incrementalBuild.reuse("jre", key, destinationFolder)) return false;
+		Logger.info("JRE reused from previous build, as the JDK and modules didn't change");
+		return true;
+	}
+	
 	/**
 	 * Uses jdeps command tool to determine which modules all used jar files depend on
 	 * 
@@ -179,14 +279,16 @@ public class BundleJre extends ArtifactGenerator<Packager> {
 	 * @param defaultModules Additional files and folders to include in the bundled app.
 	 * @param additionalModules Defines modules to customize the bundled JRE. Don't use jdeps to get module dependencies.
 	 * @param additionalModulePaths Defines additional module paths to customize the bundled JRE.
+	 * @param cacheModules if true, every jar is analyzed on its own and its modules are cached, so only new or changed jars are analyzed again
+	 * @param inProcessTools if true, jdeps is run in-process instead of forking it
 	 * @return string containing a comma separated list with all needed modules
 	 * @throws Exception Process failed
 	 */
-	protected String getRequiredModules(File libsFolder, boolean customizedJre, File jarFile, List<String> defaultModules, List<String> additionalModules, List<File> additionalModulePaths) throws Exception {
+	protected String getRequiredModules(File libsFolder, boolean customizedJre, File jarFile, List<String> defaultModules, List<String> additionalModules, List<File> additionalModulePaths, boolean cacheModules, boolean inProcessTools) throws Exception {
 		
 		Logger.infoIndent("Getting required modules ... ");
 		
-		File jdeps = new File(System.getProperty("java.home"), "/bin/jdeps");
+		File javaHome = new File(System.getProperty("java.home"));
 
 		File jarLibs = null;
 		if (libsFolder != null && libsFolder.exists()) 
@@ -204,11 +306,19 @@ public class BundleJre extends ArtifactGenerator<Packager> {
 					.map(module -> module.trim())
 					.collect(Collectors.toList());
 		
+		} else if (customizedJre && cacheModules && VersionUtils.getJavaMajorVersion() >= 9) {
+			
+			List<File> jars = new ArrayList<>();
+			if (jarLibs != null) jars.addAll(Arrays.asList(libsFolder.listFiles((dir, name) -> name.endsWith(".jar"))));
+			jars.add(jarFile);
+			
+			modulesList = getCachedRequiredModules(new JdepsCache(), javaHome, inProcessTools, jars, additionalModulePaths);
+			
 		} else if (customizedJre && VersionUtils.getJavaMajorVersion() >= 13) { 
 			
 			String modules = 
-				CommandUtils.execute(
-					jdeps.getAbsolutePath(), 
+				ToolUtils.execute(
+					javaHome, "jdeps", inProcessTools,
 					"-q",
 					"--multi-release", VersionUtils.getJavaMajorVersion(),
 					"--ignore-missing-deps",
@@ -228,8 +338,8 @@ public class BundleJre extends ArtifactGenerator<Packager> {
 		} else if (customizedJre && VersionUtils.getJavaMajorVersion() >= 9) { 
 		
 			String modules = 
-				CommandUtils.execute(
-					jdeps.getAbsolutePath(), 
+				ToolUtils.execute(
+					javaHome, "jdeps", inProcessTools,
 					"-q",
 					"--multi-release", VersionUtils.getJavaMajorVersion(),
 					"--ignore-missing-deps",					
@@ -267,6 +377,160 @@ public class BundleJre extends ArtifactGenerator<Packager> {
 		return StringUtils.join(modulesList, ",");
 	}
 	
+	/**
+	 * Gets the modules all jars depend on, analyzing with jdeps only those jars which
+	 * are not in the cache yet. Every jar is analyzed the same way it would be if all
+	 * jars were analyzed at once, so the result is the same.
+	 * 
+	 * @param cache jdeps cache
+	 * @param jdk JDK containing jdeps
+	 * @param inProcess Runs jdeps in-process if possible, so several jars are analyzed concurrently on the same JVM
+	 * @param jars Jars to be analyzed
+	 * @param additionalModulePaths Additional module paths
+	 * @return Sorted list of modules
+	 * @throws Exception Process failed
+	 */
+	List<String> getCachedRequiredModules(JdepsCache cache, File jdk, boolean inProcess, List<File> jars, List<File> additionalModulePaths) throws Exception {
+		
+		int release = VersionUtils.getJavaMajorVersion();
+		
+		Map<File, String> moduleNames = new LinkedHashMap<>();
+		for (File jar : jars) {
+			String moduleName = getModuleName(jar, release);
+			if (moduleName != null) moduleNames.put(jar, moduleName);
+		}
+		
+		// analyzing all jars at once, any non modular jar makes jdeps resolve all system modules (as the
+		// unnamed module may use any of them), so static dependencies of modular jars are found too
+		String [] rootModules = moduleNames.size() < jars.size() ? new String [] { "--add-modules", "ALL-SYSTEM" } : new String[0];
+		
+		// --print-module-deps is only available since JDK 13
+		String depsOption = release >= 13 ? "--print-module-deps" : "--list-deps";
+		String analysisKey = StringUtils.join(new Object[] {
+				JDKUtils.getReleaseDigest(jdk),
+				SystemUtils.JAVA_VERSION,
+				depsOption,
+				StringUtils.join(rootModules, " "),
+				describeModulePaths(additionalModulePaths)
+			}, "\n");
+		
+		Set<String> modules = new TreeSet<>();
+		Map<File, String> missing = new LinkedHashMap<>();
+		for (File jar : jars) {
+			String key = FileUtils.sha256(FileUtils.sha256(jar) + "\n" + analysisKey);
+			List<String> cached = cache.get(key);
+			if (cached != null) {
+				modules.addAll(cached);
+			} else {
+				missing.put(jar, key);
+			}
+		}
+		
+		Logger.info((jars.size() - missing.size()) + " jars found in jdeps cache, " + missing.size() + " jars to be analyzed");
+		
+		// analyzes every jar on its own, so results can be cached per jar
+		try {
+			missing.keySet()
+				.parallelStream()
+				.forEach(jar -> {
+					try {
+						// other modular jars are only needed to resolve the modules this one requires
+						List<File> otherModules = moduleNames.containsKey(jar) ? new ArrayList<>(moduleNames.keySet()) : new ArrayList<>();
+						otherModules.remove(jar);
+						List<String> jarModules = parseModules(
+							ToolUtils.execute(
+								jdk, "jdeps", inProcess,
+								"-q",
+								"--multi-release", release,
+								"--ignore-missing-deps",
+								rootModules,
+								depsOption,
+								modulePathToParams(additionalModulePaths, otherModules),
+								jar
+							)
+						);
+						// modules in jars are analyzed on their own
+						jarModules.removeAll(moduleNames.values());
+						cache.put(missing.get(jar), jarModules);
+						synchronized (modules) {
+							modules.addAll(jarModules);
+						}
+					} catch (Exception e) {
+						throw new RuntimeException(e);
+					}
+				});
+		} catch (RuntimeException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+		
+		return new ArrayList<>(modules);
+	}
+	
+	/**
+	 * Gets the name of the module in a jar, reading its module descriptor using ModuleDescriptor
+	 * (Java 9+) by reflection, as this is built for Java 8
+	 * 
+	 * @param jar Jar file
+	 * @param release Java release multi-release jars are analyzed for
+	 * @return Module name, or null if it's not a modular jar
+	 * @throws IOException Jar could not be read
+	 */
+	static String getModuleName(File jar, int release) throws IOException {
+		try (JarFile jarFile = new JarFile(jar)) {
+			JarEntry descriptor = jarFile.getJarEntry("module-info.class");
+			Manifest manifest = jarFile.getManifest();
+			if (manifest != null && "true".equalsIgnoreCase(manifest.getMainAttributes().getValue("Multi-Release"))) {
+				for (int version = 9; version <= release; version++) {
+					JarEntry versioned = jarFile.getJarEntry("META-INF/versions/" + version + "/module-info.class");
+					if (versioned != null) descriptor = versioned;
+				}
+			}
+			if (descriptor == null) return null;
+			try (InputStream input = jarFile.getInputStream(descriptor)) {
+				Class<?> descriptorClass = Class.forName("java.lang.module.ModuleDescriptor");
+				Object module = descriptorClass.getMethod("read", InputStream.class).invoke(null, input);
+				return (String) descriptorClass.getMethod("name").invoke(module);
+			} catch (ReflectiveOperationException e) {
+				throw new IOException("Could not read module descriptor of " + jar, e);
+			}
+		}
+	}
+	
+	/**
+	 * Parses jdeps output, either a comma separated list (--print-module-deps) or a
+	 * module per line (--list-deps)
+	 * 
+	 * @param output jdeps output
+	 * @return Module names
+	 */
+	private static List<String> parseModules(String output) {
+		return Arrays.asList(output.split("[,\n]"))
+				.stream()
+				.map(module -> module.trim())
+				.map(module -> (module.contains("/") ? module.split("/")[0] : module))
+				.filter(module -> !module.isEmpty())
+				.filter(module -> !module.startsWith("JDK removed internal"))
+				.distinct()
+				.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Gets a single module path with the additional module paths and some modular jars
+	 * 
+	 * @param additionalModulePaths Additional module paths
+	 * @param modularJars Modular jars
+	 * @return jdeps module path params
+	 */
+	private String [] modulePathToParams(List<File> additionalModulePaths, List<File> modularJars) {
+		if (modularJars.isEmpty()) return additionalModulePathsToParams(additionalModulePaths);
+		List<String> paths = new ArrayList<>();
+		for (File path : additionalModulePaths) {
+			if (path.exists()) paths.add(path.toString());
+		}
+		modularJars.forEach(jar -> paths.add(jar.toString()));
+		return new String [] { "--module-path", StringUtils.join(paths, File.pathSeparator) };
+	}
+	
 	private String [] additionalModulePathsToParams(List<File> additionalModulePaths) {
 		
 		List<String> additionalPaths = new ArrayList<>();
@@ -0,0 +1,43 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Archive which receives the entries of a bundle (see {@link BundleWriter}). Entries are added in
+ * order from a single thread, and their paths use '/' as separator.
+ */
+public interface BundleSink extends Closeable {
+
+	/**
+	 * Adds a folder entry
+	 *
+	 * @param path    Folder path inside the bundle, ending with '/'
+	 * @param modTime Last modification time in milliseconds
+	 * @throws IOException Entry could not be added
+	 */
+	void addFolder(String path, long modTime) throws IOException;
+
+	/**
+	 * Adds a file entry
+	 *
+	 * @param path    File path inside the bundle
+	 * @param mode    POSIX permissions (e.g. 0644)
+	 * @param modTime Last modification time in milliseconds
+	 * @param content File content, already read. Sinks using it after returning must retain it,
+	 *                and release it once done (see {@link FileContent#retain()})
+	 * @throws IOException Entry could not be added
+	 */
+	void addFile(String path, int mode, long modTime, FileContent content) throws IOException;
+
+	/**
+	 * Adds a symbolic link entry
+	 *
+	 * @param path    Link path inside the bundle
+	 * @param target  Link target, using '/' as separator
+	 * @param modTime Last modification time of the link in milliseconds
+	 * @throws IOException Entry could not be added
+	 */
+	void addLink(String path, String target, long modTime) throws IOException;
+
+}
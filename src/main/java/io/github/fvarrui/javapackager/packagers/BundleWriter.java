@@ -0,0 +1,251 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes the same folder to several bundles (zipball, tarballs, ...) at once. The folder is
+ * walked once and each file is read only once, and its content is handed to every bundle, which
+ * writes it on its own thread, so a slow bundle doesn't delay the others until its queue is full.
+ * File contents are freed as soon as every bundle has written them.
+ */
+public class BundleWriter implements Closeable {
+
+	// max entries waiting to be written to a bundle
+	private static final int QUEUE_SIZE = 256;
+
+	private interface Entry {
+
+		void writeTo(BundleSink sink) throws IOException;
+
+		/**
+		 * Called before the entry is handed to a bundle
+		 */
+		default void retain() {}
+
+		/**
+		 * Called once the entry is written to a bundle, or skipped
+		 */
+		default void release() {}
+
+	}
+
+	private final List<Worker> workers = new ArrayList<>();
+	private Long fixedModTime = null;
+
+	/**
+	 * @param sinks Bundles to write
+	 */
+	public BundleWriter(BundleSink ... sinks) {
+		this(Arrays.asList(sinks));
+	}
+
+	/**
+	 * @param sinks Bundles to write
+	 */
+	public BundleWriter(List<? extends BundleSink> sinks) {
+		super();
+		for (BundleSink sink : sinks) {
+			workers.add(new Worker(sink, "bundle-writer-" + workers.size()));
+		}
+	}
+
+	/**
+	 * Uses the same modification time for all entries, e.g. for reproducible bundles
+	 *
+	 * @param fixedModTime Modification time in milliseconds, or null to keep the files' ones
+	 */
+	public void setFixedModTime(Long fixedModTime) {
+		this.fixedModTime = fixedModTime;
+	}
+
+	/**
+	 * Adds a folder and all its content, sorted by name. Files are added with 0755 or 0644
+	 * mode, whether they are executable or not, and symbolic links are kept as links
+	 *
+	 * @param folder      Folder to add
+	 * @param path        Folder path inside the bundles
+	 * @param executables Files which need execution permissions
+	 * @throws IOException Folder could not be added
+	 */
+	public void addFolder(File folder, String path, ExecutableFiles executables) throws IOException {
+		Path source = folder.toPath();
+		if (Files.isSymbolicLink(source)) {
+			addLink(source, path);
+			return;
+		}
+		long modTime = getModTime(source);
+		submit(sink -> sink.addFolder(path + "/", modTime));
+
+		File [] children = folder.listFiles();
+		if (children == null) {
+			throw new IOException("Could not list folder " + folder);
+		}
+		// sorted, so entries order doesn't depend on the filesystem
+		Arrays.sort(children);
+		for (File child : children) {
+			String childPath = path + "/" + child.getName();
+			if (child.isDirectory()) {
+				addFolder(child, childPath, executables);
+			} else {
+				addFile(child, childPath, executables.getMode(child));
+			}
+		}
+	}
+
+	/**
+	 * Adds a file
+	 *
+	 * @param file File to add
+	 * @param path File path inside the bundles
+	 * @param mode POSIX permissions (e.g. 0644)
+	 * @throws IOException File could not be added
+	 */
+	public void addFile(File file, String path, int mode) throws IOException {
+		Path source = file.toPath();
+		if (Files.isSymbolicLink(source)) {
+			addLink(source, path);
+			return;
+		}
+		long modTime = getModTime(source);
+		FileContent content = FileContent.read(file);
+		try {
+			submit(new Entry() {
+
+				@Override
+				public void writeTo(BundleSink sink) throws IOException {
+					sink.addFile(path, mode, modTime, content);
+				}
+
+				@Override
+				public void retain() {
+					content.retain();
+				}
+
+				@Override
+				public void release() {
+					content.release();
+				}
+
+			});
+		} finally {
+			content.release();
+		}
+	}
+
+	private void addLink(Path link, String path) throws IOException {
+		String target = Files.readSymbolicLink(link).toString().replace('\\', '/');
+		long modTime = getModTime(link);
+		submit(sink -> sink.addLink(path, target, modTime));
+	}
+
+	private long getModTime(Path path) throws IOException {
+		if (fixedModTime != null) return fixedModTime;
+		return Files.getLastModifiedTime(path, LinkOption.NOFOLLOW_LINKS).toMillis();
+	}
+
+	private void submit(Entry entry) throws IOException {
+		for (Worker worker : workers) {
+			entry.retain();
+			worker.submit(entry);
+		}
+	}
+
+	/**
+	 * Waits until all entries are written and closes the bundles
+	 *
+	 * @throws IOException Some bundle could not be written (the rest are finished anyway)
+	 */
+	@Override
+	public void close() throws IOException {
+		IOException error = null;
+		for (Worker worker : workers) {
+			try {
+				worker.finish();
+			} catch (IOException e) {
+				if (error == null) error = e; else error.addSuppressed(e);
+			}
+		}
+		if (error != null) throw error;
+	}
+
+	/**
+	 * Thread writing entries to a bundle in order
+	 */
+	private static class Worker {
+
+		private static final Entry END = sink -> {};
+
+		private final BundleSink sink;
+		private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+		private final Thread thread;
+		private volatile IOException error;
+
+		Worker(BundleSink sink, String name) {
+			this.sink = sink;
+			this.thread = new Thread(this::run, name);
+			this.thread.setDaemon(true);
+			this.thread.start();
+		}
+
+		void submit(Entry entry) throws IOException {
+			// a failed bundle doesn't stop the others, its error is thrown when closing
+			if (error != null) {
+				entry.release();
+				return;
+			}
+			try {
+				queue.put(entry);
+			} catch (InterruptedException e) {
+				entry.release();
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while bundling");
+			}
+		}
+
+		void finish() throws IOException {
+			try {
+				queue.put(END);
+				thread.join();
+			} catch (InterruptedException e) {
+				thread.interrupt();
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while bundling");
+			}
+			try {
+				sink.close();
+			} catch (IOException e) {
+				if (error == null) error = e; else error.addSuppressed(e);
+			}
+			if (error != null) throw error;
+		}
+
+		private void run() {
+			try {
+				for (Entry entry = queue.take(); entry != END; entry = queue.take()) {
+					try {
+						if (error == null) entry.writeTo(sink);
+					} catch (IOException | RuntimeException e) {
+						error = e instanceof IOException ? (IOException) e : new IOException(e);
+					} finally {
+						entry.release();
+					}
+				}
+			} catch (InterruptedException e) {
+				error = new InterruptedIOException("Interrupted while bundling");
+			}
+		}
+
+	}
+
+}
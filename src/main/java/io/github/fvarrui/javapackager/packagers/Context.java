@@ -48,8 +48,6 @@ public abstract class Context<T> {
 	
 	public abstract File createRunnableJar(Packager packager) throws Exception;
 	public abstract File copyDependencies(Packager packager) throws Exception;
-	public abstract File createTarball(Packager packager) throws Exception;
-	public abstract File createZipball(Packager packager) throws Exception;
 	public abstract File resolveLicense(Packager packager) throws Exception;
 	public abstract File createWindowsExe(WindowsPackager packager) throws Exception;
 	
@@ -0,0 +1,38 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import java.io.File;
+import java.io.IOException;
+
+import io.github.fvarrui.javapackager.model.TarballFormat;
+
+/**
+ * Creates tarball (tar.gz, tar.xz or tar.zst file) on both Maven and Gradle contexts
+ */
+public class CreateTarball extends BundleGenerator {
+
+	public CreateTarball() {
+		super("Tarball");
+	}
+
+	@Override
+	public boolean skip(Packager packager) {
+		return !packager.task.getCreateTarball();
+	}
+
+	@Override
+	protected File getBundleFile(Packager packager) {
+		String name = packager.task.getAppName();
+		String version = packager.task.getVersion();
+		TarballFormat format = packager.task.getTarballFormat();
+		return new File(packager.task.getOutputDirectory(), name + "-" + version + "-" + packager.task.getPlatform() + "." + format.getExtension());
+	}
+
+	@Override
+	protected BundleSink createSink(File bundleFile, Packager packager) throws IOException {
+		TarballFormat format = packager.task.getTarballFormat();
+		Integer level = packager.task.getTarballCompressionLevel();
+		Integer threads = packager.task.getTarballCompressionThreads();
+		return new TarballWriter(bundleFile, format, level, threads != null ? threads : 0);
+	}
+
+}
@@ -0,0 +1,31 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import java.io.File;
+
+/**
+ * Creates zipball (zip file) on both Maven and Gradle contexts
+ */
+public class CreateZipball extends BundleGenerator {
+
+	public CreateZipball() {
+		super("Zipball");
+	}
+
+	@Override
+	public boolean skip(Packager packager) {
+		return !packager.task.getCreateZipball();
+	}
+
+	@Override
+	protected File getBundleFile(Packager packager) {
+		String name = packager.task.getAppName();
+		String version = packager.task.getVersion();
+		return new File(packager.task.getOutputDirectory(), name + "-" + version + "-" + packager.task.getPlatform() + ".zip");
+	}
+
+	@Override
+	protected BundleSink createSink(File bundleFile, Packager packager) {
+		return new ZipballWriter(bundleFile, packager.task.getReproducible());
+	}
+
+}
@@ -0,0 +1,61 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Files of an app which need execution permissions when they are bundled (tarball, RPM, ...):
+ * the app executable, the bundled JRE binaries and jspawnhelper, bootstrap scripts and,
+ * on Mac OS, the universal Java application stub.
+ */
+public class ExecutableFiles implements Predicate<File> {
+
+	private final Set<File> files = new HashSet<>();
+	private final Set<File> folders = new HashSet<>();
+
+	public ExecutableFiles(Packager packager) {
+		super();
+		File executable = packager.getExecutable();
+		if (executable != null) {
+			add(files, executable);
+			add(files, new File(executable.getParentFile(), "universalJavaApplicationStub"));
+		}
+		File jreFolder = packager.getJreDestinationFolder();
+		if (jreFolder != null) {
+			add(folders, new File(jreFolder, "bin"));
+			add(files, new File(jreFolder, "lib/jspawnhelper"));
+		}
+		if (packager.getBootstrapFile() != null) {
+			add(folders, packager.getBootstrapFile().getParentFile());
+		}
+	}
+
+	/**
+	 * Checks if a file needs execution permissions
+	 *
+	 * @param file File inside the app folder
+	 * @return true if it's executable
+	 */
+	@Override
+	public boolean test(File file) {
+		File absolute = file.getAbsoluteFile();
+		return files.contains(absolute) || folders.contains(absolute.getParentFile());
+	}
+
+	/**
+	 * Gets the POSIX mode of a file
+	 *
+	 * @param file File inside the app folder
+	 * @return 0755 if it's executable, 0644 otherwise
+	 */
+	public int getMode(File file) {
+		return test(file) ? 0755 : 0644;
+	}
+
+	private static void add(Set<File> set, File file) {
+		set.add(file.getAbsoluteFile());
+	}
+
+}
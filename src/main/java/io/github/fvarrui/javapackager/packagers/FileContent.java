@@ -0,0 +1,209 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Content of a file read only once and shared by several bundles. Small files are read into
+ * memory, and bigger ones are memory-mapped (in chunks of up to 1 GB), so they don't take heap
+ * space and the OS page cache is the only copy. <br>
+ * Content is reference counted: every user retains it and releases it once done, and the last
+ * release frees it, unmapping mapped files right away (mapped files can't be deleted or moved on
+ * Windows until then).
+ */
+public class FileContent {
+
+	private static final int MAP_THRESHOLD = 1024 * 1024;
+	private static final int MAX_CHUNK_SIZE = 1024 * 1024 * 1024;
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	private static final Unmapper UNMAPPER = Unmapper.create();
+
+	private volatile ByteBuffer [] chunks;
+	private final long size;
+	private final AtomicInteger references = new AtomicInteger(1);
+
+	private FileContent(ByteBuffer [] chunks, long size) {
+		this.chunks = chunks;
+		this.size = size;
+	}
+
+	/**
+	 * Reads a file. The content is retained once, by the caller
+	 *
+	 * @param file File to read
+	 * @return File content
+	 * @throws IOException File could not be read
+	 */
+	public static FileContent read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < MAP_THRESHOLD) {
+				byte [] data = Files.readAllBytes(file.toPath());
+				return new FileContent(new ByteBuffer[] { ByteBuffer.wrap(data) }, data.length);
+			}
+			int count = (int) ((size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+			ByteBuffer [] chunks = new ByteBuffer[count];
+			for (int i = 0; i < count; i++) {
+				long position = (long) i * MAX_CHUNK_SIZE;
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_CHUNK_SIZE, size - position));
+			}
+			return new FileContent(chunks, size);
+		}
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Retains the content, so it's not freed until released
+	 *
+	 * @return This content
+	 */
+	public FileContent retain() {
+		if (references.getAndIncrement() <= 0) {
+			throw new IllegalStateException("Content already released");
+		}
+		return this;
+	}
+
+	/**
+	 * Releases the content, freeing it if it isn't retained anymore
+	 */
+	public void release() {
+		int count = references.decrementAndGet();
+		if (count < 0) {
+			throw new IllegalStateException("Content already released");
+		}
+		if (count > 0) return;
+		ByteBuffer [] released = chunks;
+		chunks = null;
+		for (ByteBuffer chunk : released) {
+			if (chunk.isDirect()) UNMAPPER.unmap(chunk);
+		}
+	}
+
+	private ByteBuffer [] getChunks() {
+		ByteBuffer [] current = chunks;
+		if (current == null) {
+			throw new IllegalStateException("Content already released");
+		}
+		return current;
+	}
+
+	/**
+	 * Writes the whole content to a stream
+	 *
+	 * @param out Output stream
+	 * @throws IOException Content could not be written
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		byte [] buffer = null;
+		for (ByteBuffer chunk : getChunks()) {
+			if (chunk.hasArray()) {
+				out.write(chunk.array(), chunk.arrayOffset(), chunk.limit());
+				continue;
+			}
+			if (buffer == null) buffer = new byte[COPY_BUFFER_SIZE];
+			ByteBuffer source = chunk.duplicate();
+			while (source.hasRemaining()) {
+				int n = Math.min(buffer.length, source.remaining());
+				source.get(buffer, 0, n);
+				out.write(buffer, 0, n);
+			}
+		}
+	}
+
+	/**
+	 * Opens a new stream to read the content, independent from other streams opened before
+	 *
+	 * @return Input stream
+	 */
+	public InputStream openStream() {
+		ByteBuffer [] chunks = getChunks();
+		return new InputStream() {
+
+			private int index = 0;
+			private ByteBuffer current = chunks.length > 0 ? chunks[0].duplicate() : null;
+
+			@Override
+			public int read() {
+				if (!next()) return -1;
+				return current.get() & 0xff;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				if (len == 0) return 0;
+				if (!next()) return -1;
+				int n = Math.min(len, current.remaining());
+				current.get(b, off, n);
+				return n;
+			}
+
+			private boolean next() {
+				while (current != null && !current.hasRemaining()) {
+					index++;
+					current = index < chunks.length ? chunks[index].duplicate() : null;
+				}
+				return current != null;
+			}
+
+		};
+	}
+
+	/**
+	 * Unmaps memory-mapped buffers, which are otherwise unmapped only when garbage collected
+	 */
+	private static class Unmapper {
+
+		private final Object unsafe;
+		private final Method invokeCleaner;
+
+		private Unmapper(Object unsafe, Method invokeCleaner) {
+			this.unsafe = unsafe;
+			this.invokeCleaner = invokeCleaner;
+		}
+
+		static Unmapper create() {
+			try {
+				// Java 9+
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+				Field field = unsafeClass.getDeclaredField("theUnsafe");
+				field.setAccessible(true);
+				return new Unmapper(field.get(null), invokeCleaner);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				// Java 8, using the buffer's cleaner
+				return new Unmapper(null, null);
+			}
+		}
+
+		void unmap(ByteBuffer buffer) {
+			try {
+				if (invokeCleaner != null) {
+					invokeCleaner.invoke(unsafe, buffer);
+				} else {
+					Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+					cleanerMethod.setAccessible(true);
+					Object cleaner = cleanerMethod.invoke(buffer);
+					if (cleaner != null) cleaner.getClass().getMethod("clean").invoke(cleaner);
+				}
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				// left to the garbage collector
+			}
+		}
+
+	}
+
+}
@@ -2,6 +2,8 @@ package io.github.fvarrui.javapackager.packagers;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.lang3.SystemUtils;
 
@@ -36,6 +38,20 @@ public class GenerateAppImage extends ArtifactGenerator<LinuxPackager> {
 
 	}
 	
+	@Override
+	public List<File> getInputs(LinuxPackager packager) {
+		return Arrays.asList(packager.getAppFolder(), packager.task.getIconFile());
+	}
+
+	@Override
+	public List<File> getOutputs(LinuxPackager packager) {
+		return Arrays.asList(
+				new File(packager.getAssetsFolder(), "AppDir"),
+				new File(packager.getAssetsFolder(), "appimagetool"),
+				new File(packager.task.getOutputDirectory(), packager.task.getAppName() + ".AppImage")
+			);
+	}
+
 	@Override
 	protected File doApply(LinuxPackager packager) throws Exception {
 
@@ -58,7 +74,7 @@ public class GenerateAppImage extends ArtifactGenerator<LinuxPackager> {
 		Logger.info("App image tool found! " + appImageTool);
 
 		// copies app folder to AppDir/usr/bin
-		FileUtils.copyFolderContentToFolder(appFolder, new File(appDir, "usr/bin"));
+		FileUtils.copyFolderContentToFolder(appFolder, new File(appDir, "usr/bin"), packager.task.getStagingMode());
 				
 		// generates AppImage desktop file from velocity template
 		File desktopFile = new File(appDir, name + ".desktop");
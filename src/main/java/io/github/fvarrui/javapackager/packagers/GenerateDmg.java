@@ -5,11 +5,14 @@ import static org.apache.commons.lang3.StringUtils.defaultIfBlank;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.StringUtils;
 
 import io.github.fvarrui.javapackager.model.MacConfig;
 import io.github.fvarrui.javapackager.model.Platform;
+import io.github.fvarrui.javapackager.utils.ExecutionOptions;
 import io.github.fvarrui.javapackager.utils.FileUtils;
 import io.github.fvarrui.javapackager.utils.Logger;
 import io.github.fvarrui.javapackager.utils.ThreadUtils;
@@ -40,6 +43,24 @@ public class GenerateDmg extends ArtifactGenerator<MacPackager> {
 		return false;		
 	}
 	
+	@Override
+	public List<File> getInputs(MacPackager packager) {
+		return Arrays.asList(packager.getAppFolder(), packager.task.getIconFile());
+	}
+
+	@Override
+	public List<File> getOutputs(MacPackager packager) {
+		String name = packager.task.getAppName();
+		String dmgName = name + "_" + packager.task.getVersion() + ".dmg";
+		// background and volume icon are copied into the app folder
+		return Arrays.asList(
+				packager.getAppFolder(),
+				new File(packager.getAssetsFolder(), dmgName),
+				new File(packager.getAssetsFolder(), "customize-dmg.applescript"),
+				new File(packager.task.getOutputDirectory(), dmgName)
+			);
+	}
+
 	@Override
 	protected File doApply(MacPackager packager) throws Exception {
 
@@ -98,14 +119,17 @@ public class GenerateDmg extends ArtifactGenerator<MacPackager> {
 		
 		// mounts image
 		Logger.info("Mounting image: " + tempDmgFile.getAbsolutePath());
-		String result = execute("hdiutil", "attach", "-readwrite", "-noverify", "-noautoopen", tempDmgFile);
-		String deviceName = Arrays.asList(result.split("\n"))
-									.stream()
-									.filter(s -> s.contains(mountFolder.getAbsolutePath()))
-									.map(s -> StringUtils.normalizeSpace(s))
-									.map(s -> s.split(" ")[0])
-									.findFirst().get();
-		Logger.info("- Device name: " + deviceName);
+		AtomicReference<String> deviceName = new AtomicReference<>();
+		ExecutionOptions attachOptions = new ExecutionOptions().outputListener(line -> {
+			if (deviceName.get() == null && line.contains(mountFolder.getAbsolutePath())) {
+				deviceName.set(StringUtils.normalizeSpace(line).split(" ")[0]);
+			}
+		});
+		execute(attachOptions, "hdiutil", "attach", "-readwrite", "-noverify", "-noautoopen", tempDmgFile);
+		if (deviceName.get() == null) {
+			throw new Exception("Device name of mounted image not found in hdiutil output");
+		}
+		Logger.info("- Device name: " + deviceName.get());
 		
 		// pause to prevent occasional "Can't get disk" (-1728) issues 
 		// https://github.com/seltzered/create-dmg/commit/5fe7802917bb85b40c0630b026d33e421db914ea
@@ -3,6 +3,9 @@ package io.github.fvarrui.javapackager.packagers;
 import static io.github.fvarrui.javapackager.utils.CommandUtils.execute;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import io.github.fvarrui.javapackager.model.Platform;
 import io.github.fvarrui.javapackager.utils.Logger;
@@ -34,6 +37,22 @@ public class GenerateMsi extends WindowsArtifactGenerator {
 		return false;		
 	}
 	
+	@Override
+	public List<File> getInputs(WindowsPackager packager) {
+		return Arrays.asList(packager.getAppFolder());
+	}
+
+	@Override
+	public List<File> getOutputs(WindowsPackager packager) {
+		String name = packager.task.getAppName();
+		// MSI generation also generates the merge module if it doesn't exist yet
+		List<File> outputs = new ArrayList<>(new GenerateMsm().getOutputs(packager));
+		outputs.add(new File(packager.getAssetsFolder(), name + ".wxs"));
+		outputs.add(new File(packager.getAssetsFolder(), name + ".wixobj"));
+		outputs.add(new File(packager.task.getOutputDirectory(), name + "_" + packager.task.getVersion() + ".msi"));
+		return outputs;
+	}
+
 	@Override
 	protected File doApply(WindowsPackager packager) throws Exception {
 		
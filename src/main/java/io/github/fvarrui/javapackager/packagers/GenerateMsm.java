@@ -1,6 +1,8 @@
 package io.github.fvarrui.javapackager.packagers;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 
 import io.github.fvarrui.javapackager.model.Platform;
 import io.github.fvarrui.javapackager.utils.CommandUtils;
@@ -33,6 +35,21 @@ public class GenerateMsm extends WindowsArtifactGenerator {
 		return false;
 	}
 
+	@Override
+	public List<File> getInputs(WindowsPackager packager) {
+		return Arrays.asList(packager.getAppFolder());
+	}
+
+	@Override
+	public List<File> getOutputs(WindowsPackager packager) {
+		String name = packager.task.getAppName();
+		return Arrays.asList(
+				new File(packager.getAssetsFolder(), name + ".msm.wxs"),
+				new File(packager.getAssetsFolder(), name + ".msm.wixobj"),
+				new File(packager.task.getOutputDirectory(), name + "_" + packager.task.getVersion() + ".msm")
+			);
+	}
+
 	@Override
 	protected File doApply(WindowsPackager packager) throws Exception {
 		
@@ -4,6 +4,8 @@ import io.github.fvarrui.javapackager.model.Platform;
 import io.github.fvarrui.javapackager.utils.*;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 public class GenerateNativeImage extends ArtifactGenerator<Packager> {
@@ -32,6 +34,20 @@ public class GenerateNativeImage extends ArtifactGenerator<Packager> {
 		return false;		
 	}
 	
+	@Override
+	public List<File> getInputs(Packager packager) throws Exception {
+		File jarFile = GraalVM.findJar(packager.task.getOutputDirectory());
+		return Arrays.asList(jarFile != null ? jarFile : packager.task.getOutputDirectory());
+	}
+
+	@Override
+	public List<File> getOutputs(Packager packager) throws Exception {
+		File jarFile = GraalVM.findJar(packager.task.getOutputDirectory());
+		String outputExeName = jarFile != null ? GraalVM.getNativeImageName(packager.task.getPlatform(), jarFile) : "";
+		// native-image is installed in the JDK by gu
+		return Arrays.asList(packager.task.getJdkPath(), new File(packager.task.getOutputDirectory(), outputExeName));
+	}
+
 	@Override
 	protected File doApply(Packager packager) throws Exception {
 		File outputDirectory = packager.task.getOutputDirectory();
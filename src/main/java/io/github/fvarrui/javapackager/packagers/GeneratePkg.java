@@ -1,6 +1,8 @@
 package io.github.fvarrui.javapackager.packagers;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 
 import io.github.fvarrui.javapackager.model.Platform;
 import io.github.fvarrui.javapackager.utils.CommandUtils;
@@ -31,6 +33,16 @@ public class GeneratePkg extends ArtifactGenerator<MacPackager> {
 		return false;
 	}
 	
+	@Override
+	public List<File> getInputs(MacPackager packager) {
+		return Arrays.asList(packager.getAppFile());
+	}
+
+	@Override
+	public List<File> getOutputs(MacPackager packager) {
+		return Arrays.asList(new File(packager.task.getOutputDirectory(), packager.task.getAppName() + "_" + packager.task.getVersion() + ".pkg"));
+	}
+
 	@Override
 	protected File doApply(MacPackager packager) throws Exception {
 
@@ -3,16 +3,20 @@ package io.github.fvarrui.javapackager.packagers;
 import java.io.File;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.redline_rpm.Builder;
 import org.redline_rpm.header.Architecture;
+import org.redline_rpm.header.Header.HeaderTag;
 import org.redline_rpm.header.Os;
 import org.redline_rpm.header.RpmType;
+import org.redline_rpm.payload.Contents;
+import org.redline_rpm.payload.CpioHeader;
 
 import io.github.fvarrui.javapackager.utils.FileUtils;
 import io.github.fvarrui.javapackager.utils.Logger;
+import io.github.fvarrui.javapackager.utils.SourceDate;
 import io.github.fvarrui.javapackager.utils.VelocityUtils;
 
 /**
@@ -30,6 +34,24 @@ public class GenerateRpm extends ArtifactGenerator<LinuxPackager> {
 		return !packager.task.getLinuxConfig().isGenerateRpm();
 	}
 
+	@Override
+	public List<File> getInputs(LinuxPackager packager) {
+		return Arrays.asList(packager.getAppFolder());
+	}
+
+	@Override
+	public List<File> getOutputs(LinuxPackager packager) {
+		String name = packager.task.getAppName();
+		String version = packager.task.getVersion().replaceAll("-", "_");
+		File outputDirectory = packager.task.getOutputDirectory();
+		return Arrays.asList(
+				new File(packager.getAssetsFolder(), name + ".desktop"),
+				new File(packager.getAppFolder(), name + ".desktop"),
+				new File(outputDirectory, name + "-" + version + "-1.x86_64.rpm"),
+				new File(outputDirectory, name + "_" + version + ".rpm")
+			);
+	}
+
 	@Override
 	protected File doApply(LinuxPackager packager) throws Exception {
 
@@ -41,7 +63,6 @@ public class GenerateRpm extends ArtifactGenerator<LinuxPackager> {
 		File outputDirectory = packager.task.getOutputDirectory();
 		File executable = packager.getExecutable();
 		File assetsFolder = packager.getAssetsFolder();
-		String jreDirectoryName = packager.task.getJreDirectoryName();
 		
 		// generates desktop file from velocity template
 		File desktopFile = new File(assetsFolder, name + ".desktop");
@@ -51,7 +72,9 @@ public class GenerateRpm extends ArtifactGenerator<LinuxPackager> {
 		// copies desktop file to app
 		FileUtils.copyFileToFolder(desktopFile, appFolder);
 
-		Builder builder = new Builder();
+		RpmContents contents = new RpmContents();
+		RpmBuilder builder = new RpmBuilder();
+		builder.setFiles(contents);
 		builder.setType(RpmType.BINARY);
 		builder.setPlatform(Architecture.X86_64, Os.LINUX);
 		builder.setPackage(name, version, "1");
@@ -59,14 +82,8 @@ public class GenerateRpm extends ArtifactGenerator<LinuxPackager> {
 		builder.setDescription(description);
 		builder.setPrefixes("opt");
 		
-		// list of files which needs execution permissions
-		List<File> executionPermissions = new ArrayList<>();
-		executionPermissions.add(executable);
-		executionPermissions.add(new File(appFolder, jreDirectoryName + "/bin/java"));
-		executionPermissions.add(new File(appFolder, jreDirectoryName + "/lib/jspawnhelper"));
-
-		// add all app files
-		addDirectoryTree(builder, "/opt", appFolder, executionPermissions);
+		// add all app files, with the same execution permissions as in the tarball
+		addDirectoryTree(builder, "/opt", appFolder, new ExecutableFiles(packager));
 
 		// link to desktop file
 		builder.addLink("/usr/share/applications/" + desktopFile.getName(), "/opt/" + name + "/" + desktopFile.getName());
@@ -74,6 +91,14 @@ public class GenerateRpm extends ArtifactGenerator<LinuxPackager> {
 		// link to binary
 		builder.addLink("/usr/local/bin/" + executable.getName(), "/opt/" + name + "/" + executable.getName());
 
+		// same times and host on every build, so the same app gives the same package
+		if (packager.task.getReproducible()) {
+			long timestamp = SourceDate.getTimestamp();
+			contents.setMtimes(timestamp);
+			builder.setBuildTime(timestamp);
+			builder.setBuildHost("localhost");
+		}
+
 		builder.build(outputDirectory);
 
 		File originalRpm = new File(outputDirectory, name + "-" + version + "-1.x86_64.rpm");
@@ -87,16 +112,40 @@ public class GenerateRpm extends ArtifactGenerator<LinuxPackager> {
 		return rpm;
 	}
 	
-	private void addDirectoryTree(Builder builder, String parentPath, File root, List<File> executionPermissions) throws NoSuchAlgorithmException, IOException {
+	private void addDirectoryTree(Builder builder, String parentPath, File root, ExecutableFiles executables) throws NoSuchAlgorithmException, IOException {
 		String rootPath = parentPath + "/" + root.getName();
 		builder.addDirectory(rootPath);
-		for (File f : root.listFiles()) {
+		for (File f : FileUtils.listSortedFiles(root)) {
 			if (f.isDirectory())
-				addDirectoryTree(builder, parentPath + "/" + root.getName(), f, executionPermissions);
+				addDirectoryTree(builder, parentPath + "/" + root.getName(), f, executables);
 			else {
-				builder.addFile(rootPath + "/" + f.getName(), f, executionPermissions.contains(f) ? 0755 : 0644);
+				builder.addFile(rootPath + "/" + f.getName(), f, executables.getMode(f));
 			}
 		}
 	}
 
+	/**
+	 * RPM contents whose modification times can be normalized
+	 */
+	private static class RpmContents extends Contents {
+
+		void setMtimes(long time) {
+			for (CpioHeader header : headers) {
+				header.setMtime(time);
+			}
+		}
+
+	}
+
+	/**
+	 * RPM builder whose build time can be changed
+	 */
+	private static class RpmBuilder extends Builder {
+
+		void setBuildTime(long time) {
+			format.getHeader().createEntry(HeaderTag.BUILDTIME, (int) (time / 1000));
+		}
+
+	}
+
 }
@@ -1,6 +1,8 @@
 package io.github.fvarrui.javapackager.packagers;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -36,6 +38,21 @@ public class GenerateSetup extends WindowsArtifactGenerator {
 		return false;
 	}
 	
+	@Override
+	public List<File> getInputs(WindowsPackager packager) {
+		return Arrays.asList(packager.getAppFolder(), packager.task.getIconFile());
+	}
+
+	@Override
+	public List<File> getOutputs(WindowsPackager packager) {
+		String name = packager.task.getAppName();
+		return Arrays.asList(
+				new File(packager.getAssetsFolder(), packager.task.getIconFile().getName()),
+				new File(packager.getAssetsFolder(), name + ".iss"),
+				new File(packager.task.getOutputDirectory(), name + "_" + packager.task.getVersion() + ".exe")
+			);
+	}
+
 	@Override
 	protected File doApply(WindowsPackager packager) throws Exception {
 		
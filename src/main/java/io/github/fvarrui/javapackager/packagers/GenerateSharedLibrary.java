@@ -6,6 +6,8 @@ import io.github.fvarrui.javapackager.utils.GraalVM;
 import io.github.fvarrui.javapackager.utils.Logger;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 public class GenerateSharedLibrary extends ArtifactGenerator<Packager> {
@@ -34,6 +36,20 @@ public class GenerateSharedLibrary extends ArtifactGenerator<Packager> {
 		return false;		
 	}
 	
+	@Override
+	public List<File> getInputs(Packager packager) throws Exception {
+		File jarFile = GraalVM.findJar(packager.task.getOutputDirectory());
+		return Arrays.asList(jarFile != null ? jarFile : packager.task.getOutputDirectory());
+	}
+
+	@Override
+	public List<File> getOutputs(Packager packager) throws Exception {
+		File jarFile = GraalVM.findJar(packager.task.getOutputDirectory());
+		String libraryName = jarFile != null ? GraalVM.getSharedLibraryName(packager.task.getPlatform(), jarFile) : "";
+		// native-image is installed in the JDK by gu
+		return Arrays.asList(packager.task.getJdkPath(), new File(packager.task.getOutputDirectory(), libraryName));
+	}
+
 	@Override
 	protected File doApply(Packager packager) throws Exception {
 		File outputDirectory = packager.task.getOutputDirectory();
@@ -0,0 +1,300 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.github.fvarrui.javapackager.utils.FileUtils;
+import io.github.fvarrui.javapackager.utils.Logger;
+
+/**
+ * Incremental app folder build.
+ *
+ * The app folder built previously is moved aside before building the new one.
+ * Files and folders copied into the app (e.g. additional resources, the bundled
+ * JRE) are put back from the previous build instead of being written again if
+ * their inputs didn't change (see {@link #reuseCopy(File, File)}). Once the new
+ * app has been created, any other file whose content didn't change is put back
+ * too, so it keeps its timestamp, and files no longer generated are dropped.
+ *
+ * The size, last modified time and (once known) content hash of every file is
+ * saved to a manifest in the assets folder. Like rsync, a file whose size and
+ * last modified time match the manifest is considered unchanged without hashing
+ * it, and a file whose size changed is never hashed, as it can't be unchanged.
+ */
+public class IncrementalBuild {
+
+	private final File appFolder;
+	private final File previousFolder;
+	private final File manifestFile;
+
+	// manifest names of the files and folders copied into the app
+	private static final String COPY_PREFIX = "copy:";
+	// manifest hash of the files which haven't been hashed
+	private static final String NO_HASH = "-";
+
+	private final Map<String, Entry> previousEntries = new HashMap<>();
+	private final Map<String, String> previousKeys = new HashMap<>();
+	private final Map<String, String> keys = new TreeMap<>();
+
+	/**
+	 * @param appFolder    App folder
+	 * @param assetsFolder Assets folder, where the manifest and previous build are kept
+	 */
+	public IncrementalBuild(File appFolder, File assetsFolder) {
+		super();
+		this.appFolder = appFolder;
+		this.previousFolder = new File(assetsFolder, appFolder.getName() + ".previous");
+		this.manifestFile = new File(assetsFolder, appFolder.getName() + ".manifest");
+	}
+
+	/**
+	 * Loads the previous build manifest and moves the previous app folder aside
+	 *
+	 * @throws Exception Previous app folder could not be moved
+	 */
+	public void start() throws Exception {
+
+		loadManifest();
+
+		if (previousFolder.exists()) {
+			// the last build failed, so the app folder may be incomplete
+			if (appFolder.exists()) FileUtils.removeFolder(appFolder);
+		} else if (appFolder.exists()) {
+			Files.move(appFolder.toPath(), previousFolder.toPath());
+		}
+
+		if (previousEntries.isEmpty() && previousFolder.exists()) {
+			FileUtils.removeFolder(previousFolder);
+		}
+
+		Logger.info("Incremental build: " + previousEntries.size() + " files from previous build can be reused");
+
+	}
+
+	/**
+	 * Reuses a folder from the previous build if it was built from the same inputs
+	 *
+	 * @param name   Name which identifies the folder in the manifest
+	 * @param key    Hash of the inputs the folder is built from
+	 * @param folder Folder inside the app folder
+	 * @return true if the folder was reused, false if it has to be built
+	 * @throws Exception Previous folder could not be moved
+	 */
+	public boolean reuse(String name, String key, File folder) throws Exception {
+		keys.put(name, key);
+		if (!key.equals(previousKeys.get(name))) return false;
+		File previous = toPrevious(folder.toPath()).toFile();
+		if (!previous.isDirectory() || !isIntact(previous.toPath())) return false;
+		if (folder.exists()) FileUtils.removeFolder(folder);
+		Files.createDirectories(folder.getParentFile().toPath());
+		Files.move(previous.toPath(), folder.toPath());
+		return true;
+	}
+
+	/**
+	 * Reuses a file or folder copied by the previous build if its source didn't change
+	 * (same paths, sizes and last modified times), so it's not copied again
+	 *
+	 * @param source Source file or folder
+	 * @param target Target file or folder inside the app folder
+	 * @return true if it was reused, false if it has to be copied
+	 * @throws Exception Source could not be read or previous copy could not be moved
+	 */
+	public boolean reuseCopy(File source, File target) throws Exception {
+		String name = COPY_PREFIX + toRelative(target.toPath());
+		String key = describe(source.toPath());
+		if (source.isDirectory()) return reuse(name, key, target);
+
+		keys.put(name, key);
+		if (!key.equals(previousKeys.get(name))) return false;
+		Path previous = toPrevious(target.toPath());
+		Entry previousEntry = previousEntries.get(toRelative(target.toPath()));
+		if (previousEntry == null || !Files.isRegularFile(previous, LinkOption.NOFOLLOW_LINKS) || !previousEntry.matches(previous)) return false;
+		Files.createDirectories(target.getParentFile().toPath());
+		Files.move(previous, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		return true;
+	}
+
+	/**
+	 * Puts back unchanged files from the previous build, saves the new manifest and
+	 * removes the previous build
+	 *
+	 * @throws Exception Manifest could not be saved or a file could not be hashed
+	 */
+	public void finish() throws Exception {
+
+		List<Path> files = listFiles(appFolder.toPath());
+		AtomicInteger unchanged = new AtomicInteger();
+
+		Map<String, Entry> entries;
+		try {
+			entries = files
+					.parallelStream()
+					.collect(Collectors.toMap(this::toRelative, file -> {
+						try {
+							Entry entry = reconcile(file);
+							if (entry.unchanged) unchanged.incrementAndGet();
+							return entry;
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					}, (a, b) -> a, TreeMap::new));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		if (previousFolder.exists()) FileUtils.removeFolder(previousFolder);
+
+		saveManifest(entries);
+
+		Logger.info("Incremental build: " + unchanged + " files unchanged, " + (entries.size() - unchanged.get()) + " files written");
+
+	}
+
+	/**
+	 * Replaces a new file with the previous one if both have the same content. Files are
+	 * only hashed if they have the same size but a different last modified time
+	 */
+	private Entry reconcile(Path file) throws IOException {
+		String relative = toRelative(file);
+		Entry previousEntry = previousEntries.get(relative);
+		long size = Files.size(file);
+		long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+		// a new file, or one whose size changed, can't be unchanged
+		if (previousEntry == null || previousEntry.size != size) {
+			return new Entry(null, size, lastModified, false);
+		}
+
+		// e.g. reused files
+		if (previousEntry.lastModified == lastModified) {
+			return new Entry(previousEntry.hash, size, lastModified, true);
+		}
+
+		Path previous = toPrevious(file);
+		if (!Files.isRegularFile(previous, LinkOption.NOFOLLOW_LINKS) || !previousEntry.matches(previous)) {
+			return new Entry(null, size, lastModified, false);
+		}
+
+		String hash = FileUtils.sha256(file.toFile());
+		String previousHash = previousEntry.hash != null ? previousEntry.hash : FileUtils.sha256(previous.toFile());
+		if (hash.equals(previousHash) && Files.isExecutable(previous) == Files.isExecutable(file)) {
+			Files.move(previous, file, StandardCopyOption.REPLACE_EXISTING);
+			return new Entry(hash, previousEntry.size, previousEntry.lastModified, true);
+		}
+
+		return new Entry(hash, size, lastModified, false);
+	}
+
+	/**
+	 * Describes a file or folder tree by its paths, sizes, last modified times and
+	 * execute permissions
+	 */
+	private static String describe(Path source) throws IOException {
+		StringBuilder description = new StringBuilder(source.toAbsolutePath().toString()).append('\n');
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(source)) {
+			files = walk.filter(path -> Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)).sorted().collect(Collectors.toList());
+		}
+		for (Path file : files) {
+			description
+				.append(source.relativize(file)).append(' ')
+				.append(Files.size(file)).append(' ')
+				.append(Files.getLastModifiedTime(file).toMillis()).append(' ')
+				.append(Files.isExecutable(file)).append('\n');
+		}
+		return FileUtils.sha256(description.toString());
+	}
+
+	/**
+	 * Checks if all files in a previous build folder match the manifest
+	 */
+	private boolean isIntact(Path previous) throws IOException {
+		String prefix = previousFolder.toPath().relativize(previous).toString().replace(File.separatorChar, '/') + "/";
+		List<Path> files = listFiles(previous);
+		long expected = previousEntries.keySet().stream().filter(path -> path.startsWith(prefix)).count();
+		if (files.size() != expected) return false;
+		for (Path file : files) {
+			Entry entry = previousEntries.get(previousFolder.toPath().relativize(file).toString().replace(File.separatorChar, '/'));
+			if (entry == null || !entry.matches(file)) return false;
+		}
+		return true;
+	}
+
+	private static List<Path> listFiles(Path folder) throws IOException {
+		if (!Files.isDirectory(folder)) return new ArrayList<>();
+		try (Stream<Path> walk = Files.walk(folder)) {
+			return walk.filter(path -> Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)).collect(Collectors.toList());
+		}
+	}
+
+	private String toRelative(Path file) {
+		return appFolder.toPath().relativize(file).toString().replace(File.separatorChar, '/');
+	}
+
+	private Path toPrevious(Path file) {
+		return previousFolder.toPath().resolve(appFolder.toPath().relativize(file));
+	}
+
+	private void loadManifest() throws IOException {
+		if (!manifestFile.exists()) return;
+		for (String line : Files.readAllLines(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+			if (line.startsWith("#")) {
+				// names can contain spaces (paths), so they go last
+				String[] key = line.substring(1).split(" ", 2);
+				if (key.length == 2) previousKeys.put(key[1], key[0]);
+			} else {
+				String[] fields = line.split(" ", 4);
+				if (fields.length == 4) {
+					String hash = NO_HASH.equals(fields[0]) ? null : fields[0];
+					previousEntries.put(fields[3], new Entry(hash, Long.parseLong(fields[1]), Long.parseLong(fields[2]), false));
+				}
+			}
+		}
+	}
+
+	private void saveManifest(Map<String, Entry> entries) throws IOException {
+		List<String> lines = new ArrayList<>();
+		keys.forEach((name, key) -> lines.add("#" + key + " " + name));
+		entries.forEach((path, entry) -> lines.add((entry.hash != null ? entry.hash : NO_HASH) + " " + entry.size + " " + entry.lastModified + " " + path));
+		Files.write(manifestFile.toPath(), lines, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Manifest entry
+	 */
+	private static class Entry {
+
+		private final String hash;
+		private final long size;
+		private final long lastModified;
+		private final boolean unchanged;
+
+		public Entry(String hash, long size, long lastModified, boolean unchanged) {
+			this.hash = hash;
+			this.size = size;
+			this.lastModified = lastModified;
+			this.unchanged = unchanged;
+		}
+
+		public boolean matches(Path file) throws IOException {
+			return Files.size(file) == size && Files.getLastModifiedTime(file).toMillis() == lastModified;
+		}
+
+	}
+
+}
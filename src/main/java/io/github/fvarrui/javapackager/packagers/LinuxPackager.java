@@ -8,6 +8,7 @@ import io.github.fvarrui.javapackager.PackageTask;
 import org.apache.commons.lang3.StringUtils;
 
 import io.github.fvarrui.javapackager.model.Platform;
+import io.github.fvarrui.javapackager.model.StagingMode;
 import io.github.fvarrui.javapackager.utils.FileUtils;
 import io.github.fvarrui.javapackager.utils.Logger;
 import io.github.fvarrui.javapackager.utils.VelocityUtils;
@@ -94,7 +95,7 @@ public class LinuxPackager extends Packager {
 			FileUtils.concat(executable, startupFile, jarFile);
 		else {
 			FileUtils.copyFileToFile(startupFile, executable);
-			FileUtils.copyFileToFolder(jarFile, appFolder);
+			copyToAppFolder(jarFile, appFolder, StagingMode.copy);
 		}
 
 		// sets execution permissions
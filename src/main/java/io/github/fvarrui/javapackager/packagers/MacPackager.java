@@ -12,6 +12,7 @@ import org.apache.commons.lang3.SystemUtils;
 
 import io.github.fvarrui.javapackager.model.MacStartup;
 import io.github.fvarrui.javapackager.model.Platform;
+import io.github.fvarrui.javapackager.model.StagingMode;
 import io.github.fvarrui.javapackager.utils.CommandUtils;
 import io.github.fvarrui.javapackager.utils.FileUtils;
 import io.github.fvarrui.javapackager.utils.Logger;
@@ -95,7 +96,7 @@ public class MacPackager extends Packager {
 	public File doCreateApp() throws Exception {
 
 		// copies jarfile to Java folder
-		FileUtils.copyFileToFolder(jarFile, javaFolder);
+		copyToAppFolder(jarFile, javaFolder, StagingMode.copy);
 
 		processStartupScript();
 
@@ -2,7 +2,6 @@ package io.github.fvarrui.javapackager.packagers;
 
 import static org.apache.commons.lang3.StringUtils.defaultIfBlank;
 import static org.apache.commons.io.FilenameUtils.getExtension;
-import static org.apache.commons.collections4.CollectionUtils.addIgnoreNull;
 
 import java.io.File;
 import java.nio.file.InvalidPathException;
@@ -14,6 +13,7 @@ import io.github.fvarrui.javapackager.PackageTask;
 import io.github.fvarrui.javapackager.model.LinuxConfig;
 import io.github.fvarrui.javapackager.model.MacConfig;
 import io.github.fvarrui.javapackager.model.Platform;
+import io.github.fvarrui.javapackager.model.StagingMode;
 import io.github.fvarrui.javapackager.model.WindowsConfig;
 import io.github.fvarrui.javapackager.utils.*;
 import io.github.fvarrui.javapackager.utils.updater.TaskJavaUpdater;
@@ -47,6 +47,9 @@ public abstract class Packager {
 	// processed classpaths list
 	protected List<String> classpaths = new ArrayList<>();
 
+	// incremental build (null if disabled)
+	private IncrementalBuild incrementalBuild;
+
 	// ===============================================
 
 	public File getAppFolder() {
@@ -89,6 +92,10 @@ public abstract class Packager {
 		return bootstrapFile;
 	}
 
+	public IncrementalBuild getIncrementalBuild() {
+		return incrementalBuild;
+	}
+
 	// ===============================================
 
 	public Packager(PackageTask task) {
@@ -109,6 +116,12 @@ public abstract class Packager {
 		// sets assetsDir for velocity to locate custom velocity templates
 		VelocityUtils.setAssetsDir(task.getAssetsDir());
 
+		// makes templates get the same GUIDs on every build
+		VelocityUtils.setReproducible(task.getReproducible());
+
+		// sets the budget for external tools run by all packagers (only increased while others run)
+		ProcessScheduler.configure(task.getMaxProcessSlots(), task.getMaxProcessMemory());
+
 		// using name as displayName, if it's not specified
 		task.appDisplayName(defaultIfBlank(task.getAppDisplayName(), task.getAppName()));
 
@@ -206,11 +219,7 @@ public abstract class Packager {
 				return;
 			}
 			try {
-				if (r.isDirectory()) {
-					FileUtils.copyFolderToFolder(r, destination);
-				} else if (r.isFile()) {
-					FileUtils.copyFileToFolder(r, destination);
-				}
+				copyToAppFolder(r, destination, task.getStagingMode());
 			} catch (Exception e) {
 				Logger.error(e.getMessage(), e);
 			}
@@ -233,6 +242,27 @@ public abstract class Packager {
 
 	}
 
+	/**
+	 * Copies a file or folder into a folder of the app. On incremental builds, the copy made
+	 * by the previous build is reused if the source didn't change, so it's not written again
+	 * 
+	 * @param source      File or folder to be copied
+	 * @param destination Destination folder
+	 * @param mode        Staging mode
+	 * @throws Exception Source could not be copied
+	 */
+	protected void copyToAppFolder(File source, File destination, StagingMode mode) throws Exception {
+		if (incrementalBuild != null && incrementalBuild.reuseCopy(source, new File(destination, source.getName()))) {
+			Logger.info("Reusing [" + source.getName() + "] from previous build in folder [" + destination + "]");
+			return;
+		}
+		if (source.isDirectory()) {
+			FileUtils.copyFolderToFolder(source, destination, mode);
+		} else if (source.isFile()) {
+			FileUtils.copyFileToFolder(source, destination, false, mode);
+		}
+	}
+
 	/**
 	 * Locates license file
 	 * 
@@ -324,20 +354,17 @@ public abstract class Packager {
 	 */
 	public List<File> createBundles() throws Exception {
 
-		List<File> bundles = new ArrayList<>();
-
 		Logger.infoIndent("Creating bundles ...");
 
-		if (task.getCreateZipball()) {
-			File zipball = Context.getContext().createZipball(this);
-			Logger.info("Zipball created: " + zipball);
-			bundles.add(zipball);
-		}
+		List<BundleGenerator> generators = new ArrayList<>();
+		generators.add(new CreateZipball());
+		generators.add(new CreateTarball());
+		generators.removeIf(generator -> generator.isSkipped(this));
 
-		if (task.getCreateTarball()) {
-			File tarball = Context.getContext().createTarball(this);
-			Logger.info("Tarball created: " + tarball);
-			bundles.add(tarball);
+		// all bundles are written at once, reading the app folder only once
+		List<File> bundles = BundleGenerator.generate(this, generators);
+		for (int i = 0; i < bundles.size(); i++) {
+			Logger.info(generators.get(i).getArtifactName() + " created: " + bundles.get(i));
 		}
 
 		Logger.infoUnindent("Bundles created!");
@@ -354,19 +381,22 @@ public abstract class Packager {
 			task.getOutputDirectory().mkdirs();
 		}
 
+		// creates folder for intermmediate assets
+		assetsFolder = FileUtils.mkdir(task.getOutputDirectory(), "assets");
+		Logger.info("Assets folder created: " + assetsFolder.getAbsolutePath());
+
 		// creates app destination folder
 		appFolder = new File(task.getOutputDirectory(), task.getAppName());
-		if (appFolder.exists()) {
+		if (task.getIncrementalBuild()) {
+			incrementalBuild = new IncrementalBuild(appFolder, assetsFolder);
+			incrementalBuild.start();
+		} else if (appFolder.exists()) {
 			FileUtils.removeFolder(appFolder);
 			Logger.info("Old app folder removed " + appFolder.getAbsolutePath());
 		}
 		appFolder = FileUtils.mkdir(task.getOutputDirectory(), task.getAppName());
 		Logger.info("App folder created: " + appFolder.getAbsolutePath());
 
-		// creates folder for intermmediate assets
-		assetsFolder = FileUtils.mkdir(task.getOutputDirectory(), "assets");
-		Logger.info("Assets folder created: " + assetsFolder.getAbsolutePath());
-
 		// create the rest of the structure
 		doCreateAppStructure();
 
@@ -409,6 +439,11 @@ public abstract class Packager {
 
 		File appFile = doCreateApp();
 
+		// keeps unchanged files from previous build
+		if (incrementalBuild != null) {
+			incrementalBuild.finish();
+		}
+
 		Logger.infoUnindent("App created in " + appFolder.getAbsolutePath() + "!");
 
 		return appFile;
@@ -429,22 +464,9 @@ public abstract class Packager {
 		// creates folder for intermmediate assets if it doesn't exist
 		assetsFolder = FileUtils.mkdir(task.getOutputDirectory(), "assets");
 
-		// invokes installer producers
-		
-		for (ArtifactGenerator<?> generator : Context.getContext().getInstallerGenerators(task.getPlatform())) {
-			try {
-				Logger.infoIndent("Generating " + generator.getArtifactName() + "...");
-				File artifact = generator.apply(this);
-				if (artifact != null) {
-					addIgnoreNull(installers, artifact);
-					Logger.infoUnindent(generator.getArtifactName() + " generated in " + artifact + "!");
-				} else {
-					Logger.warnUnindent(generator.getArtifactName() + " NOT generated!!!");
-				}
-			} catch (Exception e) {
-				Logger.errorUnindent(generator.getArtifactName() + " generation failed due to: " + e.getMessage(), e);
-			}
-		}
+		// invokes installer producers, running the independent ones concurrently
+		ArtifactGeneratorScheduler scheduler = new ArtifactGeneratorScheduler(this, task.getGeneratorsParallelism());
+		installers.addAll(scheduler.run(Context.getContext().getInstallerGenerators(task.getPlatform())));
 
 		Logger.infoUnindent("Installers generated! " + installers);
 
@@ -0,0 +1,122 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.zip.Deflater;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.tukaani.xz.LZMA2Options;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import io.github.fvarrui.javapackager.model.TarballFormat;
+import io.github.fvarrui.javapackager.utils.ParallelGzipOutputStream;
+import io.github.fvarrui.javapackager.utils.ParallelXzOutputStream;
+
+/**
+ * Writes a tarball as a stream, compressing it on several processors (see
+ * {@link ParallelGzipOutputStream}, {@link ParallelXzOutputStream} and Zstandard workers)
+ */
+public class TarballWriter implements BundleSink {
+
+	private static final int BUFFER_SIZE = 256 * 1024;
+
+	private final TarArchiveOutputStream tar;
+
+	/**
+	 * Creates a tar.gz file using all available processors and default compression level
+	 *
+	 * @param tarFile Tarball file
+	 * @throws IOException Tarball could not be created
+	 */
+	public TarballWriter(File tarFile) throws IOException {
+		this(tarFile, TarballFormat.gz, null, 0);
+	}
+
+	/**
+	 * @param tarFile Tarball file
+	 * @param format  Compression format
+	 * @param level   Compression level, or null for the format's default one
+	 * @param threads Number of compression threads (0 = number of processors)
+	 * @throws IOException Tarball could not be created
+	 */
+	public TarballWriter(File tarFile, TarballFormat format, Integer level, int threads) throws IOException {
+		super();
+		OutputStream out = new BufferedOutputStream(Files.newOutputStream(tarFile.toPath()), BUFFER_SIZE);
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		try {
+			out = compress(out, format, level, threads);
+		} catch (IOException | RuntimeException e) {
+			out.close();
+			throw e;
+		}
+		tar = new TarArchiveOutputStream(out);
+		tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+		tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+	}
+
+	@Override
+	public void addFolder(String path, long modTime) throws IOException {
+		TarArchiveEntry entry = createEntry(path, TarConstants.LF_DIR);
+		entry.setMode(TarArchiveEntry.DEFAULT_DIR_MODE);
+		entry.setModTime(modTime);
+		tar.putArchiveEntry(entry);
+		tar.closeArchiveEntry();
+	}
+
+	@Override
+	public void addFile(String path, int mode, long modTime, FileContent content) throws IOException {
+		TarArchiveEntry entry = createEntry(path, TarConstants.LF_NORMAL);
+		entry.setMode(TarArchiveEntry.DEFAULT_FILE_MODE & ~0777 | mode);
+		entry.setSize(content.getSize());
+		entry.setModTime(modTime);
+		tar.putArchiveEntry(entry);
+		content.writeTo(tar);
+		tar.closeArchiveEntry();
+	}
+
+	@Override
+	public void addLink(String path, String target, long modTime) throws IOException {
+		TarArchiveEntry entry = createEntry(path, TarConstants.LF_SYMLINK);
+		entry.setLinkName(target);
+		entry.setModTime(modTime);
+		tar.putArchiveEntry(entry);
+		tar.closeArchiveEntry();
+	}
+
+	private static TarArchiveEntry createEntry(String path, byte type) {
+		TarArchiveEntry entry = new TarArchiveEntry(path, type);
+		// files are owned by root, instead of the user running the build
+		entry.setIds(0, 0);
+		entry.setNames("root", "root");
+		return entry;
+	}
+
+	private static OutputStream compress(OutputStream out, TarballFormat format, Integer level, int threads) throws IOException {
+		switch (format) {
+		case xz:
+			return new ParallelXzOutputStream(out, level != null ? level : LZMA2Options.PRESET_DEFAULT, threads);
+		case zst:
+			ZstdOutputStream zstd = new ZstdOutputStream(out, level != null ? level : Zstd.defaultCompressionLevel());
+			// any number of workers gives the same output, unlike single-threaded mode (0 workers)
+			zstd.setWorkers(threads);
+			return zstd;
+		default:
+			return new ParallelGzipOutputStream(out, level != null ? level : Deflater.DEFAULT_COMPRESSION, threads);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		tar.close();
+	}
+
+}
@@ -0,0 +1,194 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ScatterZipOutputStream;
+import org.apache.commons.compress.archivers.zip.UnixStat;
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.InputStreamSupplier;
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Writes a zip file deflating its entries on all processors (see {@link ParallelScatterZipCreator}).
+ * Files which are already compressed (jars, images, JRE modules, ...) are stored as they are, and
+ * POSIX permissions are kept in the entries, so executables can be run after unzipping them on
+ * GNU/Linux or Mac OS. Zip64 extensions are only used when the zip file needs them. <br>
+ * Only a few entries per thread are waiting to be compressed at a time: adding more entries blocks
+ * until some are compressed, so file contents are not kept in memory faster than they are zipped.
+ */
+public class ZipballWriter implements BundleSink {
+
+	private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList(
+			"jar", "zip", "jmod", "gz", "tgz", "xz", "zst", "bz2", "7z",
+			"png", "jpg", "jpeg", "gif", "ico", "icns", "mp3", "mp4", "ogg"
+	));
+
+	// jimage file containing the classes of the JRE modules
+	private static final String MODULES_FILE = "lib/modules";
+
+	// max entries waiting to be compressed per thread
+	private static final int PENDING_ENTRIES_PER_THREAD = 4;
+
+	private final File zipFile;
+	private final boolean reproducible;
+	private final ExecutorService executor;
+	private final ParallelScatterZipCreator creator;
+	private final Semaphore pendingEntries;
+
+	/**
+	 * Creates a writer using all available processors
+	 *
+	 * @param zipFile Zipball file
+	 */
+	public ZipballWriter(File zipFile) {
+		this(zipFile, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param zipFile Zipball file
+	 * @param threads Number of threads compressing entries
+	 */
+	public ZipballWriter(File zipFile, int threads) {
+		this(zipFile, threads, false);
+	}
+
+	/**
+	 * @param zipFile      Zipball file
+	 * @param reproducible Write entries in the same order they are added (compressing them on a
+	 *                     single thread, as each thread writes its own entries) and store times
+	 *                     as UTC, so the zipball doesn't depend on the time zone
+	 */
+	public ZipballWriter(File zipFile, boolean reproducible) {
+		this(zipFile, reproducible ? 1 : Runtime.getRuntime().availableProcessors(), reproducible);
+	}
+
+	private ZipballWriter(File zipFile, int threads, boolean reproducible) {
+		super();
+		this.zipFile = zipFile;
+		this.reproducible = reproducible;
+		this.pendingEntries = new Semaphore(Math.max(1, threads) * PENDING_ENTRIES_PER_THREAD);
+		this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+			Thread thread = new Thread(runnable, "zip-entry");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.creator = new ParallelScatterZipCreator(executor);
+	}
+
+	@Override
+	public void addFolder(String path, long modTime) throws IOException {
+		ZipArchiveEntry entry = new ZipArchiveEntry(path);
+		entry.setUnixMode(UnixStat.DIR_FLAG | UnixStat.DEFAULT_DIR_PERM);
+		entry.setTime(toDosTime(modTime));
+		add(entry, new byte[0]);
+	}
+
+	/**
+	 * Adds a file entry, which is stored without compression if it's already compressed
+	 */
+	@Override
+	public void addFile(String path, int mode, long modTime, FileContent content) throws IOException {
+		ZipArchiveEntry entry = new ZipArchiveEntry(path);
+		entry.setUnixMode(UnixStat.FILE_FLAG | mode);
+		entry.setTime(toDosTime(modTime));
+		entry.setMethod(isCompressed(path) ? ZipEntry.STORED : ZipEntry.DEFLATED);
+		// the content is read once the entry is compressed, after returning
+		content.retain();
+		try {
+			submit(entry, content::openStream, content::release);
+		} catch (IOException | RuntimeException e) {
+			content.release();
+			throw e;
+		}
+	}
+
+	@Override
+	public void addLink(String path, String target, long modTime) throws IOException {
+		ZipArchiveEntry entry = new ZipArchiveEntry(path);
+		entry.setUnixMode(UnixStat.LINK_FLAG | UnixStat.DEFAULT_LINK_PERM);
+		entry.setTime(toDosTime(modTime));
+		// symbolic links are stored as entries whose content is the link target
+		add(entry, target.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void add(ZipArchiveEntry entry, byte[] content) throws IOException {
+		entry.setMethod(ZipEntry.STORED);
+		submit(entry, () -> new ByteArrayInputStream(content), () -> {});
+	}
+
+	/**
+	 * Submits an entry to be compressed, waiting if too many entries are pending
+	 *
+	 * @param entry    Zip entry
+	 * @param supplier Entry content
+	 * @param done     Called once the entry is compressed (or failed)
+	 * @throws InterruptedIOException Interrupted while waiting
+	 */
+	private void submit(ZipArchiveEntry entry, InputStreamSupplier supplier, Runnable done) throws InterruptedIOException {
+		try {
+			pendingEntries.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while compressing " + zipFile.getName());
+		}
+		Callable<ScatterZipOutputStream> callable = creator.createCallable(entry, supplier);
+		try {
+			creator.submitStreamAwareCallable(() -> {
+				try {
+					return callable.call();
+				} finally {
+					pendingEntries.release();
+					done.run();
+				}
+			});
+		} catch (RuntimeException e) {
+			pendingEntries.release();
+			throw e;
+		}
+	}
+
+	private long toDosTime(long time) {
+		// zip stores local time, so it's shifted to get the same fields as UTC
+		return reproducible ? time - TimeZone.getDefault().getOffset(time) : time;
+	}
+
+	private static boolean isCompressed(String path) {
+		return path.endsWith("/" + MODULES_FILE) || COMPRESSED_EXTENSIONS.contains(FilenameUtils.getExtension(path).toLowerCase());
+	}
+
+	/**
+	 * Waits for all entries to be compressed and writes them to the zipball
+	 */
+	@Override
+	public void close() throws IOException {
+		try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(zipFile)) {
+			zip.setUseZip64(Zip64Mode.AsNeeded);
+			creator.writeTo(zip);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while compressing " + zipFile.getName());
+		} catch (ExecutionException e) {
+			throw new IOException("Could not compress " + zipFile.getName(), e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
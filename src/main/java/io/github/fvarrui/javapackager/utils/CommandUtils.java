@@ -1,9 +1,20 @@
 package io.github.fvarrui.javapackager.utils;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.codehaus.plexus.util.cli.CommandLineException;
@@ -13,8 +24,18 @@ import org.codehaus.plexus.util.cli.CommandLineException;
  */
 public class CommandUtils {
 
+	private static final long CPU_SAMPLE_PERIOD = 1000;
+	// first CPU time sampling period, doubled up to CPU_SAMPLE_PERIOD, so short commands get sampled too
+	private static final long CPU_FIRST_SAMPLE_PERIOD = 10;
+	// max time to read the output left once the process exits (pipes may be inherited by its children)
+	private static final long OUTPUT_DRAIN_TIMEOUT = 10000;
+
 	public static String executeOnDirectory(File workingDirectory, String executable, Object... arguments) throws IOException, CommandLineException {
-		ExecutionResult result = executeWithResult(workingDirectory, executable, arguments);
+		return executeOnDirectory(workingDirectory, new ExecutionOptions(), executable, arguments);
+	}
+
+	public static String executeOnDirectory(File workingDirectory, ExecutionOptions options, String executable, Object... arguments) throws IOException, CommandLineException {
+		ExecutionResult result = executeWithResult(workingDirectory, options, executable, arguments);
 		if (result.getExitCode() != 0) {
 			throw new CommandLineException("Command execution failed: " + executable + " " + StringUtils.join(arguments, " "));
 		}
@@ -28,12 +49,44 @@ public class CommandUtils {
 	public static String execute(String executable, Object... arguments) throws IOException, CommandLineException {
 		return executeOnDirectory(new File("."), executable, arguments);
 	}
+
+	public static String execute(ExecutionOptions options, String executable, Object... arguments) throws IOException, CommandLineException {
+		return executeOnDirectory(new File("."), options, executable, arguments);
+	}
 	
 	public static ExecutionResult executeWithResult(File workingDirectory, String executable, Object... arguments) throws IOException, CommandLineException {
+		return executeWithResult(workingDirectory, 0, executable, arguments);
+	}
+
+	/**
+	 * Executes a command, killing it if it doesn't finish in time
+	 * 
+	 * @param workingDirectory Working directory
+	 * @param timeout Max milliseconds to wait for the command to finish (0 = no timeout)
+	 * @param executable Executable
+	 * @param arguments Arguments
+	 * @return Execution result
+	 * @throws CommandLineException if the command can't be executed, or if it times out
+	 */
+	public static ExecutionResult executeWithResult(File workingDirectory, long timeout, String executable, Object... arguments) throws IOException, CommandLineException {
+		return executeWithResult(workingDirectory, new ExecutionOptions().timeout(timeout), executable, arguments);
+	}
+
+	/**
+	 * Executes a command, logging its output as it's printed
+	 * 
+	 * @param workingDirectory Working directory
+	 * @param options Timeout, output limit, log file and line listeners
+	 * @param executable Executable
+	 * @param arguments Arguments
+	 * @return Execution result
+	 * @throws CommandLineException if the command can't be executed, or if it times out (then it's killed)
+	 */
+	public static ExecutionResult executeWithResult(File workingDirectory, ExecutionOptions options, String executable, Object... arguments) throws IOException, CommandLineException {
 		ExecutionResult result = new ExecutionResult();
 		
-		StringBuffer outputBuffer = new StringBuffer();
-		StringBuffer errorBuffer = new StringBuffer();
+		OutputBuffer outputBuffer = new OutputBuffer(options.getMaxOutput());
+		OutputBuffer errorBuffer = new OutputBuffer(options.getMaxOutput());
 		
 		Commandline command = new Commandline();
 		command.setWorkingDirectory(workingDirectory);
@@ -45,31 +98,165 @@ public class CommandUtils {
 
 		Logger.info("Executing command: " + commandLine);
 
-		Process process = command.execute();
+		// waits until the tool fits in the budget shared with other packagers running tools
+		ProcessScheduler.Permit permit;
+		try {
+			permit = ProcessScheduler.acquire(executable);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CommandLineException("Interrupted while waiting to execute command: " + commandLine, e);
+		}
 
-		BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()));
-		BufferedReader error = new BufferedReader(new InputStreamReader(process.getErrorStream()));
-		while (process.isAlive() || output.ready() || error.ready()) {
-			if (output.ready()) {
-				String outputLine = output.readLine();
-				Logger.info(outputLine);
-				outputBuffer.append(outputLine + "\n");
+		long start = System.nanoTime();
+		long cpuTime = -1;
+		Process process;
+		Writer log = null;
+		try {
+			if (options.getLogFile() != null) {
+				options.getLogFile().getAbsoluteFile().getParentFile().mkdirs();
+				log = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(options.getLogFile()), StandardCharsets.UTF_8));
+				log.write("Executing command: " + commandLine + "\n");
 			}
-			if (error.ready()) {
-				String errorLine = error.readLine();
-				Logger.error(errorLine);					
-				errorBuffer.append(errorLine + "\n");
+
+			process = command.execute();
+
+			// stdout and stderr are read by their own threads, blocking until there's something to read,
+			// so both pipes are drained while waiting for the process, and nothing is lost after it exits 
+			Thread output = pump(process.getInputStream(), outputBuffer, false, executable, log, options.getOutputListener());
+			Thread error = pump(process.getErrorStream(), errorBuffer, true, executable, log, options.getErrorListener());
+			try {
+				// the process CPU time is only available until the process is reaped (right after it exits),
+				// so it's sampled right away and then more and more seldom, up to every second
+				long deadline = options.getTimeout() > 0 ? start + TimeUnit.MILLISECONDS.toNanos(options.getTimeout()) : Long.MAX_VALUE;
+				long samplePeriod = CPU_FIRST_SAMPLE_PERIOD;
+				cpuTime = getCpuTime(process);
+				while (!process.waitFor(Math.min(samplePeriod, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())), TimeUnit.MILLISECONDS)) {
+					if (System.nanoTime() - deadline >= 0) {
+						kill(process);
+						throw new CommandLineException("Command timed out after " + options.getTimeout() + "ms: " + commandLine);
+					}
+					cpuTime = Math.max(cpuTime, getCpuTime(process));
+					samplePeriod = Math.min(samplePeriod * 2, CPU_SAMPLE_PERIOD);
+				}
+				// a child process inheriting the pipes (e.g. a daemon started by the tool) keeps them open
+				long drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(OUTPUT_DRAIN_TIMEOUT);
+				if (deadline - drainDeadline < 0) drainDeadline = deadline;
+				output.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(drainDeadline - System.nanoTime())));
+				error.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(drainDeadline - System.nanoTime())));
+				if (output.isAlive() || error.isAlive()) {
+					Logger.warn("Output of " + executable + " is still open after it exited (inherited by a child process?), it won't be read anymore");
+					closeQuietly(process.getInputStream());
+					closeQuietly(process.getErrorStream());
+					output.interrupt();
+					error.interrupt();
+				}
+			} catch (InterruptedException e) {
+				kill(process);
+				Thread.currentThread().interrupt();
+				throw new CommandLineException("Interrupted while executing command: " + commandLine, e);
+			}
+		} finally {
+			try {
+				if (log != null) {
+					synchronized (log) {
+						log.close();
+					}
+				}
+			} catch (IOException e) {
+				Logger.warn("Could not write log file " + options.getLogFile() + ": " + e.getMessage());
+			} finally {
+				permit.close();
 			}
 		}
-		output.close();
-		error.close();
 
 		result.setCommandLine(commandLine);
 		result.setOutput(outputBuffer.toString());
 		result.setError(errorBuffer.toString());
 		result.setExitCode(process.exitValue());
+		result.setWallTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		result.setCpuTime(cpuTime);
+		result.setOutputSize(outputBuffer.getTotalSize() + errorBuffer.getTotalSize());
+		result.setPeakOutputSize(outputBuffer.getPeakSize() + errorBuffer.getPeakSize());
+
+		if (outputBuffer.getDropped() > 0 || errorBuffer.getDropped() > 0) {
+			Logger.warn("Output of " + executable + " exceeded " + options.getMaxOutput() + " characters, only its last lines were kept"
+					+ (options.getLogFile() != null ? " (see " + options.getLogFile() + ")" : ""));
+		}
 			
 		return result;
 	}
 
+	private static Thread pump(InputStream stream, OutputBuffer buffer, boolean isError, String executable, Writer log, Consumer<String> listener) {
+		Thread thread = new Thread(() -> {
+			boolean logging = log != null;
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (isError) {
+						Logger.error(line);
+					} else {
+						Logger.info(line);
+					}
+					buffer.append(line);
+					if (logging) {
+						// a failing log file must not stop draining the pipe, or the process would block
+						try {
+							synchronized (log) {
+								log.write(line + "\n");
+							}
+						} catch (IOException e) {
+							Logger.warn("Could not write output of " + executable + " to log file: " + e.getMessage());
+							logging = false;
+						}
+					}
+					if (listener != null) {
+						listener.accept(line);
+					}
+				}
+			} catch (IOException e) {
+				// stream closed because the process was killed
+			}
+		}, new File(executable).getName() + (isError ? "-stderr" : "-stdout"));
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Gets the CPU time used by a process so far, using ProcessHandle (Java 9+) by reflection,
+	 * as this is built for Java 8. Methods are looked up on the public interfaces, as the
+	 * implementation classes aren't accessible.
+	 * @return CPU time in milliseconds, or -1 if not available
+	 */
+	private static long getCpuTime(Process process) {
+		try {
+			Object info = Process.class.getMethod("info").invoke(process);
+			Method totalCpuDuration = Class.forName("java.lang.ProcessHandle$Info").getMethod("totalCpuDuration");
+			Object duration = ((Optional<?>) totalCpuDuration.invoke(info)).orElse(null);
+			return duration != null ? ((Duration) duration).toMillis() : -1;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return -1;
+		}
+	}
+
+	private static void closeQuietly(InputStream stream) {
+		try {
+			stream.close();
+		} catch (IOException e) {
+			// nothing else can be done
+		}
+	}
+
+	private static void kill(Process process) {
+		process.destroy();
+		try {
+			if (!process.waitFor(5, TimeUnit.SECONDS)) {
+				process.destroyForcibly().waitFor();
+			}
+		} catch (InterruptedException e) {
+			process.destroyForcibly();
+			Thread.currentThread().interrupt();
+		}
+	}
+
 }
@@ -0,0 +1,98 @@
+package io.github.fvarrui.javapackager.utils;
+
+import java.io.File;
+import java.util.function.Consumer;
+
+/**
+ * Command execution options
+ */
+public class ExecutionOptions {
+
+	/**
+	 * Default max number of characters kept from each output stream (stdout and stderr)
+	 */
+	public static final int DEFAULT_MAX_OUTPUT = 1024 * 1024;
+
+	private long timeout = 0;
+	private int maxOutput = DEFAULT_MAX_OUTPUT;
+	private File logFile;
+	private Consumer<String> outputListener;
+	private Consumer<String> errorListener;
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Max milliseconds to wait for the command to finish, then it's killed (0 = no timeout)
+	 * @param timeout Timeout in milliseconds
+	 * @return Execution options
+	 */
+	public ExecutionOptions timeout(long timeout) {
+		this.timeout = timeout;
+		return this;
+	}
+
+	public int getMaxOutput() {
+		return maxOutput;
+	}
+
+	/**
+	 * Max number of characters kept in memory from each output stream. When exceeded, the oldest
+	 * lines are dropped, so only the end of the output is returned
+	 * @param maxOutput Max number of characters
+	 * @return Execution options
+	 */
+	public ExecutionOptions maxOutput(int maxOutput) {
+		this.maxOutput = maxOutput;
+		return this;
+	}
+
+	public File getLogFile() {
+		return logFile;
+	}
+
+	/**
+	 * File where the whole output (stdout and stderr) is written while the command runs
+	 * @param logFile Log file
+	 * @return Execution options
+	 */
+	public ExecutionOptions logFile(File logFile) {
+		this.logFile = logFile;
+		return this;
+	}
+
+	public Consumer<String> getOutputListener() {
+		return outputListener;
+	}
+
+	/**
+	 * Called with every stdout line as it's printed
+	 * @param outputListener Line consumer
+	 * @return Execution options
+	 */
+	public ExecutionOptions outputListener(Consumer<String> outputListener) {
+		this.outputListener = outputListener;
+		return this;
+	}
+
+	public Consumer<String> getErrorListener() {
+		return errorListener;
+	}
+
+	/**
+	 * Called with every stderr line as it's printed
+	 * @param errorListener Line consumer
+	 * @return Execution options
+	 */
+	public ExecutionOptions errorListener(Consumer<String> errorListener) {
+		this.errorListener = errorListener;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "ExecutionOptions [timeout=" + timeout + ", maxOutput=" + maxOutput + ", logFile=" + logFile + "]";
+	}
+
+}
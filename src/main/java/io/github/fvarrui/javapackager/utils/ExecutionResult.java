@@ -9,6 +9,10 @@ public class ExecutionResult {
 	private int exitCode;
 	private String output;
 	private String error;
+	private long wallTime;
+	private long cpuTime = -1;
+	private long outputSize;
+	private long peakOutputSize;
 
 	public String getCommandLine() {
 		return commandLine;
@@ -42,10 +46,61 @@ public class ExecutionResult {
 		this.error = error;
 	}
 
+	/**
+	 * Milliseconds elapsed since the command was started until it finished
+	 * @return Wall time in milliseconds
+	 */
+	public long getWallTime() {
+		return wallTime;
+	}
+
+	public void setWallTime(long wallTime) {
+		this.wallTime = wallTime;
+	}
+
+	/**
+	 * CPU time used by the command process, last sampled before it finished (only available
+	 * when running on Java 9 or later, as it's not reported on Java 8)
+	 * @return CPU time in milliseconds, or -1 if unknown
+	 */
+	public long getCpuTime() {
+		return cpuTime;
+	}
+
+	public void setCpuTime(long cpuTime) {
+		this.cpuTime = cpuTime;
+	}
+
+	/**
+	 * Characters printed by the command (stdout and stderr), including the ones not kept in
+	 * output and error
+	 * @return Output size in characters
+	 */
+	public long getOutputSize() {
+		return outputSize;
+	}
+
+	public void setOutputSize(long outputSize) {
+		this.outputSize = outputSize;
+	}
+
+	/**
+	 * Max characters of output and error kept in memory at once while the command was running
+	 * @return Peak output size in characters
+	 */
+	public long getPeakOutputSize() {
+		return peakOutputSize;
+	}
+
+	public void setPeakOutputSize(long peakOutputSize) {
+		this.peakOutputSize = peakOutputSize;
+	}
+
 	@Override
 	public String toString() {
 		return "ExecutionResult [commandLine=" + commandLine + ", exitCode=" + exitCode + ", output=" + output
-				+ ", error=" + error + "]";
+				+ ", error=" + error + ", wallTime=" + wallTime + ", cpuTime=" + cpuTime + ", outputSize="
+				+ outputSize + ", peakOutputSize=" + peakOutputSize + "]";
 	}
 
 }
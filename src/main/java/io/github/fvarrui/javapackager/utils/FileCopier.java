@@ -0,0 +1,282 @@
+package io.github.fvarrui.javapackager.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.SystemUtils;
+
+import io.github.fvarrui.javapackager.model.StagingMode;
+
+/**
+ * In-process files and folders copier, preserving POSIX permissions, last
+ * modified times and symbolic links. Folder trees are copied in parallel, one
+ * fork-join task per folder.
+ * 
+ * In {@link StagingMode#link} mode, files are hard linked instead of copied when possible.
+ * Hard links share the data with their source, so they can be disabled for files
+ * which are modified once staged. Otherwise, folder trees are cloned (copy-on-write) into
+ * new folders if the filesystem supports it, which is checked once per filesystem.
+ */
+public class FileCopier {
+
+	private static final Map<FileStore, Boolean> CLONE_SUPPORT = new ConcurrentHashMap<>();
+
+	private final boolean overwrite;
+	private final StagingMode mode;
+	private final boolean hardLinks;
+
+	/**
+	 * @param overwrite Overwrites existing destination files
+	 */
+	public FileCopier(boolean overwrite) {
+		this(overwrite, StagingMode.copy);
+	}
+
+	/**
+	 * @param overwrite Overwrites existing destination files
+	 * @param mode      Staging mode
+	 */
+	public FileCopier(boolean overwrite, StagingMode mode) {
+		this(overwrite, mode, true);
+	}
+
+	/**
+	 * @param overwrite Overwrites existing destination files
+	 * @param mode      Staging mode
+	 * @param hardLinks Hard links files in link mode, otherwise they are only cloned or copied
+	 */
+	public FileCopier(boolean overwrite, StagingMode mode, boolean hardLinks) {
+		super();
+		this.overwrite = overwrite;
+		this.mode = mode != null ? mode : StagingMode.copy;
+		this.hardLinks = hardLinks;
+	}
+
+	/**
+	 * Copies a file, a symbolic link or a whole folder tree
+	 *
+	 * @param source Source file or folder
+	 * @param dest   Destination file or folder
+	 * @throws IOException Something could not be copied
+	 */
+	public void copy(Path source, Path dest) throws IOException {
+		if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+			copyFolderContent(source, dest);
+		} else {
+			if (dest.getParent() != null) Files.createDirectories(dest.getParent());
+			copyEntry(source, dest);
+		}
+	}
+
+	/**
+	 * Copies all the content of a folder into another one, creating it if it
+	 * doesn't exist
+	 *
+	 * @param source Source folder
+	 * @param dest   Destination folder
+	 * @throws IOException Something could not be copied
+	 */
+	public void copyFolderContent(Path source, Path dest) throws IOException {
+		if (mode == StagingMode.link && !hardLinks && isEmptyFolder(dest) && cloneFolderContent(source, dest)) {
+			return;
+		}
+		try {
+			ForkJoinPool.commonPool().invoke(new CopyFolderTask(source, dest));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Copies a regular file or a symbolic link, but not folders
+	 */
+	private void copyEntry(Path source, Path dest) throws IOException {
+		if (Files.exists(dest, LinkOption.NOFOLLOW_LINKS)) {
+			if (!overwrite) return;
+			Files.delete(dest);
+		}
+		if (Files.isSymbolicLink(source)) {
+			Files.createSymbolicLink(dest, Files.readSymbolicLink(source));
+			return;
+		}
+		if (mode == StagingMode.link && hardLinks) {
+			try {
+				Files.createLink(dest, source);
+				return;
+			} catch (IOException | UnsupportedOperationException e) {
+				// e.g. different filesystems, so the file is copied
+			}
+		}
+		try (
+			FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+			FileChannel out = FileChannel.open(dest, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)
+		) {
+			long size = in.size();
+			long position = 0;
+			while (position < size) {
+				position += in.transferTo(position, size - position, out);
+			}
+		}
+		copyAttributes(source, dest);
+	}
+
+	/**
+	 * Clones a folder content into an empty folder using copy-on-write (reflink on Linux,
+	 * clonefile on Mac OS), so no data is duplicated until files are modified
+	 * 
+	 * @return true if the folder was cloned, false if the filesystem doesn't support it
+	 */
+	private static boolean cloneFolderContent(Path source, Path dest) throws IOException {
+		String cloneOption = getCloneOption();
+		if (cloneOption == null) return false;
+		Files.createDirectories(dest);
+		if (!canClone(source, dest, cloneOption)) return false;
+		if (clone(source.toAbsolutePath() + "/.", dest, cloneOption)) return true;
+		// cp may leave empty files behind, which would be taken as copied
+		org.apache.commons.io.FileUtils.cleanDirectory(dest.toFile());
+		return false;
+	}
+
+	/**
+	 * Checks if files can be cloned from a folder to another one, cloning a probe file
+	 * the first time for every filesystem
+	 */
+	private static boolean canClone(Path source, Path dest, String cloneOption) throws IOException {
+		FileStore store = Files.getFileStore(dest);
+		if (!store.equals(Files.getFileStore(source))) return false;
+		Boolean supported = CLONE_SUPPORT.get(store);
+		if (supported == null) {
+			Path probe = Files.createTempFile(dest, ".clone", ".probe");
+			Path clone = dest.resolve(probe.getFileName() + ".clone");
+			try {
+				Files.write(probe, new byte[] { 0 });
+				supported = clone(probe.toString(), clone, cloneOption);
+			} finally {
+				Files.deleteIfExists(probe);
+				Files.deleteIfExists(clone);
+			}
+			CLONE_SUPPORT.put(store, supported);
+			if (!supported) Logger.debug("Files can't be cloned on " + store + ", they'll be copied");
+		}
+		return supported;
+	}
+
+	private static String getCloneOption() {
+		if (SystemUtils.IS_OS_LINUX) return "--reflink=always";
+		if (SystemUtils.IS_OS_MAC) return "-c";
+		return null;
+	}
+
+	/**
+	 * Clones files with cp
+	 * 
+	 * @return true if cloned
+	 */
+	private static boolean clone(String source, Path dest, String cloneOption) {
+		try {
+			Process process = new ProcessBuilder("cp", "-R", "-p", cloneOption, source, dest.toAbsolutePath().toString())
+					.redirectErrorStream(true)
+					.start();
+			try (InputStream output = process.getInputStream()) {
+				String message = IOUtils.toString(output, Charset.defaultCharset()).trim();
+				if (process.waitFor() == 0) {
+					return true;
+				}
+				Logger.debug(source + " could not be cloned: " + message);
+			}
+		} catch (IOException e) {
+			Logger.debug(source + " could not be cloned: " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return false;
+	}
+
+	private static boolean isEmptyFolder(Path folder) throws IOException {
+		if (!Files.exists(folder, LinkOption.NOFOLLOW_LINKS)) return true;
+		if (!Files.isDirectory(folder, LinkOption.NOFOLLOW_LINKS)) return false;
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(folder)) {
+			return !entries.iterator().hasNext();
+		}
+	}
+
+	private static void copyAttributes(Path source, Path dest) throws IOException {
+		PosixFileAttributeView view = Files.getFileAttributeView(source, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+		if (view != null) {
+			PosixFileAttributes attributes = view.readAttributes();
+			Files.setPosixFilePermissions(dest, attributes.permissions());
+			Files.setLastModifiedTime(dest, attributes.lastModifiedTime());
+		} else {
+			BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+			FileTime lastModifiedTime = attributes.lastModifiedTime();
+			Files.setLastModifiedTime(dest, lastModifiedTime);
+			dest.toFile().setExecutable(source.toFile().canExecute(), false);
+		}
+	}
+
+	/**
+	 * Copies a folder content, forking a new task for every subfolder
+	 */
+	private class CopyFolderTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Path source;
+		private final Path dest;
+
+		public CopyFolderTask(Path source, Path dest) {
+			this.source = source;
+			this.dest = dest;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				try {
+					Files.createDirectories(dest);
+				} catch (FileAlreadyExistsException e) {
+					throw new IOException("Destination folder " + dest + " is not a directory", e);
+				}
+				List<CopyFolderTask> subtasks = new ArrayList<>();
+				try (DirectoryStream<Path> entries = Files.newDirectoryStream(source)) {
+					for (Path entry : entries) {
+						Path target = dest.resolve(entry.getFileName().toString());
+						if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+							subtasks.add(new CopyFolderTask(entry, target));
+						} else {
+							copyEntry(entry, target);
+						}
+					}
+				}
+				invokeAll(subtasks);
+				// folder attributes are set once its content has been copied
+				copyAttributes(source, dest);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+	}
+
+}
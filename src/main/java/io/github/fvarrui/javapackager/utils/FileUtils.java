@@ -1,6 +1,5 @@
 package io.github.fvarrui.javapackager.utils;
 
-import static org.apache.commons.io.FileUtils.copyDirectoryToDirectory;
 import static org.apache.commons.io.FileUtils.copyFile;
 import static org.apache.commons.io.FileUtils.copyInputStreamToFile;
 import static org.apache.commons.io.FileUtils.deleteDirectory;
@@ -14,11 +13,14 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigInteger;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
@@ -28,7 +30,7 @@ import java.util.stream.Collectors;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import io.github.fvarrui.javapackager.model.Platform;
+import io.github.fvarrui.javapackager.model.StagingMode;
 
 /**
  * Common files and folders utils
@@ -84,15 +86,23 @@ public class FileUtils {
 	}
 	
 	public static void copyFileToFolder(File source, File destFolder, boolean overwrite) throws Exception {
+		copyFileToFolder(source, destFolder, overwrite, StagingMode.copy);
+	}
+	
+	/**
+	 * Copies or links a file inside an existing folder
+	 * @param source File to be copied
+	 * @param destFolder Destination folder
+	 * @param overwrite Overwrites the destination file if it already exists
+	 * @param mode Staging mode
+	 * @throws Exception If the file cannot be copied
+	 */
+	public static void copyFileToFolder(File source, File destFolder, boolean overwrite, StagingMode mode) throws Exception {
 		Logger.info("Copying file [" + source + "] to folder [" + destFolder + "]");
 		File destFile = new File(destFolder, source.getName());
 		if (destFile.exists() && !overwrite) return;
 		try {
-			if (Platform.windows.isCurrentPlatform())
-				Files.copy(source.toPath(), destFile.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
-			else {
-				CommandUtils.execute("cp", source, destFile);
-			}			
+			new FileCopier(overwrite, mode).copy(source.toPath(), destFile.toPath());
 		} catch (IOException e) {
 			throw new Exception(e.getMessage(), e);
 		}
@@ -121,29 +131,67 @@ public class FileUtils {
 	}
 	
 	public static void copyFolderToFolder(File from, File to) throws Exception {
+		copyFolderToFolder(from, to, StagingMode.copy);
+	}
+	
+	/**
+	 * Copies or links a folder inside another one
+	 * @param from Source folder
+	 * @param to Destination folder
+	 * @param mode Staging mode
+	 * @throws Exception If the folder cannot be copied
+	 */
+	public static void copyFolderToFolder(File from, File to, StagingMode mode) throws Exception {
 		Logger.info("Copying folder [" + from + "] to folder [" + to + "]");
 		if (!from.isDirectory()) throw new Exception("Source folder " + from + " is not a directory");
 		try {
-			if (Platform.windows.isCurrentPlatform())
-				copyDirectoryToDirectory(from, to);
-			else {
-				CommandUtils.execute("cp", "-R", from, to);
-			}
+			new FileCopier(true, mode).copyFolderContent(from.toPath(), new File(to, from.getName()).toPath());
 		} catch (IOException e) {
 			throw new Exception(e.getMessage(), e);
 		}
 	}
 	
 	public static void copyFolderContentToFolder(File from, File to) throws Exception {
+		copyFolderContentToFolder(from, to, StagingMode.copy);
+	}
+	
+	/**
+	 * Copies or links a folder content inside another folder
+	 * @param from Source folder
+	 * @param to Destination folder
+	 * @param mode Staging mode
+	 * @throws Exception If the folder content cannot be copied
+	 */
+	public static void copyFolderContentToFolder(File from, File to, StagingMode mode) throws Exception {
+		Logger.info("Copying folder content [" + from + "] to folder [" + to + "]");
+		if (!from.isDirectory()) throw new Exception("Source folder " + from + " is not a directory");
+		if (!to.exists()) to.mkdirs();
+		else if (!to.isDirectory()) throw new Exception("Destination folder " + to + " is not a directory");
+		try {
+			new FileCopier(true, mode).copyFolderContent(from.toPath(), to.toPath());
+		} catch (IOException e) {
+			throw new Exception(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Copies a folder content inside another folder, to be modified once copied. In link
+	 * mode it's cloned if the filesystem supports it, but never hard linked, so changes
+	 * don't write through to the source
+	 * @param from Source folder
+	 * @param to Destination folder
+	 * @param mode Staging mode
+	 * @throws Exception If the folder content cannot be copied
+	 */
+	public static void cloneFolderContentToFolder(File from, File to, StagingMode mode) throws Exception {
 		Logger.info("Copying folder content [" + from + "] to folder [" + to + "]");
 		if (!from.isDirectory()) throw new Exception("Source folder " + from + " is not a directory");
 		if (!to.exists()) to.mkdirs();
 		else if (!to.isDirectory()) throw new Exception("Destination folder " + to + " is not a directory");
-		for (File file : from.listFiles()) {
-			if (file.isDirectory())
-				copyFolderToFolder(file, to);
-			else
-				copyFileToFolder(file, to);
+		try {
+			new FileCopier(true, mode, false).copyFolderContent(from.toPath(), to.toPath());
+		} catch (IOException e) {
+			throw new Exception(e.getMessage(), e);
 		}
 	}
 
@@ -326,5 +374,65 @@ public class FileUtils {
 	public static boolean folderContainsFile(File folder, String filename) {
 		return new File(folder, filename).exists();
 	}
+	
+	/**
+	 * Lists the files in a folder sorted by name, so the order doesn't depend on the filesystem
+	 * @param folder Folder
+	 * @return Sorted files, or an empty array if folder cannot be listed
+	 */
+	public static File [] listSortedFiles(File folder) {
+		File [] files = folder.listFiles();
+		if (files == null) return new File[0];
+		Arrays.sort(files);
+		return files;
+	}
+
+	/**
+	 * Checks if a file is the same as a folder or is nested inside it
+	 * @param file File
+	 * @param folder Folder
+	 * @return true if file is the folder itself or any of its descendants
+	 */
+	public static boolean isSameOrNested(File file, File folder) {
+		Path filePath = file.getAbsoluteFile().toPath().normalize();
+		Path folderPath = folder.getAbsoluteFile().toPath().normalize();
+		return filePath.startsWith(folderPath);
+	}
+
+	/**
+	 * Calculates the SHA-256 digest of a file
+	 * @param file File
+	 * @return Hex encoded SHA-256 digest
+	 * @throws IOException If the file cannot be read
+	 */
+	public static String sha256(File file) throws IOException {
+		MessageDigest digest = sha256Digest();
+		try (InputStream input = new DigestInputStream(new FileInputStream(file), digest)) {
+			byte[] buffer = new byte[8192];
+			while (input.read(buffer) != -1);
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Calculates the SHA-256 digest of a string
+	 * @param text Text
+	 * @return Hex encoded SHA-256 digest
+	 */
+	public static String sha256(String text) {
+		return toHex(sha256Digest().digest(text.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static MessageDigest sha256Digest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not supported", e);
+		}
+	}
+
+	private static String toHex(byte[] digest) {
+		return String.format("%0" + (digest.length * 2) + "x", new BigInteger(1, digest));
+	}
 
 }
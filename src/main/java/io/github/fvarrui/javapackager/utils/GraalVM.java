@@ -43,21 +43,45 @@ public class GraalVM {
         return nativeImage;
     }
 
-    public File generateNativeImage(Platform platform, File outputDirectory) throws IOException, CommandLineException {
-        guInstall("native-image");
-        // TODO install other platform dependent dependencies here
-
-        File jarFile = null;
-        for (File file : outputDirectory.listFiles()) {
+    /**
+     * Finds the runnable jar (the one ending with "shaded.jar", "all.jar" or "dependencies.jar")
+     * in the output directory.
+     *
+     * @return the found jar or null
+     */
+    public static File findJar(File outputDirectory) {
+        File[] files = outputDirectory.listFiles();
+        if (files == null) return null;
+        for (File file : files) {
             if(file.getName().endsWith("shaded.jar") || file.getName().endsWith("all.jar") || file.getName().endsWith("dependencies.jar")){
-                jarFile = file;
-                break;
+                return file;
             }
         }
+        return null;
+    }
+
+    public static String getNativeImageName(Platform platform, File jarFile) {
+        return jarFile.getName().replace(".jar", "") + (platform == Platform.windows ? ".exe" : "");
+    }
+
+    public static String getSharedLibraryName(Platform platform, File jarFile) {
+        return jarFile.getName() + (platform == Platform.windows ? ".dll" : ".so");
+    }
+
+    private File getJar(File outputDirectory) throws FileNotFoundException {
+        File jarFile = findJar(outputDirectory);
         if(jarFile==null || !jarFile.exists())
             throw new FileNotFoundException("File ending with \"shaded.jar\" or \"all.jar\" or \"dependencies.jar\"" +
                     " not found inside: "+outputDirectory);
-        String outputExeName = jarFile.getName().replace(".jar", "") + (platform == Platform.windows ? ".exe" : "");
+        return jarFile;
+    }
+
+    public File generateNativeImage(Platform platform, File outputDirectory) throws IOException, CommandLineException {
+        guInstall("native-image");
+        // TODO install other platform dependent dependencies here
+
+        File jarFile = getJar(outputDirectory);
+        String outputExeName = getNativeImageName(platform, jarFile);
         CommandUtils.executeWithResult(outputDirectory, // working dir = output dir
                 getNativeImageExe().toString(),  "-jar", jarFile, outputExeName);
         return new File(outputDirectory+"/"+outputExeName);
@@ -67,18 +91,9 @@ public class GraalVM {
         guInstall("native-image");
         // TODO install other platform dependent dependencies here
 
-        File jarFile = null;
-        for (File file : outputDirectory.listFiles()) {
-            if(file.getName().endsWith("shaded.jar") || file.getName().endsWith("all.jar") || file.getName().endsWith("dependencies.jar")){
-                jarFile = file;
-                break;
-            }
-        }
-        if(jarFile==null || !jarFile.exists())
-            throw new FileNotFoundException("File ending with \"shaded.jar\" or \"all.jar\" or \"dependencies.jar\"" +
-                    " not found inside: "+outputDirectory);
+        File jarFile = getJar(outputDirectory);
         CommandUtils.executeWithResult(outputDirectory, // working dir = output dir
                 getNativeImageExe().toString(),  "-jar", jarFile, jarFile.getName(), "--shared");
-        return new File(outputDirectory+"/"+jarFile.getName() + (platform == Platform.windows ? ".dll" : ".so"));
+        return new File(outputDirectory+"/"+getSharedLibraryName(platform, jarFile));
     }
 }
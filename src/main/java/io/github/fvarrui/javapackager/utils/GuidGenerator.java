@@ -0,0 +1,47 @@
+package io.github.fvarrui.javapackager.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Generates GUIDs for templates. On reproducible builds, GUIDs are derived from a namespace (e.g.
+ * the rendered file name) and a name, so the same inputs always get the same GUIDs.
+ */
+public class GuidGenerator {
+
+	private final String namespace;
+	private final boolean reproducible;
+	private int sequence = 0;
+
+	/**
+	 * @param namespace    Namespace for the GUIDs derived from names
+	 * @param reproducible Derive GUIDs from names instead of generating random ones
+	 */
+	public GuidGenerator(String namespace, boolean reproducible) {
+		super();
+		this.namespace = namespace;
+		this.reproducible = reproducible;
+	}
+
+	/**
+	 * Gets a GUID which identifies something by its name (e.g. a file path)
+	 *
+	 * @param name Name
+	 * @return Name-based GUID on reproducible builds, random GUID otherwise
+	 */
+	public UUID forName(String name) {
+		if (!reproducible) return UUID.randomUUID();
+		return UUID.nameUUIDFromBytes((namespace + ":" + name).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Gets a new GUID. Kept for templates which used {@link UUID#randomUUID()}
+	 *
+	 * @return GUID derived from the number of GUIDs generated so far on reproducible builds,
+	 *         random GUID otherwise
+	 */
+	public UUID randomUUID() {
+		return forName("#" + (++sequence));
+	}
+
+}
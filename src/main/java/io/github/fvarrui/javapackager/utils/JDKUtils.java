@@ -34,6 +34,19 @@ public class JDKUtils {
 		return propertiesMap;
 	}
 
+	/**
+	 * Gets the SHA-256 digest of the "release" file from specified JDK or JRE,
+	 * which identifies its exact build
+	 * 
+	 * @param jdkPath JDK directory path
+	 * @return Hex encoded digest, or null if there's no "release" file
+	 * @throws IOException release file could not be read
+	 */
+	public static String getReleaseDigest(File jdkPath) throws IOException {
+		File releaseFile = new File(jdkPath, "release");
+		return releaseFile.exists() ? FileUtils.sha256(releaseFile) : null;
+	}
+
 	/**
 	 * Checks if the platform specified in the "release" file matches the required
 	 * platform
@@ -0,0 +1,60 @@
+package io.github.fvarrui.javapackager.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * On-disk cache of the modules a jar depends on, as found by jdeps. Entries are
+ * stored in JavaPackager's temp folder, in files named after the hash of the jar
+ * content and everything else the analysis depends on (JDK, options, ...).
+ */
+public class JdepsCache {
+
+	private final File cacheFolder;
+
+	public JdepsCache() {
+		this(new File(NativeUtils.getUserTempFolder(), "jdeps"));
+	}
+
+	/**
+	 * @param cacheFolder Folder where analysis results are stored
+	 */
+	public JdepsCache(File cacheFolder) {
+		super();
+		this.cacheFolder = cacheFolder;
+	}
+
+	/**
+	 * Gets cached modules
+	 *
+	 * @param key Hash of the jar and analysis options
+	 * @return Modules, or null if not cached
+	 * @throws IOException Cache entry could not be read
+	 */
+	public List<String> get(String key) throws IOException {
+		File entry = new File(cacheFolder, key);
+		if (!entry.isFile()) return null;
+		return Files.readAllLines(entry.toPath(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Caches modules
+	 *
+	 * @param key     Hash of the jar and analysis options
+	 * @param modules Modules the jar depends on
+	 * @throws IOException Cache entry could not be written
+	 */
+	public void put(String key, List<String> modules) throws IOException {
+		FileUtils.mkdir(cacheFolder);
+		// written aside and renamed, so a half written entry is never read
+		File tempFile = new File(cacheFolder, key + "." + UUID.randomUUID() + ".tmp");
+		Files.write(tempFile.toPath(), modules, StandardCharsets.UTF_8);
+		Files.move(tempFile.toPath(), new File(cacheFolder, key).toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+}
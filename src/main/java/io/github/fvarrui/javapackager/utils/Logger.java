@@ -1,80 +1,215 @@
 package io.github.fvarrui.javapackager.utils;
 
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
 import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.logging.Log;
 
+import io.github.fvarrui.javapackager.gradle.GradleContext;
+import io.github.fvarrui.javapackager.maven.MavenContext;
 import io.github.fvarrui.javapackager.packagers.Context;
 
 /**
- * Logging class 
+ * Logging class. <br>
+ * Indentation and prefix are kept per thread, so concurrent packaging tasks don't mess up each
+ * other's indentation. Messages are handed off to the Maven/Gradle logger by a single background
+ * thread, in the order they were logged, so the threads logging them don't wait for the console.
  */
 public class Logger {
-	
-	private static final String TAB = "    "; // uses four blank spaces as tab 
-	
-	private static int tabs = 0;
-	
+
+	private static final String TAB = "    "; // uses four blank spaces as tab
+	private static final String [] INDENTS = new String[16];
+
+	static {
+		for (int i = 0; i < INDENTS.length; i++) {
+			INDENTS[i] = StringUtils.repeat(TAB, i);
+		}
+	}
+
+	private enum Level { ERROR, WARN, INFO, DEBUG }
+
+	/**
+	 * Per thread logging state
+	 */
+	private static class State {
+		private int tabs = 0;
+		private String prefix = "";
+	}
+
+	private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+	private static final BlockingQueue<Runnable> QUEUE = new LinkedBlockingQueue<>();
+	private static volatile Thread writer;
+
 	public static String error(String error) {
-		if (Context.isMaven()) Context.getMavenContext().getLogger().error(StringUtils.repeat(TAB, tabs) + error);
-		if (Context.isGradle()) Context.getGradleContext().getLogger().error(StringUtils.repeat(TAB, tabs) + error);
+		log(Level.ERROR, error, null);
 		return error;
 	}
 
 	public static String error(String error, Throwable t) {
-		if (Context.isMaven()) {
-			Context.getMavenContext().getLogger().error(StringUtils.repeat(TAB, tabs) + error);
-			Context.getMavenContext().getLogger().error(t);
-		}
-		if (Context.isGradle()) {
-			Context.getGradleContext().getLogger().error(StringUtils.repeat(TAB, tabs) + error, t);
-		}
+		log(Level.ERROR, error, t);
 		return error;
 	}
 
 	public static String warn(String warn) {
-		if (Context.isMaven()) Context.getMavenContext().getLogger().warn(StringUtils.repeat(TAB, tabs) + warn);
-		if (Context.isGradle()) Context.getGradleContext().getLogger().warn(StringUtils.repeat(TAB, tabs) + warn);
+		log(Level.WARN, warn, null);
 		return warn;
 	}
 
 	public static String info(String info) {
-		if (Context.isMaven()) Context.getMavenContext().getLogger().info(StringUtils.repeat(TAB, tabs) + info);
-		if (Context.isGradle()) Context.getGradleContext().getLogger().quiet(StringUtils.repeat(TAB, tabs) + info);
+		log(Level.INFO, info, null);
 		return info;
 	}
-	
+
 	public static String debug(String debug) {
-		if (Context.isMaven()) Context.getMavenContext().getLogger().debug(StringUtils.repeat(TAB, tabs) + debug);
-		if (Context.isGradle()) Context.getGradleContext().getLogger().debug(StringUtils.repeat(TAB, tabs) + debug);
+		if (isDebugEnabled()) log(Level.DEBUG, debug, null);
 		return debug;
 	}
 
+	/**
+	 * Logs a debug message, only building it if debug is enabled
+	 * @param debug Debug message supplier
+	 */
+	public static void debug(Supplier<String> debug) {
+		if (isDebugEnabled()) log(Level.DEBUG, debug.get(), null);
+	}
+
+	/**
+	 * Checks if debug messages are logged, so they are not built for nothing
+	 * @return true if debug is enabled in Maven/Gradle
+	 */
+	public static boolean isDebugEnabled() {
+		if (Context.isMaven()) return Context.getMavenContext().getLogger().isDebugEnabled();
+		if (Context.isGradle()) return Context.getGradleContext().getLogger().isDebugEnabled();
+		return false;
+	}
+
 	public static void infoIndent(String msg) {
 		info(msg);
-		tabs++;
+		STATE.get().tabs++;
 	}
-	
+
 	public static void infoUnindent(String msg) {
-		tabs--;
+		unindent();
 		info(msg);
 		info("");
 	}
-	
+
 	public static void warnUnindent(String msg) {
-		tabs--;
+		unindent();
 		warn(msg);
 		info("");
 	}
 
 	public static void errorUnindent(String msg) {
-		tabs--;
+		unindent();
 		error(msg);
 		info("");
 	}
-	
+
 	public static void errorUnindent(String msg, Throwable t) {
-		tabs--;
+		unindent();
 		error(msg, t);
-		info(""); 
+		info("");
+	}
+
+	/**
+	 * Gets the indentation of the current thread, to continue it in other threads
+	 * @return Number of tabs
+	 */
+	public static int getTabs() {
+		return STATE.get().tabs;
+	}
+
+	/**
+	 * Sets the indentation of the current thread
+	 * @param tabs Number of tabs
+	 */
+	public static void setTabs(int tabs) {
+		STATE.get().tabs = Math.max(0, tabs);
+	}
+
+	/**
+	 * Sets a prefix for the messages logged by the current thread (e.g. the name of the artifact
+	 * being generated), so concurrent tasks can be told apart
+	 * @param prefix Prefix, or null to remove it
+	 */
+	public static void setPrefix(String prefix) {
+		STATE.get().prefix = StringUtils.isBlank(prefix) ? "" : prefix + " ";
+	}
+
+	/**
+	 * Waits until all the messages logged so far have been written to Maven/Gradle logger
+	 */
+	public static void flush() {
+		if (writer == null || Thread.currentThread() == writer) return;
+		CountDownLatch latch = new CountDownLatch(1);
+		QUEUE.add(latch::countDown);
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
 	}
-	
+
+	private static void unindent() {
+		State state = STATE.get();
+		state.tabs = Math.max(0, state.tabs - 1);
+	}
+
+	private static void log(Level level, String message, Throwable t) {
+		// the context is taken now, as it could change before the message is written
+		Context<?> context = Context.getContext();
+		if (context == null) return;
+		State state = STATE.get();
+		String indent = state.tabs < INDENTS.length ? INDENTS[state.tabs] : StringUtils.repeat(TAB, state.tabs);
+		String line = indent + state.prefix + message;
+		if (writer == null) startWriter();
+		QUEUE.add(() -> write(context, level, line, t));
+	}
+
+	private static void write(Context<?> context, Level level, String line, Throwable t) {
+		if (context instanceof MavenContext) {
+			Log log = ((MavenContext) context).getLogger();
+			switch (level) {
+			case ERROR:
+				log.error(line);
+				if (t != null) log.error(t);
+				break;
+			case WARN: log.warn(line); break;
+			case INFO: log.info(line); break;
+			case DEBUG: log.debug(line); break;
+			}
+		} else if (context instanceof GradleContext) {
+			org.gradle.api.logging.Logger log = ((GradleContext) context).getLogger();
+			switch (level) {
+			case ERROR:
+				if (t != null) log.error(line, t); else log.error(line);
+				break;
+			case WARN: log.warn(line); break;
+			case INFO: log.quiet(line); break;
+			case DEBUG: log.debug(line); break;
+			}
+		}
+	}
+
+	private static synchronized void startWriter() {
+		if (writer != null) return;
+		writer = new Thread(() -> {
+			while (true) {
+				try {
+					QUEUE.take().run();
+				} catch (InterruptedException e) {
+					return;
+				} catch (RuntimeException e) {
+					// a failing logger must not stop the next messages
+				}
+			}
+		}, "javapackager-logger");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
 }
@@ -0,0 +1,62 @@
+package io.github.fvarrui.javapackager.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Keeps the last lines printed by a command, up to a max number of characters
+ */
+class OutputBuffer {
+
+	private final int maxSize;
+	private final Deque<String> lines = new ArrayDeque<>();
+	private long size = 0;
+	private long peakSize = 0;
+	private long totalSize = 0;
+	private long dropped = 0;
+
+	OutputBuffer(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	synchronized void append(String line) {
+		String entry = line + "\n";
+		lines.addLast(entry);
+		size += entry.length();
+		totalSize += entry.length();
+		while (size > maxSize && !lines.isEmpty()) {
+			size -= lines.removeFirst().length();
+			dropped++;
+		}
+		peakSize = Math.max(peakSize, size);
+	}
+
+	/**
+	 * Max number of characters kept at once
+	 */
+	synchronized long getPeakSize() {
+		return peakSize;
+	}
+
+	/**
+	 * Number of characters appended, including dropped ones
+	 */
+	synchronized long getTotalSize() {
+		return totalSize;
+	}
+
+	/**
+	 * Number of lines dropped to keep the buffer under its max size
+	 */
+	synchronized long getDropped() {
+		return dropped;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder builder = new StringBuilder((int) size);
+		lines.forEach(builder::append);
+		return builder.toString();
+	}
+
+}
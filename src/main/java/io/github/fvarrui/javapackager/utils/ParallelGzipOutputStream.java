@@ -0,0 +1,174 @@
+package io.github.fvarrui.javapackager.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * GZIP output stream compressing blocks of data in parallel, the same way pigz does. <br>
+ * Data is split in 128 KB blocks, and each block is deflated on its own thread, using the last
+ * 32 KB of the previous block as dictionary (so the ratio is nearly the same as compressing
+ * everything at once). Compressed blocks are written in order, ending all but the last one
+ * with a sync flush, so the result is a single standard gzip member.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+	private static final int BLOCK_SIZE = 128 * 1024;
+	private static final int DICTIONARY_SIZE = 32 * 1024;
+
+	private final OutputStream out;
+	private final int level;
+	private final int maxPending;
+	private final ExecutorService executor;
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+	private final CRC32 crc = new CRC32();
+
+	private byte[] block = new byte[BLOCK_SIZE];
+	private int blockLength = 0;
+	private byte[] dictionary = null;
+	private long size = 0;
+	private boolean closed = false;
+
+	/**
+	 * Creates a stream using all available processors and default compression level
+	 *
+	 * @param out Output stream
+	 * @throws IOException Header could not be written
+	 */
+	public ParallelGzipOutputStream(OutputStream out) throws IOException {
+		this(out, Deflater.DEFAULT_COMPRESSION, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param out     Output stream
+	 * @param level   Compression level (0-9, or -1 for default)
+	 * @param threads Number of threads compressing blocks
+	 * @throws IOException Header could not be written
+	 */
+	public ParallelGzipOutputStream(OutputStream out, int level, int threads) throws IOException {
+		this.out = out;
+		this.level = level;
+		this.maxPending = Math.max(1, threads) * 2;
+		this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+			Thread thread = new Thread(runnable, "gzip-block");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// header: no file name, no modification time, unknown OS
+		out.write(new byte[] { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff });
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (closed) throw new IOException("Stream closed");
+		crc.update(b, off, len);
+		size += len;
+		while (len > 0) {
+			int n = Math.min(len, BLOCK_SIZE - blockLength);
+			System.arraycopy(b, off, block, blockLength, n);
+			blockLength += n;
+			off += n;
+			len -= n;
+			if (blockLength == BLOCK_SIZE) {
+				submit(false);
+			}
+		}
+	}
+
+	/**
+	 * Writes the trailer once all blocks are compressed, and closes the underlying stream
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+		closed = true;
+		try {
+			submit(true);
+			while (!pending.isEmpty()) {
+				writeNext();
+			}
+			writeInt((int) crc.getValue());
+			writeInt((int) size);
+		} finally {
+			executor.shutdownNow();
+			out.close();
+		}
+	}
+
+	private void submit(boolean last) throws IOException {
+		byte[] data = block;
+		int length = blockLength;
+		byte[] dict = dictionary;
+		pending.addLast(executor.submit(() -> deflate(data, length, dict, last)));
+		if (!last) {
+			dictionary = Arrays.copyOfRange(data, length - DICTIONARY_SIZE, length);
+			block = new byte[BLOCK_SIZE];
+			blockLength = 0;
+		}
+		while (pending.size() >= maxPending) {
+			writeNext();
+		}
+	}
+
+	private void writeNext() throws IOException {
+		try {
+			out.write(pending.removeFirst().get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while compressing");
+		} catch (ExecutionException e) {
+			throw new IOException("Block compression failed", e.getCause());
+		}
+	}
+
+	private byte[] deflate(byte[] data, int length, byte[] dict, boolean last) {
+		Deflater deflater = new Deflater(level, true);
+		try {
+			if (dict != null) {
+				deflater.setDictionary(dict);
+			}
+			deflater.setInput(data, 0, length);
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+			byte[] buffer = new byte[64 * 1024];
+			if (last) {
+				deflater.finish();
+				while (!deflater.finished()) {
+					compressed.write(buffer, 0, deflater.deflate(buffer));
+				}
+			} else {
+				// sync flush ends the block on a byte boundary, so the next one can be appended
+				int n;
+				do {
+					n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+					compressed.write(buffer, 0, n);
+				} while (n == buffer.length);
+			}
+			return compressed.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private void writeInt(int value) throws IOException {
+		out.write(value & 0xff);
+		out.write((value >> 8) & 0xff);
+		out.write((value >> 16) & 0xff);
+		out.write((value >> 24) & 0xff);
+	}
+
+}
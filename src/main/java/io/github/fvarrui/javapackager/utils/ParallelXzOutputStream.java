@@ -0,0 +1,177 @@
+package io.github.fvarrui.javapackager.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.UnsupportedOptionsException;
+import org.tukaani.xz.XZOutputStream;
+
+/**
+ * XZ output stream compressing blocks of data in parallel, the same way pixz does. <br>
+ * Data is split in blocks three times the dictionary size (like xz -T does, up to 32 MB), and each block is
+ * compressed as an independent xz stream on its own thread. Streams are written in order, and a
+ * sequence of concatenated xz streams is a valid xz file for xz tools and libraries. <br>
+ * As blocks are independent, the dictionary is never bigger than a block, and the number of threads
+ * is reduced if their encoders and blocks wouldn't fit in half of the free heap.
+ */
+public class ParallelXzOutputStream extends OutputStream {
+
+	private static final int MIN_BLOCK_SIZE = 1024 * 1024;
+	// a bigger block would need a bigger dictionary, and so several hundreds of MB per encoder
+	private static final int MAX_BLOCK_SIZE = 32 * 1024 * 1024;
+
+	private final OutputStream out;
+	private final int level;
+	private final int dictSize;
+	private final int blockSize;
+	private final int threads;
+	private final int maxPending;
+	private final ExecutorService executor;
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+	private byte[] block;
+	private int blockLength = 0;
+	private boolean closed = false;
+
+	/**
+	 * @param out     Output stream
+	 * @param level   Compression preset (0-9)
+	 * @param threads Number of threads compressing blocks
+	 * @throws IOException Unsupported compression level
+	 */
+	public ParallelXzOutputStream(OutputStream out, int level, int threads) throws IOException {
+		this.out = out;
+		this.level = level;
+		int presetDictSize = new LZMA2Options(level).getDictSize();
+		this.blockSize = Math.min(MAX_BLOCK_SIZE, Math.max(MIN_BLOCK_SIZE, 3 * presetDictSize));
+		// every block is an independent stream, so a dictionary bigger than the block is useless
+		this.dictSize = Math.min(presetDictSize, blockSize);
+
+		// every thread holds an encoder, the block being compressed and its output
+		long threadMemory = createOptions().getEncoderMemoryUsage() * 1024L + 2L * blockSize;
+		long availableMemory = (Runtime.getRuntime().maxMemory() - Runtime.getRuntime().totalMemory() + Runtime.getRuntime().freeMemory()) / 2;
+		int maxThreads = (int) Math.max(1, Math.min(Integer.MAX_VALUE, (availableMemory - 2L * blockSize) / threadMemory));
+		this.threads = Math.max(1, Math.min(threads, maxThreads));
+		if (this.threads < threads) {
+			Logger.warn("Compressing xz with " + this.threads + " threads instead of " + threads + ", as there's not enough memory for more");
+		}
+
+		// blocks are big, so only one is kept waiting besides the ones being compressed
+		this.maxPending = this.threads + 1;
+		this.executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+			Thread thread = new Thread(runnable, "xz-block");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.block = new byte[blockSize];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (closed) throw new IOException("Stream closed");
+		while (len > 0) {
+			int n = Math.min(len, blockSize - blockLength);
+			System.arraycopy(b, off, block, blockLength, n);
+			blockLength += n;
+			off += n;
+			len -= n;
+			if (blockLength == blockSize) {
+				submit();
+			}
+		}
+	}
+
+	/**
+	 * Waits until all blocks are compressed and written, and closes the underlying stream
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+		closed = true;
+		try {
+			// an empty input still needs one stream to be a valid xz file
+			if (blockLength > 0 || pending.isEmpty()) {
+				submit();
+			}
+			while (!pending.isEmpty()) {
+				writeNext();
+			}
+		} finally {
+			executor.shutdownNow();
+			out.close();
+		}
+	}
+
+	private void submit() throws IOException {
+		byte[] data = block;
+		int length = blockLength;
+		pending.addLast(executor.submit(() -> compress(data, length)));
+		block = closed ? null : new byte[blockSize];
+		blockLength = 0;
+		while (pending.size() >= maxPending) {
+			writeNext();
+		}
+	}
+
+	private void writeNext() throws IOException {
+		try {
+			out.write(pending.removeFirst().get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while compressing");
+		} catch (ExecutionException e) {
+			throw new IOException("Block compression failed", e.getCause());
+		}
+	}
+
+	private LZMA2Options createOptions() throws UnsupportedOptionsException {
+		LZMA2Options options = new LZMA2Options(level);
+		options.setDictSize(dictSize);
+		return options;
+	}
+
+	/**
+	 * @return Size of the blocks compressed on their own
+	 */
+	int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * @return Memory needed by every encoder, in bytes
+	 * @throws UnsupportedOptionsException Unsupported compression level
+	 */
+	long getEncoderMemoryUsage() throws UnsupportedOptionsException {
+		return createOptions().getEncoderMemoryUsage() * 1024L;
+	}
+
+	/**
+	 * @return Number of threads compressing blocks
+	 */
+	int getThreads() {
+		return threads;
+	}
+
+	private byte[] compress(byte[] data, int length) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4 + 64);
+		try (XZOutputStream xz = new XZOutputStream(compressed, createOptions())) {
+			xz.write(data, 0, length);
+		}
+		return compressed.toByteArray();
+	}
+
+}
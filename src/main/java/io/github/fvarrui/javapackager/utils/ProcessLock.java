@@ -0,0 +1,219 @@
+package io.github.fvarrui.javapackager.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive lock shared by all threads and processes (e.g. several Gradle workers
+ * or CI jobs on the same host) using the same lock file. Reentrant for the thread
+ * holding it.
+ *
+ * File locks are held on behalf of the whole JVM, so threads of the same JVM are
+ * coordinated with a reentrant lock per lock file too.
+ *
+ * Lock files can also be held shared (see {@link #holdShared(File)}) to tell other
+ * processes that something is in use (see {@link #isLocked(File)}).
+ *
+ * POSIX file locks belong to the whole process, and closing any channel on a file
+ * releases all the locks the JVM holds on it, so a single channel is kept open for
+ * each lock file and every lock on it is taken through that channel.
+ */
+public class ProcessLock implements AutoCloseable {
+
+	private static final Map<String, ReentrantLock> THREAD_LOCKS = new ConcurrentHashMap<>();
+	private static final Map<String, FileChannel> CHANNELS = new ConcurrentHashMap<>();
+	private static final Map<String, FileLock> FILE_LOCKS = new ConcurrentHashMap<>();
+	private static final Map<String, FileLock> SHARED_LOCKS = new ConcurrentHashMap<>();
+	private static final Map<String, Integer> SHARED_HOLDS = new ConcurrentHashMap<>();
+
+	private final String key;
+	private final ReentrantLock threadLock;
+
+	private ProcessLock(String key, ReentrantLock threadLock) {
+		this.key = key;
+		this.threadLock = threadLock;
+	}
+
+	/**
+	 * Acquires the lock, waiting for other threads or processes holding it
+	 *
+	 * @param lockFile Lock file (created if it doesn't exist)
+	 * @return Acquired lock, to be closed to release it
+	 * @throws IOException Lock file could not be locked
+	 */
+	public static ProcessLock lock(File lockFile) throws IOException {
+		String key = getKey(lockFile);
+		ReentrantLock threadLock = getThreadLock(key);
+		threadLock.lock();
+		if (threadLock.getHoldCount() > 1) {
+			return new ProcessLock(key, threadLock);
+		}
+		try {
+			FileChannel channel = getChannel(key, lockFile);
+			FileLock fileLock = channel.tryLock();
+			if (fileLock == null) {
+				Logger.info("Waiting for another process holding " + lockFile + " ...");
+				fileLock = channel.lock();
+			}
+			FILE_LOCKS.put(key, fileLock);
+			return new ProcessLock(key, threadLock);
+		} catch (IOException | RuntimeException e) {
+			threadLock.unlock();
+			throw e;
+		}
+	}
+
+	/**
+	 * Holds a shared lock on a lock file, waiting for any process holding it exclusively.
+	 * Holds are counted, so the shared lock is released once all the holds of this JVM
+	 * are closed.
+	 *
+	 * @param lockFile Lock file (created if it doesn't exist)
+	 * @return Hold, to be closed once the lock file isn't needed anymore
+	 * @throws IOException Lock file could not be locked
+	 */
+	public static SharedHold holdShared(File lockFile) throws IOException {
+		String key = getKey(lockFile);
+		ReentrantLock threadLock = getThreadLock(key);
+		threadLock.lock();
+		try {
+			if (!SHARED_LOCKS.containsKey(key)) {
+				SHARED_LOCKS.put(key, getChannel(key, lockFile).lock(0, Long.MAX_VALUE, true));
+			}
+			SHARED_HOLDS.merge(key, 1, Integer::sum);
+			return new SharedHold(key);
+		} finally {
+			threadLock.unlock();
+		}
+	}
+
+	/**
+	 * Checks if a lock file is locked by any thread or process
+	 *
+	 * @param lockFile Lock file
+	 * @return true if it's locked
+	 * @throws IOException Lock file could not be checked
+	 */
+	public static boolean isLocked(File lockFile) throws IOException {
+		String key = getKey(lockFile);
+		// locks held by this JVM are answered without touching the file
+		if (SHARED_LOCKS.containsKey(key) || FILE_LOCKS.containsKey(key)) return true;
+		ReentrantLock threadLock = getThreadLock(key);
+		if (!threadLock.tryLock()) return true;
+		try {
+			if (threadLock.getHoldCount() > 1 || SHARED_LOCKS.containsKey(key) || FILE_LOCKS.containsKey(key)) return true;
+			if (!lockFile.exists()) return false;
+			FileLock fileLock = getChannel(key, lockFile).tryLock();
+			if (fileLock == null) return true;
+			fileLock.release();
+			return false;
+		} catch (OverlappingFileLockException e) {
+			// locked by this JVM
+			return true;
+		} finally {
+			threadLock.unlock();
+		}
+	}
+
+	/**
+	 * Deletes a lock file, closing the channel kept open on it
+	 *
+	 * @param lockFile Lock file
+	 * @throws IOException Lock file is locked by this JVM or could not be deleted
+	 */
+	public static void delete(File lockFile) throws IOException {
+		String key = getKey(lockFile);
+		ReentrantLock threadLock = getThreadLock(key);
+		threadLock.lock();
+		try {
+			if (threadLock.getHoldCount() > 1 || SHARED_LOCKS.containsKey(key) || FILE_LOCKS.containsKey(key))
+				throw new IOException("Cannot delete " + lockFile + " because it's locked");
+			FileChannel channel = CHANNELS.remove(key);
+			if (channel != null) channel.close();
+			Files.deleteIfExists(lockFile.toPath());
+		} finally {
+			threadLock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the channel kept open on a lock file, opening it the first time. Must be called
+	 * holding the thread lock of the lock file.
+	 */
+	private static FileChannel getChannel(String key, File lockFile) throws IOException {
+		FileChannel channel = CHANNELS.get(key);
+		if (channel == null || !channel.isOpen()) {
+			Files.createDirectories(lockFile.getAbsoluteFile().getParentFile().toPath());
+			channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			CHANNELS.put(key, channel);
+		}
+		return channel;
+	}
+
+	private static ReentrantLock getThreadLock(String key) {
+		return THREAD_LOCKS.computeIfAbsent(key, k -> new ReentrantLock());
+	}
+
+	private static String getKey(File lockFile) {
+		return lockFile.getAbsoluteFile().toPath().normalize().toString();
+	}
+
+	/**
+	 * Shared hold on a lock file, released when closed
+	 */
+	public static class SharedHold implements AutoCloseable {
+
+		private final String key;
+		private boolean released;
+
+		private SharedHold(String key) {
+			this.key = key;
+		}
+
+		/**
+		 * Releases the hold, and the shared lock if it was the last one of this JVM
+		 */
+		@Override
+		public void close() throws IOException {
+			ReentrantLock threadLock = getThreadLock(key);
+			threadLock.lock();
+			try {
+				if (released) return;
+				released = true;
+				if (SHARED_HOLDS.merge(key, -1, Integer::sum) > 0) return;
+				SHARED_HOLDS.remove(key);
+				FileLock sharedLock = SHARED_LOCKS.remove(key);
+				// the channel is kept open, closing it would release exclusive locks too
+				if (sharedLock != null) sharedLock.release();
+			} finally {
+				threadLock.unlock();
+			}
+		}
+
+	}
+
+	/**
+	 * Releases the lock
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (threadLock.getHoldCount() == 1) {
+				FileLock fileLock = FILE_LOCKS.remove(key);
+				// the channel is kept open, closing it would release shared locks too
+				if (fileLock != null) fileLock.release();
+			}
+		} finally {
+			threadLock.unlock();
+		}
+	}
+
+}
@@ -0,0 +1,251 @@
+package io.github.fvarrui.javapackager.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Admits external tools (jlink, native-image, appimagetool, ...) to run, so the tools run at the
+ * same time by all packagers in the JVM don't use more CPU slots and memory than the budget. <br>
+ * Each tool has a weight (CPU slots and estimated memory). Tools which don't fit in what's left
+ * of the budget wait in arrival order until the running ones finish. A tool heavier than the
+ * whole budget runs alone.
+ */
+public class ProcessScheduler {
+
+	/**
+	 * Weight of a tool
+	 */
+	public static class Weight {
+
+		private final int slots;
+		private final long memory;
+
+		/**
+		 * @param slots  CPU slots used by the tool
+		 * @param memory Estimated memory used by the tool, in MB
+		 */
+		public Weight(int slots, long memory) {
+			this.slots = slots;
+			this.memory = memory;
+		}
+
+		public int getSlots() {
+			return slots;
+		}
+
+		public long getMemory() {
+			return memory;
+		}
+
+		@Override
+		public String toString() {
+			return slots + " slot(s), " + memory + "MB";
+		}
+
+	}
+
+	/**
+	 * Admission to run a tool, released when closed
+	 */
+	public static class Permit implements AutoCloseable {
+
+		private final Thread owner = Thread.currentThread();
+		private final int slots;
+		private final long memory;
+		private int admittedSlots;
+		private long admittedMemory;
+		private boolean released;
+
+		private Permit(int slots, long memory) {
+			this.slots = slots;
+			this.memory = memory;
+		}
+
+		@Override
+		public void close() {
+			release(this);
+		}
+
+	}
+
+	private static final Weight DEFAULT_WEIGHT = new Weight(1, 64);
+	private static final Map<String, Weight> WEIGHTS = new ConcurrentHashMap<>();
+
+	static {
+		WEIGHTS.put("native-image", new Weight(Integer.MAX_VALUE, 4096));
+		WEIGHTS.put("jlink", new Weight(1, 512));
+		WEIGHTS.put("jdeps", new Weight(1, 256));
+		WEIGHTS.put("appimagetool", new Weight(2, 256));
+		WEIGHTS.put("iscc", new Weight(1, 256));
+		WEIGHTS.put("candle", new Weight(1, 256));
+		WEIGHTS.put("light", new Weight(1, 256));
+		WEIGHTS.put("hdiutil", new Weight(1, 256));
+	}
+
+	private static final Object LOCK = new Object();
+	private static final Deque<Permit> QUEUE = new ArrayDeque<>();
+	private static final Map<Thread, Integer> HOLDERS = new HashMap<>();
+
+	private static int maxSlots = getAvailableSlots();
+	private static long maxMemory = getPhysicalMemory();
+	private static int usedSlots = 0;
+	private static long usedMemory = 0;
+
+	/**
+	 * Sets the budget shared by all the tools run in this JVM. While tools are running or waiting
+	 * (e.g. started by another packager in the same build) the budget can only be increased, so
+	 * the admitted tools never end up over the budget.
+	 *
+	 * @param slots  Max CPU slots (0 = number of available processors)
+	 * @param memory Max memory in MB (0 = physical memory, or unlimited if unknown)
+	 */
+	public static void configure(int slots, long memory) {
+		synchronized (LOCK) {
+			int newSlots = slots > 0 ? slots : getAvailableSlots();
+			long newMemory = memory > 0 ? memory : getPhysicalMemory();
+			if (HOLDERS.isEmpty() && QUEUE.isEmpty()) {
+				maxSlots = newSlots;
+				maxMemory = newMemory;
+			} else {
+				maxSlots = Math.max(maxSlots, newSlots);
+				maxMemory = maxMemory <= 0 || newMemory <= 0 ? 0 : Math.max(maxMemory, newMemory);
+			}
+			LOCK.notifyAll();
+		}
+	}
+
+	/**
+	 * @return Max CPU slots
+	 */
+	static int getMaxSlots() {
+		synchronized (LOCK) {
+			return maxSlots;
+		}
+	}
+
+	/**
+	 * @return Max memory in MB (0 = unlimited)
+	 */
+	static long getMaxMemory() {
+		synchronized (LOCK) {
+			return maxMemory;
+		}
+	}
+
+	/**
+	 * Sets the weight of a tool
+	 *
+	 * @param tool   Tool name (executable name without extension)
+	 * @param weight Weight
+	 */
+	public static void setWeight(String tool, Weight weight) {
+		WEIGHTS.put(tool.toLowerCase(), weight);
+	}
+
+	/**
+	 * Gets the weight of a tool
+	 *
+	 * @param executable Tool name or executable path
+	 * @return Weight
+	 */
+	public static Weight getWeight(String executable) {
+		String tool = FilenameUtils.getBaseName(executable.replace('\\', '/')).toLowerCase();
+		return WEIGHTS.getOrDefault(tool, DEFAULT_WEIGHT);
+	}
+
+	/**
+	 * Waits until a tool fits in the budget
+	 *
+	 * @param executable Tool name or executable path
+	 * @return Permit to release once the tool finishes
+	 * @throws InterruptedException Interrupted while waiting
+	 */
+	public static Permit acquire(String executable) throws InterruptedException {
+		Weight weight = getWeight(executable);
+		synchronized (LOCK) {
+			// tools run while already running another one (from the same thread) are admitted
+			// straight away, as the thread would otherwise wait for itself
+			if (HOLDERS.containsKey(Thread.currentThread())) {
+				HOLDERS.merge(Thread.currentThread(), 1, Integer::sum);
+				return new Permit(0, 0);
+			}
+			Permit permit = new Permit(weight.getSlots(), weight.getMemory());
+			QUEUE.addLast(permit);
+			try {
+				boolean logged = false;
+				while (QUEUE.peekFirst() != permit || !fits(permit)) {
+					if (!logged) {
+						Logger.info("Waiting for other tools to finish before running " + FilenameUtils.getName(executable) + " (" + weight + ") ...");
+						logged = true;
+					}
+					LOCK.wait();
+				}
+			} catch (InterruptedException e) {
+				QUEUE.remove(permit);
+				LOCK.notifyAll();
+				throw e;
+			}
+			QUEUE.removeFirst();
+			permit.admittedSlots = clampSlots(permit);
+			permit.admittedMemory = clampMemory(permit);
+			usedSlots += permit.admittedSlots;
+			usedMemory += permit.admittedMemory;
+			HOLDERS.put(Thread.currentThread(), 1);
+			// the next one in the queue may fit too
+			LOCK.notifyAll();
+			return permit;
+		}
+	}
+
+	private static void release(Permit permit) {
+		synchronized (LOCK) {
+			if (permit.released) return;
+			permit.released = true;
+			HOLDERS.computeIfPresent(permit.owner, (thread, count) -> count > 1 ? count - 1 : null);
+			usedSlots -= permit.admittedSlots;
+			usedMemory -= permit.admittedMemory;
+			LOCK.notifyAll();
+		}
+	}
+
+	private static boolean fits(Permit permit) {
+		boolean slotsFit = usedSlots + clampSlots(permit) <= maxSlots;
+		boolean memoryFits = maxMemory <= 0 || usedMemory + clampMemory(permit) <= maxMemory;
+		return slotsFit && memoryFits;
+	}
+
+	private static int clampSlots(Permit permit) {
+		return Math.min(permit.slots, maxSlots);
+	}
+
+	private static long clampMemory(Permit permit) {
+		return maxMemory > 0 ? Math.min(permit.memory, maxMemory) : 0;
+	}
+
+	private static int getAvailableSlots() {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Gets the physical memory, using the com.sun.management extension if available
+	 *
+	 * @return Physical memory in MB, or 0 if unknown
+	 */
+	private static long getPhysicalMemory() {
+		try {
+			Object os = ManagementFactory.getOperatingSystemMXBean();
+			Class<?> osClass = Class.forName("com.sun.management.OperatingSystemMXBean");
+			long bytes = (long) osClass.getMethod("getTotalPhysicalMemorySize").invoke(os);
+			return bytes / (1024 * 1024);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return 0;
+		}
+	}
+
+}
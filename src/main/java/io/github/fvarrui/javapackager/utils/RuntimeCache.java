@@ -0,0 +1,272 @@
+package io.github.fvarrui.javapackager.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import io.github.fvarrui.javapackager.model.StagingMode;
+
+/**
+ * Content-addressed cache of Java runtimes created with jlink, so the same
+ * runtime is only linked once. Each runtime is stored in a folder named after
+ * the hash of everything it was created from (JDK, modules, options, ...).
+ * Cached runtimes are shared by all builds, so they must never be modified:
+ * they are handed out as copies (see {@link #copyTo(String, RuntimeBuilder, File, StagingMode)}).
+ * Runtimes are listed in an index file with their size and last time used, and
+ * the least recently used ones are removed when the cache exceeds its max size,
+ * but never while they are being copied by any build.
+ */
+public class RuntimeCache {
+
+	/**
+	 * Creates a runtime in a folder which doesn't exist yet
+	 */
+	public interface RuntimeBuilder {
+		void build(File folder) throws Exception;
+	}
+
+	/**
+	 * Default max cache size (in bytes)
+	 */
+	public static final long DEFAULT_MAX_SIZE = 2048L * 1024 * 1024;
+
+	private final File cacheFolder;
+	private final File indexFile;
+	private final long maxSize;
+
+	public RuntimeCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @param maxSize Max cache size (in bytes). Least recently used runtimes are removed once exceeded
+	 */
+	public RuntimeCache(long maxSize) {
+		this(new File(NativeUtils.getUserTempFolder(), "runtimes"), maxSize);
+	}
+
+	/**
+	 * @param cacheFolder Folder where runtimes are stored
+	 */
+	public RuntimeCache(File cacheFolder) {
+		this(cacheFolder, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @param cacheFolder Folder where runtimes are stored
+	 * @param maxSize     Max cache size (in bytes). Least recently used runtimes are removed once exceeded
+	 */
+	public RuntimeCache(File cacheFolder, long maxSize) {
+		super();
+		this.cacheFolder = cacheFolder;
+		this.indexFile = new File(cacheFolder, "index.json");
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Copies a cached runtime into a folder, building and caching it if it's not cached yet.
+	 * In link mode it's cloned if the filesystem supports it, but never hard linked, so the
+	 * copy can be modified without changing the cached runtime
+	 *
+	 * @param key         Hash of everything the runtime is created from
+	 * @param builder     Creates the runtime if it's not cached
+	 * @param destination Destination folder
+	 * @param mode        Staging mode
+	 * @throws Exception Runtime could not be built, cached or copied
+	 */
+	public void copyTo(String key, RuntimeBuilder builder, File destination, StagingMode mode) throws Exception {
+		// held while copied, so no other build removes it meanwhile
+		ProcessLock.SharedHold hold = use(key, builder);
+		try {
+			FileUtils.cloneFolderContentToFolder(getFolder(key), destination, mode);
+		} finally {
+			hold.close();
+		}
+	}
+
+	/**
+	 * Gets a cached runtime, building and caching it if it's not cached yet. The returned
+	 * folder must not be modified, and it may be removed by other builds once the cache
+	 * exceeds its max size
+	 *
+	 * @param key     Hash of everything the runtime is created from
+	 * @param builder Creates the runtime if it's not cached
+	 * @return Cached runtime folder
+	 * @throws Exception Runtime could not be built or cached
+	 */
+	public File get(String key, RuntimeBuilder builder) throws Exception {
+		use(key, builder).close();
+		return getFolder(key);
+	}
+
+	/**
+	 * Holds a cached runtime, building and caching it if it's not cached yet
+	 */
+	@SuppressWarnings("try")
+	private ProcessLock.SharedHold use(String key, RuntimeBuilder builder) throws Exception {
+		File runtime = getFolder(key);
+		ProcessLock.SharedHold hold = hold(key, null);
+		if (hold != null) {
+			Logger.info("Runtime found in cache: " + runtime);
+			return hold;
+		}
+
+		// concurrent builds (even in other processes) wait for the one linking the same runtime
+		try (ProcessLock lock = ProcessLock.lock(new File(cacheFolder, key + ".lock"))) {
+			hold = hold(key, null);
+			if (hold != null) {
+				Logger.info("Runtime found in cache: " + runtime);
+				return hold;
+			}
+
+			// builds the runtime aside, so an interrupted build is never taken as cached
+			File tempFolder = new File(cacheFolder, key + "." + UUID.randomUUID() + ".tmp");
+			FileUtils.mkdir(cacheFolder);
+			try {
+				builder.build(tempFolder);
+				hold = hold(key, tempFolder);
+				Logger.info("Runtime cached in " + runtime);
+				return hold;
+			} finally {
+				if (tempFolder.exists()) FileUtils.removeFolder(tempFolder);
+			}
+		}
+	}
+
+	/**
+	 * Marks a runtime as just used and holds it, so it's not removed by any build until the
+	 * hold is closed. A just built runtime is moved into the cache, and the least recently
+	 * used runtimes are removed if the cache exceeds its max size.
+	 *
+	 * @param key   Runtime key
+	 * @param built Folder containing the just built runtime, or null if it should be cached already
+	 * @return Hold on the runtime, or null if it's not cached
+	 */
+	@SuppressWarnings("try")
+	private ProcessLock.SharedHold hold(String key, File built) throws Exception {
+		try (ProcessLock lock = ProcessLock.lock(new File(cacheFolder, "index.lock"))) {
+			List<Entry> entries = readIndex();
+			Entry entry = entries.stream().filter(e -> e.key.equals(key)).findFirst().orElse(null);
+			if (built != null) {
+				Files.move(built.toPath(), getFolder(key).toPath(), StandardCopyOption.ATOMIC_MOVE);
+				entries.remove(entry);
+				entry = new Entry();
+				entry.key = key;
+				entry.size = org.apache.commons.io.FileUtils.sizeOfDirectory(getFolder(key));
+				entries.add(entry);
+			}
+			if (entry == null) return null;
+			entry.lastUsed = System.currentTimeMillis();
+
+			ProcessLock.SharedHold hold = ProcessLock.holdShared(getUseLockFile(key));
+			try {
+				if (built != null) evict(entries, entry);
+				writeIndex(entries);
+			} catch (Exception e) {
+				hold.close();
+				throw e;
+			}
+			return hold;
+		}
+	}
+
+	/**
+	 * Removes least recently used runtimes (but the one to keep and the ones in use by any build)
+	 * until the cache fits its max size
+	 */
+	private void evict(List<Entry> entries, Entry keep) throws Exception {
+		long size = entries.stream().mapToLong(e -> e.size).sum();
+		entries.sort(Comparator.comparingLong(e -> e.lastUsed));
+		for (Entry entry : new ArrayList<>(entries)) {
+			if (size <= maxSize) break;
+			if (entry == keep || ProcessLock.isLocked(getUseLockFile(entry.key))) continue;
+			Logger.info("Removing least recently used runtime from cache: " + entry.key);
+			FileUtils.removeFolder(getFolder(entry.key));
+			ProcessLock.delete(getUseLockFile(entry.key));
+			entries.remove(entry);
+			size -= entry.size;
+		}
+	}
+
+	private File getFolder(String key) {
+		return new File(cacheFolder, key);
+	}
+
+	/**
+	 * Lock file held shared by every build using the runtime
+	 */
+	private File getUseLockFile(String key) {
+		return new File(cacheFolder, key + ".use.lock");
+	}
+
+	/**
+	 * Reads the index, leaving out runtimes whose folder was removed and adding the
+	 * ones cached before the index existed
+	 */
+	private List<Entry> readIndex() throws IOException {
+		List<Entry> entries = new ArrayList<>();
+		if (indexFile.exists()) {
+			try (Reader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+				Index index = new Gson().fromJson(reader, Index.class);
+				if (index != null && index.entries != null) entries.addAll(index.entries);
+			} catch (RuntimeException e) {
+				Logger.warn("Invalid runtime cache index " + indexFile + ": " + e.getMessage());
+			}
+		}
+		entries.removeIf(e -> !getFolder(e.key).isDirectory());
+		Set<String> keys = entries.stream().map(e -> e.key).collect(Collectors.toSet());
+		File[] folders = cacheFolder.listFiles(file -> file.isDirectory() && !file.getName().endsWith(".tmp") && !keys.contains(file.getName()));
+		if (folders != null) {
+			for (File folder : folders) {
+				Entry entry = new Entry();
+				entry.key = folder.getName();
+				entry.size = org.apache.commons.io.FileUtils.sizeOfDirectory(folder);
+				entry.lastUsed = folder.lastModified();
+				entries.add(entry);
+			}
+		}
+		return entries;
+	}
+
+	private void writeIndex(List<Entry> entries) throws IOException {
+		FileUtils.mkdir(cacheFolder);
+		Index index = new Index();
+		index.entries = entries;
+		// written aside and renamed, so the index is never read half written
+		File tempFile = new File(cacheFolder, indexFile.getName() + "." + UUID.randomUUID() + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+			new GsonBuilder().setPrettyPrinting().create().toJson(index, writer);
+		}
+		Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Index file content
+	 */
+	private static class Index {
+		private List<Entry> entries;
+	}
+
+	/**
+	 * Cached runtime
+	 */
+	private static class Entry {
+		private String key;
+		private long size;
+		private long lastUsed;
+	}
+
+}
@@ -0,0 +1,37 @@
+package io.github.fvarrui.javapackager.utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Timestamp used for reproducible builds, taken from SOURCE_DATE_EPOCH environment variable
+ * (see https://reproducible-builds.org/specs/source-date-epoch/)
+ */
+public class SourceDate {
+
+	public static final String SOURCE_DATE_EPOCH = "SOURCE_DATE_EPOCH";
+
+	// 1980-02-01T00:00:00Z, the same as Gradle's reproducible archives, as zip can't store earlier dates
+	public static final long DEFAULT_TIMESTAMP = 318211200000L;
+
+	/**
+	 * Gets the timestamp to use for every file in reproducible artifacts
+	 *
+	 * @return Timestamp in milliseconds, from SOURCE_DATE_EPOCH or the default one if it's not set
+	 */
+	public static long getTimestamp() {
+		return getTimestamp(System.getenv(SOURCE_DATE_EPOCH));
+	}
+
+	static long getTimestamp(String sourceDateEpoch) {
+		if (StringUtils.isBlank(sourceDateEpoch)) {
+			return DEFAULT_TIMESTAMP;
+		}
+		try {
+			return Math.max(DEFAULT_TIMESTAMP, Long.parseLong(sourceDateEpoch.trim()) * 1000);
+		} catch (NumberFormatException e) {
+			Logger.warn("Invalid " + SOURCE_DATE_EPOCH + " value '" + sourceDateEpoch + "', using default timestamp");
+			return DEFAULT_TIMESTAMP;
+		}
+	}
+
+}
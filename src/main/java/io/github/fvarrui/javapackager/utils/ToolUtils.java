@@ -0,0 +1,146 @@
+package io.github.fvarrui.javapackager.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.codehaus.plexus.util.cli.CommandLineException;
+
+/**
+ * JDK tools (jdeps, jlink, ...) utils
+ */
+public class ToolUtils {
+
+	private static final Map<String, Optional<Object>> TOOL_PROVIDERS = new ConcurrentHashMap<>();
+
+	/**
+	 * Runs a JDK tool. If the JDK is the one running JavaPackager, the tool is run
+	 * in-process through java.util.spi.ToolProvider (Java 9+), saving a JVM startup,
+	 * so several tools can run concurrently on the same JVM. Otherwise, the tool
+	 * executable is forked.
+	 *
+	 * @param jdk       JDK containing the tool
+	 * @param tool      Tool name
+	 * @param inProcess Runs the tool in-process if possible
+	 * @param arguments Tool arguments
+	 * @return Tool output
+	 * @throws IOException          Tool could not be run
+	 * @throws CommandLineException Tool failed
+	 */
+	@SuppressWarnings("try")
+	public static String execute(File jdk, String tool, boolean inProcess, Object... arguments) throws IOException, CommandLineException {
+		Object provider = inProcess && isRunningJdk(jdk) ? findToolProvider(tool) : null;
+		if (provider == null) {
+			return CommandUtils.execute(new File(jdk, "/bin/" + tool), arguments);
+		}
+
+		List<String> args = new ArrayList<>();
+		toArguments(arguments, args);
+		String commandLine = tool + " " + StringUtils.join(args, " ");
+
+		Logger.info("Executing in-process tool: " + commandLine);
+
+		StringWriter output = new StringWriter();
+		StringWriter error = new StringWriter();
+		int exitCode;
+		// in-process tools share the budget with forked ones too
+		try (ProcessScheduler.Permit permit = ProcessScheduler.acquire(tool);
+				PrintWriter out = new PrintWriter(output); PrintWriter err = new PrintWriter(error)) {
+			Class<?> toolProviderClass = Class.forName("java.util.spi.ToolProvider");
+			exitCode = (int) toolProviderClass
+					.getMethod("run", PrintWriter.class, PrintWriter.class, String[].class)
+					.invoke(provider, out, err, args.toArray(new String[0]));
+		} catch (InvocationTargetException e) {
+			throw new CommandLineException("Command execution failed: " + commandLine, e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new IOException("Could not run " + tool + " in-process", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CommandLineException("Interrupted while waiting to execute command: " + commandLine, e);
+		}
+
+		Arrays.asList(output.toString().split("\\R")).stream().filter(StringUtils::isNotEmpty).forEach(Logger::info);
+		Arrays.asList(error.toString().split("\\R")).stream().filter(StringUtils::isNotEmpty).forEach(Logger::error);
+
+		if (exitCode != 0) {
+			throw new CommandLineException("Command execution failed: " + commandLine);
+		}
+		return output.toString();
+	}
+
+	/**
+	 * Checks if a JDK is the one running JavaPackager
+	 *
+	 * @param jdk JDK
+	 * @return true if the JDK is the running one
+	 */
+	public static boolean isRunningJdk(File jdk) {
+		try {
+			File javaHome = new File(System.getProperty("java.home"));
+			return jdk != null && jdk.getCanonicalFile().equals(javaHome.getCanonicalFile());
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Finds a tool provider
+	 *
+	 * @return Tool provider, or null if not available (e.g. Java 8)
+	 */
+	@SuppressWarnings("unchecked")
+	private static Object findToolProvider(String tool) {
+		return TOOL_PROVIDERS.computeIfAbsent(tool, name -> {
+			try {
+				Class<?> toolProviderClass = Class.forName("java.util.spi.ToolProvider");
+				return (Optional<Object>) toolProviderClass.getMethod("findFirst", String.class).invoke(null, name);
+			} catch (ReflectiveOperationException e) {
+				return Optional.empty();
+			}
+		}).orElse(null);
+	}
+
+	/**
+	 * Converts arguments to strings the same way they are passed to a forked command,
+	 * expanding wildcards (e.g. libs/*.jar) which would be expanded by the shell
+	 */
+	private static void toArguments(Object[] arguments, List<String> args) {
+		for (Object argument : arguments) {
+
+			if (argument == null)
+				continue;
+
+			if (argument.getClass().isArray()) {
+				toArguments((Object[]) argument, args);
+				continue;
+			}
+
+			if (argument instanceof File) {
+				File argFile = ((File) argument).getAbsoluteFile();
+				if (argFile.getName().contains("*")) {
+					File[] files = argFile.getParentFile().listFiles((dir, name) -> FilenameUtils.wildcardMatch(name, argFile.getName()));
+					if (files != null) {
+						Arrays.sort(files);
+						Arrays.asList(files).forEach(f -> args.add(f.getAbsolutePath()));
+					}
+				} else {
+					args.add(argFile.getPath());
+				}
+				continue;
+			}
+
+			args.add(argument.toString().trim());
+		}
+	}
+
+}
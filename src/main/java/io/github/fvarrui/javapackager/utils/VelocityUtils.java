@@ -5,7 +5,6 @@ import static org.apache.commons.io.FileUtils.writeStringToFile;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.velocity.Template;
@@ -22,9 +21,10 @@ import org.apache.velocity.util.StringBuilderWriter;
 public class VelocityUtils {
 
 	private static File assetsDir = new File("assets");
+	private static boolean reproducible = false;
 	private static VelocityEngine velocityEngine = null;
 
-	private static VelocityEngine getVelocityEngine() {
+	private static synchronized VelocityEngine getVelocityEngine() {
 		
 		if (velocityEngine == null) {
 			
@@ -47,11 +47,12 @@ public class VelocityUtils {
 		return velocityEngine;
 	}
 	
-	private static String render(String templatePath, Object info) throws Exception {
+	private static String render(String templatePath, String outputName, Object info) throws Exception {
 		VelocityContext context = new VelocityContext();
 		context.put("features", new ArrayList<String>());
-		context.put("GUID", UUID.class);
+		context.put("GUID", new GuidGenerator(outputName, reproducible));
 		context.put("StringUtils", StringUtils.class);
+		context.put("FileUtils", FileUtils.class);
 		context.put("info", info);
 		Template template = getVelocityEngine().getTemplate(templatePath, "UTF-8");
 		StringBuilderWriter writer = new StringBuilderWriter();
@@ -63,9 +64,17 @@ public class VelocityUtils {
 		VelocityUtils.assetsDir = assetsDir;
 	}
 
+	/**
+	 * Makes templates get the same GUIDs on every build (see {@link GuidGenerator})
+	 * @param reproducible Reproducible build
+	 */
+	public static void setReproducible(boolean reproducible) {
+		VelocityUtils.reproducible = reproducible;
+	}
+
 	public static void render(String templatePath, File output, Object info) throws Exception {
 		try {
-			String data = render(templatePath, info);
+			String data = render(templatePath, output.getName(), info);
 			data = data.replaceAll("\\r\\n", "\n").replaceAll("\\r", "\n");
 			writeStringToFile(output, data, "UTF-8");
 		} catch (IOException e) {
@@ -10,20 +10,105 @@ package io.github.fvarrui.javapackager.utils.updater;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import io.github.fvarrui.javapackager.utils.FileUtils;
+import io.github.fvarrui.javapackager.utils.Logger;
+import io.github.fvarrui.javapackager.utils.NativeUtils;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Details here: https://api.adoptium.net/q/swagger-ui
  */
 public class AdoptV3API {
-    private final String BASE = "https://api.adoptium.net/v3";
-    private final String START_DOWNLOAD_URL = BASE + "/binary/version/";
-    private final String START_RELEASES_URL = BASE + "/info/release_versions?architecture=";
-    private final String START_ASSETS_URL = BASE + "/assets/version/";
+    /**
+     * Default API base url.
+     */
+    public static final String DEFAULT_BASE_URL = "https://api.adoptium.net/v3";
+
+    private final String BASE;
+    private final String START_DOWNLOAD_URL;
+    private final String START_RELEASES_URL;
+    private final String START_ASSETS_URL;
+
+    /**
+     * Default time the available releases are cached on disk.
+     */
+    public static final long DEFAULT_RELEASES_CACHE_TTL = TimeUnit.HOURS.toMillis(24);
+
+    private final File releasesCache;
+    private final long releasesCacheTtl;
 
+    public AdoptV3API() {
+        this(DEFAULT_RELEASES_CACHE_TTL);
+    }
+
+    /**
+     * @param releasesCacheTtl Time (in milliseconds) the available releases are cached on disk. 0 disables the cache.
+     */
+    public AdoptV3API(long releasesCacheTtl) {
+        this(releasesCacheTtl, DEFAULT_BASE_URL);
+    }
+
+    /**
+     * @param releasesCacheTtl Time (in milliseconds) the available releases are cached on disk. 0 disables the cache.
+     * @param baseUrl          API base url, to use a mirror or proxy of the Adoptium API (e.g. https://mirror.example.com/adoptium/v3).
+     */
+    public AdoptV3API(long releasesCacheTtl, String baseUrl) {
+        this.releasesCacheTtl = releasesCacheTtl;
+        this.BASE = baseUrl.replaceAll("/+$", "");
+        this.START_DOWNLOAD_URL = BASE + "/binary/version/";
+        this.START_RELEASES_URL = BASE + "/info/release_versions?architecture=";
+        this.START_ASSETS_URL = BASE + "/assets/version/";
+        // one cache per API, so releases of a mirror are never taken for the ones of another
+        this.releasesCache = new File(NativeUtils.getUserTempFolder() + "/adoptium/available_releases-" + FileUtils.sha256(BASE) + ".json");
+    }
+
+    /**
+     * Returns the available releases, served from the disk cache if it's not older than its TTL.
+     * If they can't be fetched (e.g. offline), an expired cache is used.
+     */
     public JsonObject getAvailableReleases() throws IOException {
-        return Json.fromUrlAsObject(BASE + "/info/available_releases");
+        if (releasesCache.exists() && System.currentTimeMillis() - releasesCache.lastModified() < releasesCacheTtl) {
+            try {
+                return readReleasesCache();
+            } catch (Exception e) {
+                Logger.warn("Invalid available releases cache " + releasesCache + ": " + e.getMessage());
+            }
+        }
+        JsonObject releases;
+        try {
+            releases = Json.fromUrlAsObject(BASE + "/info/available_releases");
+        } catch (IOException e) {
+            if (!releasesCache.exists()) throw e;
+            Logger.warn("Available releases could not be fetched (" + e.getMessage() + "), using cached ones from " + releasesCache);
+            return readReleasesCache();
+        }
+        if (releasesCacheTtl > 0) {
+            writeReleasesCache(releases);
+        }
+        return releases;
+    }
+
+    private JsonObject readReleasesCache() throws IOException {
+        return Json.from(new String(Files.readAllBytes(releasesCache.toPath()), StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    private void writeReleasesCache(JsonObject releases) {
+        try {
+            releasesCache.getParentFile().mkdirs();
+            // written aside and renamed, so other builds never read a half written cache
+            File tempFile = new File(releasesCache.getParentFile(), releasesCache.getName() + "." + UUID.randomUUID() + ".tmp");
+            Files.write(tempFile.toPath(), Json.toString(releases).getBytes(StandardCharsets.UTF_8));
+            Files.move(tempFile.toPath(), releasesCache.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Logger.warn("Available releases could not be cached in " + releasesCache + ": " + e.getMessage());
+        }
     }
 
     public String getLatestLTSRelease() throws IOException {
@@ -2,10 +2,10 @@ package io.github.fvarrui.javapackager.utils.updater;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import org.apache.commons.io.IOUtils;
+import okhttp3.Request;
+import okhttp3.Response;
 
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -13,6 +13,11 @@ import java.util.function.Predicate;
 
 public class Github {
 
+    /**
+     * Default API base url.
+     */
+    public static final String DEFAULT_API_URL = "https://api.github.com";
+
     /**
      * Searches the latest GitHub release and returns a {@link SearchResult} object with all the relevant information.
      *
@@ -21,6 +26,18 @@ public class Github {
      * @param assetNamePredicate predicate that contains the asset name and ist used to determine the asset to download.
      */
     public static SearchResult searchUpdate(String repoName, String currentVersion, Predicate<String> assetNamePredicate) {
+        return searchUpdate(DEFAULT_API_URL, repoName, currentVersion, assetNamePredicate);
+    }
+
+    /**
+     * Searches the latest GitHub release and returns a {@link SearchResult} object with all the relevant information.
+     *
+     * @param apiUrl             API base url, to use a mirror or proxy of the GitHub API.
+     * @param repoName           GitHub repository name.
+     * @param currentVersion     current version of the installed software.
+     * @param assetNamePredicate predicate that contains the asset name and ist used to determine the asset to download.
+     */
+    public static SearchResult searchUpdate(String apiUrl, String repoName, String currentVersion, Predicate<String> assetNamePredicate) {
         Exception exception = null;
         boolean updateAvailable = false;
         String downloadUrl = null;
@@ -28,7 +45,7 @@ public class Github {
         String downloadFile = null;
         String sha256 = null;
         try {
-            JsonObject latestRelease = Json.fromUrlAsObject("https://api.github.com/repos/" + repoName + "/releases/latest");
+            JsonObject latestRelease = Json.fromUrlAsObject(apiUrl.replaceAll("/+$", "") + "/repos/" + repoName + "/releases/latest");
             latestVersion = latestRelease.get("tag_name").getAsString();
             if (latestVersion != null)
                 latestVersion = latestVersion.replaceAll("[^0-9.]", ""); // Before passing over remove everything except numbers and dots
@@ -56,13 +73,24 @@ public class Github {
                     throw new Exception("Failed to find an asset-name matching the assetNamePredicate inside of " + Arrays.toString(names.toArray()));
                 }
 
-                // Determine sha256
+                // Determine sha256, from the asset digest if GitHub provides it (saving a request),
+                // or from the .sha256 asset otherwise
                 String expectedShaAssetName = downloadFile + ".sha256";
                 for (JsonElement el : latestRelease.getAsJsonArray("assets")) {
                     JsonObject obj = el.getAsJsonObject();
                     String name = obj.get("name").getAsString();
-                    if (name.equals(expectedShaAssetName)) {
-                        sha256 = IOUtils.toString(new URL(obj.get("browser_download_url").getAsString()), StandardCharsets.UTF_8);
+                    JsonElement digest = obj.get("digest");
+                    if (name.equals(downloadFile) && digest != null && !digest.isJsonNull()
+                            && digest.getAsString().startsWith("sha256:")) {
+                        sha256 = digest.getAsString().substring("sha256:".length());
+                        break;
+                    }
+                }
+                for (JsonElement el : latestRelease.getAsJsonArray("assets")) {
+                    JsonObject obj = el.getAsJsonObject();
+                    String name = obj.get("name").getAsString();
+                    if (sha256 == null && name.equals(expectedShaAssetName)) {
+                        sha256 = fetchString(obj.get("browser_download_url").getAsString());
                         break;
                     }
                 }
@@ -74,4 +102,15 @@ public class Github {
 
         return new SearchResult(updateAvailable, exception, latestVersion, downloadUrl, downloadFile, sha256);
     }
+
+    private static String fetchString(String url) throws IOException {
+        Request request = new Request.Builder().url(url)
+                .header("User-Agent", "JavaPackager")
+                .build();
+        try (Response response = Http.getClient().newCall(request).execute()) {
+            if (response.code() != 200 || response.body() == null)
+                throw new IOException("error: " + response.code() + " message: \"" + response.message() + "\" url: " + url);
+            return response.body().string().trim();
+        }
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021-2022 Osiris-Team.
+ * All rights reserved.
+ *
+ * This software is copyrighted work, licensed under the terms
+ * of the MIT-License. Consult the "LICENSE" file for details.
+ */
+
+package io.github.fvarrui.javapackager.utils.updater;
+
+import io.github.fvarrui.javapackager.utils.Logger;
+import io.github.fvarrui.javapackager.utils.NativeUtils;
+import okhttp3.Cache;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client shared by the updater, so connections are pooled and kept alive (HTTP/2 when
+ * the server supports it) across all requests of a build. <br>
+ * API responses are cached on disk and revalidated with ETag/If-Modified-Since, so repeated
+ * builds mostly get 304 responses or cache hits. Failed requests (connection errors, 429 and
+ * 5xx responses) are retried a few times, waiting longer between attempts.
+ */
+public class Http {
+
+    /**
+     * Max number of retries of a failed request.
+     */
+    public static final int MAX_RETRIES = 3;
+
+    private static final long CACHE_SIZE = 50L * 1024 * 1024;
+    private static final long RETRY_DELAY = 1000;
+
+    private static OkHttpClient client;
+    private static OkHttpClient downloadClient;
+
+    /**
+     * Returns the client used for API requests, caching responses on disk.
+     */
+    public static synchronized OkHttpClient getClient() {
+        if (client == null) {
+            client = newClient(new File(NativeUtils.getUserTempFolder(), "http-cache"));
+        }
+        return client;
+    }
+
+    static OkHttpClient newClient(File cacheFolder) {
+        return new OkHttpClient.Builder()
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .cache(new Cache(cacheFolder, CACHE_SIZE))
+                .addInterceptor(Http::retry)
+                .build();
+    }
+
+    /**
+     * Returns the client used for downloads, sharing connections with the API one, but
+     * without caching responses (downloads are kept in the JDK store).
+     */
+    public static synchronized OkHttpClient getDownloadClient() {
+        if (downloadClient == null) {
+            downloadClient = getClient().newBuilder().cache(null).build();
+        }
+        return downloadClient;
+    }
+
+    /**
+     * Retries failed requests, doubling the delay between attempts.
+     */
+    private static Response retry(Interceptor.Chain chain) throws IOException {
+        Request request = chain.request();
+        for (int attempt = 0; ; attempt++) {
+            String failure;
+            try {
+                Response response = chain.proceed(request);
+                if (attempt >= MAX_RETRIES || (response.code() != 429 && response.code() < 500)) return response;
+                failure = "code " + response.code();
+                response.close();
+            } catch (IOException e) {
+                // timeouts are retried too, but not cancelled calls
+                if (attempt >= MAX_RETRIES || chain.call().isCanceled()) throw e;
+                failure = e.getMessage();
+            }
+            long delay = RETRY_DELAY << attempt;
+            Logger.warn("Request to " + request.url() + " failed (" + failure + "), retrying in " + delay + "ms...");
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while retrying " + request.url());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2021-2022 Osiris-Team.
+ * All rights reserved.
+ *
+ * This software is copyrighted work, licensed under the terms
+ * of the MIT-License. Consult the "LICENSE" file for details.
+ */
+
+package io.github.fvarrui.javapackager.utils.updater;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extracts JDK archives (tar.gz or zip) reading them as a stream, so they can be extracted
+ * while they are downloaded. <br>
+ * JDK archives contain a single top-level folder (e.g. jdk-17.0.5+8), which is left out,
+ * so its content is extracted straight into the destination folder. <br>
+ * Symbolic links must point inside the destination folder, and they are created once all
+ * the other entries are extracted, so no entry can be written through them.
+ */
+public class JdkArchiveExtractor {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+    /**
+     * Extracts an archive file.
+     *
+     * @param isTar true if it's a tar.gz, false if it's a zip.
+     */
+    public static void extract(File archive, boolean isTar, File destination) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(archive.toPath()), BUFFER_SIZE)) {
+            extract(in, isTar, destination);
+        }
+    }
+
+    /**
+     * Extracts an archive read from a stream. The stream is read until the last entry,
+     * and it's not closed.
+     *
+     * @param isTar true if it's a tar.gz, false if it's a zip.
+     */
+    public static void extract(InputStream in, boolean isTar, File destination) throws IOException {
+        Path root = destination.toPath().toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        Path realRoot = root.toRealPath();
+        Map<Path, String> symbolicLinks = new LinkedHashMap<>();
+        ArchiveInputStream archive = isTar
+                ? new TarArchiveInputStream(new GzipCompressorInputStream(in, true))
+                : new ZipArchiveInputStream(in);
+        ArchiveEntry entry;
+        while ((entry = archive.getNextEntry()) != null) {
+            Path path = resolve(root, entry.getName());
+            if (path == null) continue; // the top-level folder, or a file next to it
+            TarArchiveEntry tarEntry = entry instanceof TarArchiveEntry ? (TarArchiveEntry) entry : null;
+
+            if (entry.isDirectory()) {
+                createParent(realRoot, path);
+                Files.createDirectories(path);
+            } else if (tarEntry != null && tarEntry.isSymbolicLink()) {
+                checkLinkTarget(root, path, tarEntry.getLinkName());
+                symbolicLinks.put(path, tarEntry.getLinkName());
+                continue;
+            } else if (tarEntry != null && tarEntry.isLink()) {
+                Path target = resolve(root, tarEntry.getLinkName());
+                if (target == null)
+                    throw new IOException("Invalid link " + entry.getName() + " -> " + tarEntry.getLinkName());
+                createParent(realRoot, path);
+                if (!target.toRealPath().startsWith(realRoot))
+                    throw new IOException("Link outside of the destination folder: " + entry.getName() + " -> " + tarEntry.getLinkName());
+                Files.deleteIfExists(path);
+                Files.createLink(path, target);
+                continue;
+            } else {
+                createParent(realRoot, path);
+                Files.copy(archive, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            if (tarEntry != null && POSIX) {
+                Files.setPosixFilePermissions(path, toPermissions(tarEntry.getMode(), entry.isDirectory()));
+            }
+            if (entry.getLastModifiedDate() != null && !entry.isDirectory()) {
+                Files.setLastModifiedTime(path, FileTime.fromMillis(entry.getLastModifiedDate().getTime()));
+            }
+        }
+
+        for (Map.Entry<Path, String> link : symbolicLinks.entrySet()) {
+            Path path = link.getKey();
+            createParent(realRoot, path);
+            Files.deleteIfExists(path);
+            Files.createSymbolicLink(path, new File(link.getValue()).toPath());
+        }
+        // links may lead through other links, so they are checked once all of them exist
+        for (Map.Entry<Path, String> link : symbolicLinks.entrySet()) {
+            if (!realTarget(link.getKey()).startsWith(realRoot)) {
+                Files.delete(link.getKey());
+                throw new IOException("Link outside of the destination folder: " + link.getKey() + " -> " + link.getValue());
+            }
+        }
+    }
+
+    /**
+     * Gets the real path a symbolic link leads to or, if its target doesn't exist, the real path
+     * of the nearest existing folder on the way.
+     */
+    private static Path realTarget(Path link) throws IOException {
+        Path target = link.getParent().toRealPath().resolve(Files.readSymbolicLink(link));
+        while (!Files.exists(target)) target = target.getParent();
+        return target.toRealPath();
+    }
+
+    /**
+     * Creates the parent folder of an entry, checking that it's really inside the destination
+     * folder (i.e. no symbolic link leads outside of it).
+     */
+    private static void createParent(Path realRoot, Path path) throws IOException {
+        Path parent = path.getParent();
+        Path existing = parent;
+        while (!Files.exists(existing)) existing = existing.getParent();
+        if (!existing.toRealPath().startsWith(realRoot))
+            throw new IOException("Entry outside of the destination folder: " + path);
+        Files.createDirectories(parent);
+        if (!parent.toRealPath().startsWith(realRoot))
+            throw new IOException("Entry outside of the destination folder: " + path);
+    }
+
+    /**
+     * Checks that a symbolic link target is relative and inside the destination folder.
+     */
+    private static void checkLinkTarget(Path root, Path path, String linkName) throws IOException {
+        String target = linkName.replace('\\', '/');
+        if (target.isEmpty() || target.startsWith("/") || new File(linkName).isAbsolute()
+                || !path.getParent().resolve(target).normalize().startsWith(root))
+            throw new IOException("Link outside of the destination folder: " + path + " -> " + linkName);
+    }
+
+    /**
+     * Resolves an entry path without its top-level folder.
+     *
+     * @return the path, or null if the entry is the top-level folder or a file next to it.
+     */
+    private static Path resolve(Path root, String name) throws IOException {
+        name = name.replace('\\', '/');
+        while (name.startsWith("./")) name = name.substring(2);
+        int slash = name.indexOf('/');
+        if (slash < 0 || slash == name.length() - 1) return null;
+        Path path = root.resolve(name.substring(slash + 1)).normalize();
+        if (!path.startsWith(root))
+            throw new IOException("Entry outside of the destination folder: " + name);
+        return path;
+    }
+
+    private static Set<PosixFilePermission> toPermissions(int mode, boolean directory) {
+        PosixFilePermission[] values = {
+                PosixFilePermission.OTHERS_EXECUTE, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_READ,
+                PosixFilePermission.GROUP_EXECUTE, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_READ,
+                PosixFilePermission.OWNER_EXECUTE, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_READ
+        };
+        Set<PosixFilePermission> permissions = new HashSet<>();
+        for (int i = 0; i < values.length; i++) {
+            if ((mode & (1 << i)) != 0) permissions.add(values[i]);
+        }
+        // extracted files must stay writable by the owner, so they can be removed later
+        permissions.add(PosixFilePermission.OWNER_WRITE);
+        permissions.add(PosixFilePermission.OWNER_READ);
+        if (directory) permissions.add(PosixFilePermission.OWNER_EXECUTE);
+        return permissions;
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2021-2022 Osiris-Team.
+ * All rights reserved.
+ *
+ * This software is copyrighted work, licensed under the terms
+ * of the MIT-License. Consult the "LICENSE" file for details.
+ */
+
+package io.github.fvarrui.javapackager.utils.updater;
+
+import io.github.fvarrui.javapackager.model.JdkTarget;
+import io.github.fvarrui.javapackager.model.Platform;
+import io.github.fvarrui.javapackager.utils.Logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Downloads the JDKs for several targets (platform, vendor and version) concurrently into
+ * the local store, so packaging for each platform later finds its JDK already installed.
+ */
+public class JdkPrefetch {
+
+    private final Function<Platform, TaskJavaUpdater> updaters;
+
+    public JdkPrefetch(JdkStore store) {
+        this(store, TaskJavaDownload.DEFAULT_CONNECTIONS);
+    }
+
+    /**
+     * @param store               Local store where JDKs are installed.
+     * @param downloadConnections Max number of parallel connections per download.
+     */
+    public JdkPrefetch(JdkStore store, int downloadConnections) {
+        this(platform -> {
+            TaskJavaUpdater updater = new TaskJavaUpdater(platform, store);
+            updater.downloadConnections = downloadConnections;
+            return updater;
+        });
+    }
+
+    /**
+     * @param updaters Creates the updater of each target platform, already configured.
+     */
+    public JdkPrefetch(Function<Platform, TaskJavaUpdater> updaters) {
+        this.updaters = updaters;
+    }
+
+    /**
+     * Checks for updates of the JDKs of all targets and installs them, all at the same time.
+     * Every target is processed even if others fail.
+     *
+     * @param targets Targets, with their platform, vendor and version set.
+     * @return the installed JDK folder of every target.
+     * @throws Exception the first failure, with the other ones suppressed.
+     */
+    public Map<JdkTarget, File> execute(List<JdkTarget> targets) throws Exception {
+        List<JdkTarget> distinctTargets = new ArrayList<>(new LinkedHashSet<>(targets));
+        Map<JdkTarget, File> jdks = new LinkedHashMap<>();
+        if (distinctTargets.isEmpty()) return jdks;
+
+        Logger.info("Prefetching " + distinctTargets.size() + " JDK(s) ...");
+        int tabs = Logger.getTabs();
+        ExecutorService executor = Executors.newFixedThreadPool(distinctTargets.size());
+        try {
+            Map<JdkTarget, Future<File>> futures = new LinkedHashMap<>();
+            for (JdkTarget target : distinctTargets) {
+                futures.put(target, executor.submit(() -> {
+                    // messages of concurrent downloads are told apart by their target
+                    Logger.setTabs(tabs);
+                    Logger.setPrefix("[" + target.getPlatform() + "]");
+                    // prefetched JDKs aren't held, packaging holds the one it uses
+                    try (TaskJavaUpdater updater = updaters.apply(target.getPlatform())) {
+                        updater.execute(target.getVersion(), target.getVendor());
+                        if (updater.jdkPath == null)
+                            throw new Exception("No JDK " + target.getVersion() + " by " + target.getVendor() + " found for " + target.getPlatform());
+                        return updater.jdkPath;
+                    }
+                }));
+            }
+            Exception failure = null;
+            for (Map.Entry<JdkTarget, Future<File>> future : futures.entrySet()) {
+                try {
+                    jdks.put(future.getKey(), future.getValue().get());
+                    Logger.info("JDK prefetched for " + future.getKey() + ": " + jdks.get(future.getKey()));
+                } catch (ExecutionException e) {
+                    Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    Logger.error("JDK prefetch failed for " + future.getKey() + ": " + cause.getMessage());
+                    if (failure == null) failure = cause;
+                    else failure.addSuppressed(cause);
+                }
+            }
+            if (failure != null) throw failure;
+        } finally {
+            executor.shutdownNow();
+        }
+        return jdks;
+    }
+
+}
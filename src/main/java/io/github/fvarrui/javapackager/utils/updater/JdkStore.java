@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2021-2022 Osiris-Team.
+ * All rights reserved.
+ *
+ * This software is copyrighted work, licensed under the terms
+ * of the MIT-License. Consult the "LICENSE" file for details.
+ */
+
+package io.github.fvarrui.javapackager.utils.updater;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import io.github.fvarrui.javapackager.utils.Logger;
+import io.github.fvarrui.javapackager.utils.NativeUtils;
+import io.github.fvarrui.javapackager.utils.ProcessLock;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Local store of downloaded JDKs, so several vendors, versions and builds can be kept
+ * side by side and switching between them doesn't download them again. <br>
+ * Every JDK is installed in its own folder, named after its vendor, major version, build,
+ * OS and architecture, and listed in an index file with its size and last time used. When
+ * the store exceeds its max size, the least recently used JDKs are removed. <br>
+ * The store can be shared by several builds running at the same time (e.g. Gradle workers
+ * or CI jobs on the same host): the index is updated under a file lock, JDKs are installed
+ * by renaming them into place, and JDKs in use by any build are never removed.
+ */
+public class JdkStore {
+
+    /**
+     * Default max store size (in bytes).
+     */
+    public static final long DEFAULT_MAX_SIZE = 4096L * 1024 * 1024;
+
+    private final File storeDir;
+    private final File indexFile;
+    private final File locksDir;
+    private final long maxSize;
+
+    public JdkStore() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize Max store size (in bytes). Least recently used JDKs are removed once exceeded.
+     */
+    public JdkStore(long maxSize) {
+        this(new File(NativeUtils.getUserTempFolder() + "/jdks"), maxSize);
+    }
+
+    /**
+     * @param storeDir Folder where JDKs and the index are stored.
+     * @param maxSize  Max store size (in bytes). Least recently used JDKs are removed once exceeded.
+     */
+    public JdkStore(File storeDir, long maxSize) {
+        this.storeDir = storeDir;
+        this.indexFile = new File(storeDir, "index.json");
+        this.locksDir = new File(storeDir, "locks");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Finds the latest installed build of a JDK.
+     *
+     * @return the installed JDK with the biggest build, or null if there's none.
+     */
+    @SuppressWarnings("try")
+    public Entry findLatest(String vendor, String major, String os, String arch) throws IOException {
+        try (ProcessLock lock = lockIndex()) {
+            Entry latest = null;
+            for (Entry entry : readIndex()) {
+                if (entry.vendor.equals(vendor) && entry.major.equals(major) && entry.os.equals(os) && entry.arch.equals(arch)
+                        && (latest == null || new UtilsVersion().isLatestBigger(latest.build, entry.build))) {
+                    latest = entry;
+                }
+            }
+            return latest;
+        }
+    }
+
+    /**
+     * Finds the biggest major version of a JDK installed in the store.
+     *
+     * @return the major version, or null if there's none.
+     */
+    @SuppressWarnings("try")
+    public String findLatestMajor(String vendor, String os, String arch) throws IOException {
+        try (ProcessLock lock = lockIndex()) {
+            String latest = null;
+            for (Entry entry : readIndex()) {
+                if (entry.vendor.equals(vendor) && entry.os.equals(os) && entry.arch.equals(arch)
+                        && (latest == null || new UtilsVersion().isLatestBigger(latest, entry.major))) {
+                    latest = entry.major;
+                }
+            }
+            return latest;
+        }
+    }
+
+    /**
+     * Returns the folder where JDKs and the index are stored.
+     */
+    public File getStoreDir() {
+        return storeDir;
+    }
+
+    /**
+     * Marks an installed JDK as just used. The JDK won't be removed from the store by any
+     * build until the returned handle is closed (e.g. once the build finishes).
+     *
+     * @return the JDK in use, or null if it was removed from the store meanwhile.
+     */
+    @SuppressWarnings("try")
+    public InUse use(Entry entry) throws IOException {
+        try (ProcessLock lock = lockIndex()) {
+            List<Entry> entries = readIndex();
+            Entry used = entries.stream().filter(e -> e.folder.equals(entry.folder)).findFirst().orElse(null);
+            if (used == null) return null;
+            used.lastUsed = System.currentTimeMillis();
+            ProcessLock.SharedHold hold = ProcessLock.holdShared(getLockFile(used));
+            try {
+                writeIndex(entries);
+            } catch (IOException | RuntimeException e) {
+                hold.close();
+                throw e;
+            }
+            return new InUse(getFolder(used), hold);
+        }
+    }
+
+    /**
+     * Locks the installation of a JDK, so concurrent builds needing it wait for the one
+     * downloading it instead of downloading it again.
+     *
+     * @return Acquired lock, to be closed once the JDK is installed.
+     */
+    public ProcessLock lockInstall(String vendor, String major, String os, String arch) throws IOException {
+        return ProcessLock.lock(new File(locksDir, toFolderName(vendor + "-" + major + "-" + os + "-" + arch) + ".install.lock"));
+    }
+
+    /**
+     * Creates a new empty folder inside the store, where a JDK can be extracted before installing it.
+     */
+    public File createStagingFolder() throws IOException {
+        File stagingFolder = new File(storeDir, "staging-" + UUID.randomUUID());
+        Files.createDirectories(stagingFolder.toPath());
+        return stagingFolder;
+    }
+
+    /**
+     * Installs a JDK, moving its folder into the store, and removes the least recently used
+     * JDKs if the store exceeds its max size. Call {@link #use(Entry)} before using it.
+     *
+     * @param jdkFolder Folder containing the JDK (see {@link #createStagingFolder()}).
+     * @return the installed JDK folder.
+     */
+    @SuppressWarnings("try")
+    public File install(String vendor, String major, String build, String os, String arch, File jdkFolder) throws IOException {
+        try (ProcessLock lock = lockIndex()) {
+            Entry entry = new Entry();
+            entry.vendor = vendor;
+            entry.major = major;
+            entry.build = build;
+            entry.os = os;
+            entry.arch = arch;
+            entry.folder = toFolderName(vendor + "-" + major + "-" + build + "-" + os + "-" + arch);
+            entry.size = FileUtils.sizeOfDirectory(jdkFolder);
+            entry.lastUsed = System.currentTimeMillis();
+
+            File folder = getFolder(entry);
+            if (folder.exists()) {
+                if (ProcessLock.isLocked(getLockFile(entry)))
+                    throw new IOException("Cannot replace " + folder + " because it's in use by another build");
+                FileUtils.deleteDirectory(folder);
+            }
+            Files.move(jdkFolder.toPath(), folder.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+            List<Entry> entries = readIndex();
+            entries.removeIf(e -> e.folder.equals(entry.folder));
+            entries.add(entry);
+            evict(entries, entry);
+            writeIndex(entries);
+
+            return folder;
+        }
+    }
+
+    /**
+     * Removes least recently used JDKs (but the one to keep and the ones in use by any build)
+     * until the store fits its max size.
+     */
+    private void evict(List<Entry> entries, Entry keep) throws IOException {
+        long size = entries.stream().mapToLong(e -> e.size).sum();
+        entries.sort(Comparator.comparingLong(e -> e.lastUsed));
+        for (Entry entry : new ArrayList<>(entries)) {
+            if (size <= maxSize) break;
+            if (entry == keep || ProcessLock.isLocked(getLockFile(entry))) continue;
+            Logger.info("Removing least recently used JDK from store: " + entry.folder);
+            FileUtils.deleteDirectory(getFolder(entry));
+            ProcessLock.delete(getLockFile(entry));
+            entries.remove(entry);
+            size -= entry.size;
+        }
+    }
+
+    private File getFolder(Entry entry) {
+        return new File(storeDir, entry.folder);
+    }
+
+    /**
+     * Lock file held shared by every JVM using the JDK.
+     */
+    private File getLockFile(Entry entry) {
+        return new File(locksDir, entry.folder + ".lock");
+    }
+
+    private ProcessLock lockIndex() throws IOException {
+        return ProcessLock.lock(new File(locksDir, "index.lock"));
+    }
+
+    private static String toFolderName(String name) {
+        return name.replaceAll("[^a-zA-Z0-9._+-]", "_");
+    }
+
+    /**
+     * Reads the index, leaving out JDKs whose folder was removed.
+     */
+    private List<Entry> readIndex() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        if (indexFile.exists()) {
+            try (Reader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+                Index index = new Gson().fromJson(reader, Index.class);
+                if (index != null && index.entries != null) entries.addAll(index.entries);
+            } catch (RuntimeException e) {
+                Logger.warn("Invalid JDK store index " + indexFile + ": " + e.getMessage());
+            }
+        }
+        entries.removeIf(e -> !getFolder(e).isDirectory());
+        return entries;
+    }
+
+    private void writeIndex(List<Entry> entries) throws IOException {
+        Files.createDirectories(storeDir.toPath());
+        Index index = new Index();
+        index.entries = entries;
+        // written aside and renamed, so the index is never read half written
+        File tempFile = new File(storeDir, indexFile.getName() + "." + UUID.randomUUID() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(index, writer);
+        }
+        Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * JDK in use by this build, released when closed.
+     */
+    public static class InUse implements AutoCloseable {
+
+        private final File folder;
+        private final ProcessLock.SharedHold hold;
+
+        private InUse(File folder, ProcessLock.SharedHold hold) {
+            this.folder = folder;
+            this.hold = hold;
+        }
+
+        /**
+         * Returns the JDK folder.
+         */
+        public File getFolder() {
+            return folder;
+        }
+
+        /**
+         * Releases the JDK, so it can be removed from the store again.
+         */
+        @Override
+        public void close() throws IOException {
+            hold.close();
+        }
+
+    }
+
+    /**
+     * Index file content.
+     */
+    private static class Index {
+        private List<Entry> entries;
+    }
+
+    /**
+     * Installed JDK.
+     */
+    public static class Entry {
+        public String vendor;
+        public String major;
+        public String build;
+        public String os;
+        public String arch;
+        /**
+         * Folder name inside the store.
+         */
+        public String folder;
+        /**
+         * Size (in bytes).
+         */
+        public long size;
+        /**
+         * Last time used (in milliseconds since epoch).
+         */
+        public long lastUsed;
+    }
+
+}
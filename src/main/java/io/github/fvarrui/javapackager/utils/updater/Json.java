@@ -1,11 +1,10 @@
 package io.github.fvarrui.javapackager.utils.updater;
 
 import com.google.gson.*;
+import okhttp3.Request;
+import okhttp3.Response;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,34 +26,21 @@ public class Json {
 
     /**
      * Returns the json-element. This can be a json-array or a json-object.
+     * It's fetched through the shared {@link Http} client, so it may come from its cache.
      *
      * @param url The url which leads to the json file.
      * @return JsonElement
      * @throws IOException When status code other than 200.
      */
     public static JsonElement fromUrl(String url) throws IOException {
-        HttpURLConnection con = null;
-        JsonElement element;
-        try {
-            con = (HttpURLConnection) new URL(url).openConnection();
-            con.addRequestProperty("User-Agent", "JavaPackager");
-            con.setConnectTimeout(1000);
-            con.connect();
-
-            if (con.getResponseCode() == 200) {
-                try (InputStreamReader inr = new InputStreamReader(con.getInputStream())) {
-                    element = JsonParser.parseReader(inr);
-                }
-            } else {
-                throw new IOException("error: " + con.getResponseCode() + " message: \"" + con.getResponseMessage() + "\" url: " + url);
-            }
-        } catch (IOException e) {
-            if (con != null) con.disconnect();
-            throw e;
-        } finally {
-            if (con != null) con.disconnect();
+        Request request = new Request.Builder().url(url)
+                .header("User-Agent", "JavaPackager")
+                .build();
+        try (Response response = Http.getClient().newCall(request).execute()) {
+            if (response.code() != 200 || response.body() == null)
+                throw new IOException("error: " + response.code() + " message: \"" + response.message() + "\" url: " + url);
+            return JsonParser.parseReader(response.body().charStream());
         }
-        return element;
     }
 
     public static JsonArray fromUrlAsJsonArray(String url) throws IOException {
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2021-2022 Osiris-Team.
+ * All rights reserved.
+ *
+ * This software is copyrighted work, licensed under the terms
+ * of the MIT-License. Consult the "LICENSE" file for details.
+ */
+
+package io.github.fvarrui.javapackager.utils.updater;
+
+import io.github.fvarrui.javapackager.utils.Logger;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Downloads a file through several HTTP Range requests in parallel, each one writing its
+ * own segment of a preallocated file. <br>
+ * Progress is saved to a state file next to the downloaded file, so an interrupted download
+ * is resumed where it was left instead of started again, as long as the remote file didn't
+ * change meanwhile (same length and ETag/Last-Modified).
+ */
+public class RangedDownload {
+
+    /**
+     * Size of the buffers used by each connection.
+     */
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Segments smaller than this aren't worth an extra connection.
+     */
+    private static final long MIN_SEGMENT_SIZE = 4L * 1024 * 1024;
+
+    /**
+     * Bytes downloaded between saves of the state file.
+     */
+    private static final long STATE_SAVE_INTERVAL = 16L * 1024 * 1024;
+
+    private final OkHttpClient client;
+    private final String url;
+    private final String userAgent;
+    private final long length;
+    private final String validator;
+    private final File file;
+    private final File stateFile;
+
+    private long[] starts;
+    private long[] ends;
+    private AtomicLongArray positions;
+    private FileChannel channel;
+    private long throughput;
+
+    /**
+     * @param url       the download-url, requested again for every segment.
+     * @param userAgent User-Agent header sent with every request.
+     * @param length    file length (in bytes).
+     * @param validator ETag or Last-Modified header of the remote file, used to check that a
+     *                  partial download can be resumed. Can be null.
+     * @param file      file where the download is written.
+     */
+    public RangedDownload(OkHttpClient client, String url, String userAgent, long length, String validator, File file) {
+        this.client = client;
+        this.url = url;
+        this.userAgent = userAgent;
+        this.length = length;
+        this.validator = validator;
+        this.file = file;
+        this.stateFile = new File(file.getPath() + ".state");
+    }
+
+    /**
+     * Downloads the file, resuming a previous partial download if possible.
+     * If it fails, the partial download is kept, so it can be resumed later.
+     *
+     * @param connections Max number of parallel connections.
+     */
+    public void execute(int connections) throws Exception {
+        if (!loadState()) {
+            int segments = (int) Math.max(1, Math.min(connections, length / MIN_SEGMENT_SIZE));
+            starts = new long[segments];
+            ends = new long[segments];
+            positions = new AtomicLongArray(segments);
+            long segmentSize = length / segments;
+            for (int i = 0; i < segments; i++) {
+                starts[i] = i * segmentSize;
+                ends[i] = i == segments - 1 ? length : (i + 1) * segmentSize;
+                positions.set(i, starts[i]);
+            }
+            Files.deleteIfExists(file.toPath());
+            file.getAbsoluteFile().getParentFile().mkdirs();
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(length);
+            }
+        } else {
+            Logger.info("Resuming download of " + file.getName() + " (" + getDownloaded() / (1024 * 1024) + "mb already downloaded)");
+        }
+
+        long resumedSize = getDownloaded();
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(starts.length);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            this.channel = channel;
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < starts.length; i++) {
+                final int segment = i;
+                if (positions.get(segment) < ends[segment]) {
+                    futures.add(executor.submit(() -> {
+                        downloadSegment(segment);
+                        return null;
+                    }));
+                }
+            }
+            Exception failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // errors too (e.g. out of direct buffer memory), so the state is saved anyway
+                    if (failure == null) failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : new IOException(e.getCause());
+                }
+            }
+            if (failure != null) {
+                saveState();
+                throw failure;
+            }
+            channel.force(false);
+        } finally {
+            executor.shutdownNow();
+            this.channel = null;
+        }
+        Files.deleteIfExists(stateFile.toPath());
+
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        throughput = (long) ((length - resumedSize) / seconds);
+        Logger.info("Downloaded " + file.getName() + " (" + length / (1024 * 1024) + "mb) in " + String.format("%.1f", seconds) + "s"
+                + " with " + starts.length + " connection(s) (" + String.format("%.1f", throughput / (1024.0 * 1024)) + "mb/s)");
+    }
+
+    private void downloadSegment(int segment) throws Exception {
+        Request request = new Request.Builder().url(url)
+                .header("User-Agent", userAgent)
+                .header("Range", "bytes=" + positions.get(segment) + "-" + (ends[segment] - 1))
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (response.code() != 206 || body == null)
+                throw new IOException("Download of range " + request.header("Range") + " failed! Code: " + response.code() + " Message: " + response.message() + " Url: " + url);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            ReadableByteChannel in = Channels.newChannel(body.byteStream());
+            long unsaved = 0;
+            while (positions.get(segment) < ends[segment]) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, ends[segment] - positions.get(segment)));
+                if (in.read(buffer) < 0)
+                    throw new IOException("Download of range " + request.header("Range") + " ended early at " + positions.get(segment) + " Url: " + url);
+                buffer.flip();
+                long position = positions.get(segment);
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                unsaved += position - positions.get(segment);
+                positions.set(segment, position);
+                if (unsaved >= STATE_SAVE_INTERVAL) {
+                    saveState();
+                    unsaved = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Bytes downloaded so far, including the ones of a resumed download.
+     */
+    public long getDownloaded() {
+        long downloaded = 0;
+        for (int i = 0; i < starts.length; i++) {
+            downloaded += positions.get(i) - starts[i];
+        }
+        return downloaded;
+    }
+
+    /**
+     * Retrieve this once the task finished to get a correct result.
+     *
+     * @return the average download speed (in bytes per second), without the resumed bytes.
+     */
+    public long getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * Saves the downloaded ranges. Written bytes are flushed first, so they are never
+     * taken as downloaded if they weren't written.
+     */
+    private synchronized void saveState() throws IOException {
+        channel.force(false);
+        Properties state = new Properties();
+        state.setProperty("url", url);
+        state.setProperty("length", String.valueOf(length));
+        if (validator != null) state.setProperty("validator", validator);
+        state.setProperty("segments", String.valueOf(starts.length));
+        for (int i = 0; i < starts.length; i++) {
+            state.setProperty("segment." + i, starts[i] + "-" + ends[i] + "-" + positions.get(i));
+        }
+        // written aside and renamed, so the state is never read half written
+        File tempFile = new File(stateFile.getPath() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+            state.store(writer, null);
+        }
+        Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Loads the state of a previous download of the same file.
+     *
+     * @return true if the previous download can be resumed.
+     */
+    private boolean loadState() {
+        if (!stateFile.isFile() || !file.isFile() || file.length() != length) return false;
+        Properties state = new Properties();
+        try (Reader reader = Files.newBufferedReader(stateFile.toPath(), StandardCharsets.UTF_8)) {
+            state.load(reader);
+            if (!url.equals(state.getProperty("url"))
+                    || !String.valueOf(length).equals(state.getProperty("length"))
+                    || !Objects.equals(validator, state.getProperty("validator")))
+                return false;
+            int segments = Integer.parseInt(state.getProperty("segments"));
+            starts = new long[segments];
+            ends = new long[segments];
+            positions = new AtomicLongArray(segments);
+            for (int i = 0; i < segments; i++) {
+                String[] range = state.getProperty("segment." + i).split("-");
+                starts[i] = Long.parseLong(range[0]);
+                ends[i] = Long.parseLong(range[1]);
+                positions.set(i, Long.parseLong(range[2]));
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            Logger.warn("Invalid download state " + stateFile + ", starting download again: " + e.getMessage());
+            return false;
+        }
+    }
+
+}
@@ -8,31 +8,58 @@
 
 package io.github.fvarrui.javapackager.utils.updater;
 
+import io.github.fvarrui.javapackager.utils.FileUtils;
 import io.github.fvarrui.javapackager.utils.Logger;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.util.Random;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class TaskJavaDownload {
+    /**
+     * Default max number of parallel connections per download.
+     */
+    public static final int DEFAULT_CONNECTIONS = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int connections;
+
     private File newDest;
     private boolean isTar;
     private String url;
     private File dest;
     private AdoptV3API.OperatingSystemType osType;
+    private String sha256;
+
+    public TaskJavaDownload() {
+        this(DEFAULT_CONNECTIONS);
+    }
+
+    /**
+     * @param connections Max number of parallel connections. If the server supports HTTP Range
+     *                    requests, the file is downloaded in segments, and an interrupted download
+     *                    is resumed by the next one (see {@link RangedDownload}).
+     */
+    public TaskJavaDownload(int connections) {
+        this.connections = connections;
+    }
 
     /**
      * @param url  the download-url.
@@ -40,6 +67,18 @@ public class TaskJavaDownload {
      *             the actual file type gets set when there is download information available.
      */
     public void execute(String url, File dest, AdoptV3API.OperatingSystemType osType) throws Exception {
+        execute(url, dest, osType, null);
+    }
+
+    /**
+     * @param url        the download-url.
+     * @param dest       the downloads final destination. Note that the file name must end with '.file', because
+     *                   the actual file type gets set when there is download information available.
+     * @param extractDir if not null, the downloaded archive is extracted into this folder, without its top-level
+     *                   folder (see {@link JdkArchiveExtractor}). Unless it's downloaded in segments, it's
+     *                   extracted while downloading it, and it's not written to the destination file.
+     */
+    public void execute(String url, File dest, AdoptV3API.OperatingSystemType osType, File extractDir) throws Exception {
         this.url = url;
         this.dest = dest;
         this.osType = osType;
@@ -47,10 +86,12 @@ public class TaskJavaDownload {
         String fileName = dest.getName();
         Logger.info("Fetching file " + fileName + " from: " + url);
 
+        String userAgent = "AutoPlug Client/" + new Random().nextInt() + " - https://autoplug.one";
         Request request = new Request.Builder().url(url)
-                .header("User-Agent", "AutoPlug Client/" + new Random().nextInt() + " - https://autoplug.one")
+                .header("User-Agent", userAgent)
                 .build();
-        Response response = new OkHttpClient().newCall(request).execute();
+        OkHttpClient client = Http.getDownloadClient();
+        Response response = client.newCall(request).execute();
         ResponseBody body = null;
         try {
             if (response.code() != 200)
@@ -96,6 +137,31 @@ public class TaskJavaDownload {
             }
 
 
+            long completeFileSize = body.contentLength();
+            boolean ranged = connections > 1 && completeFileSize > 0 && "bytes".equalsIgnoreCase(response.header("Accept-Ranges"));
+
+            if (extractDir != null && !ranged) {
+                // The digest and the decoder read the body as it arrives, so the archive is never written
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                // (buffered on top, as decoders may mark and reset it, and bytes must be hashed once)
+                CountingInputStream counter = new CountingInputStream(new DigestInputStream(body.byteStream(), digest));
+                InputStream in = new BufferedInputStream(counter, BUFFER_SIZE);
+                long start = System.nanoTime();
+                Logger.info("Downloading and extracting " + fileName + " with " + completeFileSize / (1024 * 1024) + "mb. This may take a bit...");
+                JdkArchiveExtractor.extract(in, isTar, extractDir);
+                // What's left after the last entry (e.g. zip central directory) is hashed too
+                byte[] data = new byte[BUFFER_SIZE];
+                while (in.read(data) >= 0) ;
+                double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+                Logger.info("Downloaded and extracted " + fileName + " (" + counter.getByteCount() / (1024 * 1024) + "mb)"
+                        + " in " + String.format("%.1f", seconds) + "s (" + String.format("%.1f", counter.getByteCount() / seconds / (1024 * 1024)) + "mb/s)");
+                in.close();
+                body.close();
+                response.close();
+                sha256 = bytesToHex(digest.digest());
+                return;
+            }
+
             // We need to at least create the cache dest to then rename it
             if (dest.exists()) dest.delete();
             dest.getParentFile().mkdirs();
@@ -107,27 +173,47 @@ public class TaskJavaDownload {
             newDest.getParentFile().mkdirs();
             newDest.createNewFile();
 
-            long completeFileSize = body.contentLength();
+            if (ranged) {
+                String validator = response.header("ETag") != null ? response.header("ETag") : response.header("Last-Modified");
+                body.close();
+                response.close();
+                // Downloaded aside, so a partial download is kept to be resumed
+                File partFile = new File(dest.getPath() + ".part");
+                Logger.info("Downloading " + fileName + " with " + completeFileSize / (1024 * 1024) + "mb. This may take a bit...");
+                new RangedDownload(client, url, userAgent, completeFileSize, validator, partFile).execute(connections);
+                // Segments are downloaded out of order, so the file is hashed once downloaded
+                sha256 = FileUtils.sha256(partFile);
+                Files.move(partFile.toPath(), newDest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                if (extractDir != null) JdkArchiveExtractor.extract(newDest, isTar, extractDir);
+                return;
+            }
 
-            BufferedInputStream in = new BufferedInputStream(body.byteStream());
+            // The digest is updated while the bytes are written, so the file is never read again to verify it
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            BufferedInputStream in = new BufferedInputStream(body.byteStream(), BUFFER_SIZE);
             FileOutputStream fos = new FileOutputStream(dest);
-            BufferedOutputStream bout = new BufferedOutputStream(fos, 1024);
-            byte[] data = new byte[1024];
+            OutputStream bout = new DigestOutputStream(new BufferedOutputStream(fos, BUFFER_SIZE), digest);
+            byte[] data = new byte[BUFFER_SIZE];
             long downloadedFileSize = 0;
             int x = 0;
+            long start = System.nanoTime();
             Logger.info("Downloading " + fileName + " with " + completeFileSize / (1024 * 1024) + "mb. This may take a bit...");
-            while ((x = in.read(data, 0, 1024)) >= 0) {
+            while ((x = in.read(data, 0, BUFFER_SIZE)) >= 0) {
                 downloadedFileSize += x;
                 bout.write(data, 0, x);
             }
 
-            Logger.info("Downloaded " + fileName + " (" + downloadedFileSize / (1024 * 1024) + "mb/" + completeFileSize / (1024 * 1024) + "mb)");
+            double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+            Logger.info("Downloaded " + fileName + " (" + downloadedFileSize / (1024 * 1024) + "mb/" + completeFileSize / (1024 * 1024) + "mb)"
+                    + " in " + String.format("%.1f", seconds) + "s (" + String.format("%.1f", downloadedFileSize / seconds / (1024 * 1024)) + "mb/s)");
             bout.close();
             in.close();
             body.close();
             response.close();
 
-            Files.copy(dest.toPath(), newDest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            sha256 = bytesToHex(digest.digest());
+
+            Files.move(dest.toPath(), newDest.toPath(), StandardCopyOption.REPLACE_EXISTING);
         } catch (Exception e) {
             if (body != null) body.close();
             response.close();
@@ -146,29 +232,33 @@ public class TaskJavaDownload {
         return newDest;
     }
 
+    /**
+     * Retrieve this once the task finished to get a correct result.
+     *
+     * @return the SHA-256 hash (hex) of the downloaded file, computed while downloading it,
+     * or null if the download didn't finish.
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
     /**
      * Only use this method after finishing the download.
-     * It will get the hash for the newly downloaded file and
-     * compare it with the given hash.
+     * It compares the hash of the newly downloaded file,
+     * computed while downloading it, with the given hash.
      *
      * @param sha256
      * @return true if the hashes match
      */
     public boolean compareWithSHA256(String sha256) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] encodedhash = digest.digest(
-                    FileUtils.readFileToByteArray(dest));
-            final String hashResult = bytesToHex(encodedhash);
-            Logger.debug("Comparing hashes (SHA-256):");
-            Logger.debug("Expected hash: " + sha256);
-            Logger.debug("Actual hash: " + hashResult);
-            return hashResult.equals(sha256);
-        } catch (Exception e) {
-            Logger.error("Failed to compare hashes.", e);
+        if (this.sha256 == null) {
+            Logger.error("Failed to compare hashes, as the download didn't finish.");
             return false;
         }
-
+        Logger.debug("Comparing hashes (SHA-256):");
+        Logger.debug("Expected hash: " + sha256);
+        Logger.debug("Actual hash: " + this.sha256);
+        return this.sha256.equalsIgnoreCase(sha256);
     }
 
     @NotNull
@@ -8,7 +8,6 @@
 
 package io.github.fvarrui.javapackager.utils.updater;
 
-import com.google.common.io.Files;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -16,11 +15,8 @@ import io.github.fvarrui.javapackager.model.Platform;
 import io.github.fvarrui.javapackager.utils.Const;
 import io.github.fvarrui.javapackager.utils.Logger;
 import io.github.fvarrui.javapackager.utils.NativeUtils;
+import io.github.fvarrui.javapackager.utils.ProcessLock;
 import org.apache.commons.io.FileUtils;
-import org.rauschig.jarchivelib.ArchiveFormat;
-import org.rauschig.jarchivelib.Archiver;
-import org.rauschig.jarchivelib.ArchiverFactory;
-import org.rauschig.jarchivelib.CompressionType;
 
 import java.io.File;
 import java.io.IOException;
@@ -29,49 +25,109 @@ import java.util.regex.Pattern;
 
 /**
  * Searches for updates and installs them is AUTOMATIC profile is selected.
+ * The installed JDK is kept in the store until the updater is closed.
  */
-public class TaskJavaUpdater {
+public class TaskJavaUpdater implements AutoCloseable {
+
+    private static final String ARCH = "x64";
 
     public File downloadsDir = new File(NativeUtils.getUserTempFolder() + "/downloads");
+    /**
+     * Installed JDK folder, set once {@link #execute(String, String)} finishes.
+     */
     public File jdkPath;
+    private JdkStore.InUse jdkInUse;
     public Platform platform;
     public AdoptV3API.OperatingSystemType osType;
+    public JdkStore store;
+    /**
+     * Max number of parallel connections per download.
+     */
+    public int downloadConnections = TaskJavaDownload.DEFAULT_CONNECTIONS;
+    /**
+     * Adoptium API base url (e.g. a mirror or proxy of it).
+     */
+    public String adoptiumUrl = AdoptV3API.DEFAULT_BASE_URL;
+    /**
+     * GitHub API base url (e.g. a mirror or proxy of it), used to find GraalVM releases.
+     */
+    public String githubUrl = Github.DEFAULT_API_URL;
+    /**
+     * If true, JDKs are only resolved from the local store, without checking for updates.
+     */
+    public boolean offline;
 
     public TaskJavaUpdater(Platform platform) {
+        this(platform, new JdkStore());
+    }
+
+    /**
+     * @param store Local store where JDKs are installed.
+     */
+    public TaskJavaUpdater(Platform platform, JdkStore store) {
         this.platform = platform;
+        this.store = store;
         switch (platform) {
             case linux:
-                jdkPath = new File(NativeUtils.getUserTempFolder() + "/jdk/linux");
                 osType = AdoptV3API.OperatingSystemType.LINUX;
                 break;
             case mac:
-                jdkPath = new File(NativeUtils.getUserTempFolder() + "/jdk/mac");
                 osType = AdoptV3API.OperatingSystemType.MAC;
                 break;
             case windows:
-                jdkPath = new File(NativeUtils.getUserTempFolder() + "/jdk/win");
                 osType = AdoptV3API.OperatingSystemType.WINDOWS;
                 break;
             default:
                 throw new RuntimeException();
         }
-        jdkPath.mkdirs();
     }
 
+    /**
+     * Finds the biggest major version of a JDK installed in the store for this platform.
+     *
+     * @return the major version, or null if there's none.
+     */
+    public String findInstalledMajor(String javaVendor) throws IOException {
+        return store.findLatestMajor(javaVendor, platform.name(), ARCH);
+    }
+
+    /**
+     * Checks for updates and installs them. Concurrent builds (even in other processes)
+     * looking for the same JDK wait for the one downloading it, and then use it.
+     */
+    @SuppressWarnings("try")
     public void execute(String javaVersion, String javaVendor) throws Exception {
         Objects.requireNonNull(javaVersion);
         Objects.requireNonNull(javaVendor);
+        try (ProcessLock lock = store.lockInstall(javaVendor, javaVersion, platform.name(), ARCH)) {
+            update(javaVersion, javaVendor);
+        }
+    }
+
+    private void update(String javaVersion, String javaVendor) throws Exception {
         Logger.info("Checking Java installation (looking for Java "+javaVersion+" by "+javaVendor+")...");
+        JdkStore.Entry installed = store.findLatest(javaVendor, javaVersion, platform.name(), ARCH);
+        if (installed != null) use(installed);
+        if (jdkPath == null) installed = null; // removed from the store meanwhile
+
+        if (offline) {
+            if (installed != null)
+                Logger.info("Offline mode, using installed Java " + installed.build + " without checking for updates");
+            else
+                Logger.error("Offline mode, and Java " + javaVersion + " by " + javaVendor + " is not installed in " + store.getStoreDir());
+            return;
+        }
+
         if (javaVendor.equals(Const.graalvm)) {
 
-            String currentVersion = getBuildID(javaVersion, javaVendor);
+            String currentVersion = installed != null ? installed.build : "0";
             String osName = (platform.equals(Platform.linux) ? "linux" :
                     platform.equals(Platform.mac) ? "darwin" :
                             platform.equals(Platform.windows) ? "windows" :
                                     null);
             Objects.requireNonNull(osName);
 
-            SearchResult result = Github.searchUpdate("graalvm/graalvm-ce-builds", currentVersion,
+            SearchResult result = Github.searchUpdate(githubUrl, "graalvm/graalvm-ce-builds", currentVersion,
                     assetName -> assetName.contains(osName)
                             && assetName.contains("amd64")
                             && !assetName.endsWith(".sha256")
@@ -100,10 +156,11 @@ public class TaskJavaUpdater {
         } else if (javaVendor.equals(Const.adoptium)) {
 
             AdoptV3API.OperatingSystemArchitectureType osArchitectureType = AdoptV3API.OperatingSystemArchitectureType.X64;
-            int currentBuildId = Integer.parseInt(getBuildID(javaVersion, javaVendor));
+            int currentBuildId = installed != null ? Integer.parseInt(installed.build) : 0;
             AdoptV3API.ImageType imageType = AdoptV3API.ImageType.JDK;
 
-            JsonObject jsonReleases = new AdoptV3API().getReleases(
+            AdoptV3API api = new AdoptV3API(AdoptV3API.DEFAULT_RELEASES_CACHE_TTL, adoptiumUrl);
+            JsonObject jsonReleases = api.getReleases(
                     osArchitectureType,
                     false,
                     imageType,
@@ -139,7 +196,7 @@ public class TaskJavaUpdater {
             // semver = the version string like: 11.0.0+28 for example // Not a typo ^-^
             String versionString = jsonLatestRelease.get("semver").toString().replace("\"", ""); // Returns with apostrophes ""
 
-            JsonArray jsonVersionDetails = new AdoptV3API().getVersionInformation(
+            JsonArray jsonVersionDetails = api.getVersionInformation(
                     versionString,
                     osArchitectureType,
                     false,
@@ -156,7 +213,7 @@ public class TaskJavaUpdater {
 
             // The release name that can be used to retrieve the download link
             String releaseName = jsonVersionDetails.get(0).getAsJsonObject().get("release_name").getAsString();
-            String downloadURL = new AdoptV3API().getDownloadUrl(
+            String downloadURL = api.getDownloadUrl(
                     releaseName,
                     osType,
                     osArchitectureType,
@@ -180,65 +237,50 @@ public class TaskJavaUpdater {
                           String currentVersion, String latestVersion,
                           String javaVersion, String javaVendor) throws Exception {
         Logger.info("Update found " + currentVersion + " -> " + latestVersion);
-        File final_dir_dest = jdkPath;
         File cache_dest = new File(downloadsDir + "/" + javaVendor + "-" + javaVersion + "-" + latestVersion + ".file");
-        TaskJavaDownload download = new TaskJavaDownload();
-        download.execute(downloadURL, cache_dest, osType);
-
-        Logger.info("Java update downloaded. Checking hash...");
-        if (!download.compareWithSHA256(expectedSha256))
-            throw new IOException("Hash of downloaded Java update is not valid!");
-        Logger.info("Hash is valid, removing old installation...");
-        FileUtils.deleteDirectory(final_dir_dest);
-        final_dir_dest.mkdirs();
-
-        Archiver archiver;
-        if (download.isTar())
-            archiver = ArchiverFactory.createArchiver(ArchiveFormat.TAR, CompressionType.GZIP);
-        else // A zip
-            archiver = ArchiverFactory.createArchiver(ArchiveFormat.ZIP);
-
-        // The zip/archive contains another folder inside like /jdk8+189
-        // thus we need to move that folders content to its parent dir
-        archiver.extract(download.getNewCacheDest(), final_dir_dest);
-        setBuildID("" + latestVersion, javaVersion, javaVendor);
-        File actualJdkPath = null;
-        for (File file : jdkPath.listFiles()) {
-            if (file.isDirectory()) {
-                actualJdkPath = file;
-                break;
-            }
-        }
-        for (File file : actualJdkPath.listFiles()) {
-            Files.move(file, new File(jdkPath + "/" + file.getName()));
+        TaskJavaDownload download = new TaskJavaDownload(downloadConnections);
+        // Previous builds are kept in the store, so switching back to them doesn't download them again.
+        // The archive is extracted into the store while it's downloaded, without its top-level folder
+        // (e.g. /jdk8+189), and it's installed by renaming it once its hash is checked
+        File stagingDir = store.createStagingFolder();
+        try {
+            download.execute(downloadURL, cache_dest, osType, stagingDir);
+
+            Logger.info("Java update downloaded. Checking hash...");
+            if (!download.compareWithSHA256(expectedSha256))
+                throw new IOException("Hash of downloaded Java update is not valid!");
+            Logger.info("Hash is valid, installing it...");
+
+            store.install(javaVendor, javaVersion, latestVersion, platform.name(), ARCH, stagingDir);
+            use(store.findLatest(javaVendor, javaVersion, platform.name(), ARCH));
+        } finally {
+            if (stagingDir.exists()) FileUtils.deleteDirectory(stagingDir);
+            // only this download is removed, as other builds may be downloading in the same folder
+            FileUtils.deleteQuietly(cache_dest);
+            FileUtils.deleteQuietly(download.getNewCacheDest());
         }
-        FileUtils.deleteDirectory(actualJdkPath);
-        FileUtils.deleteDirectory(downloadsDir);
         Logger.info("Java update was installed successfully (" + currentVersion + " -> " + latestVersion + ") at " + jdkPath);
     }
 
-    private String getFileNameWithoutID(String javaVersion, String javaVendor) {
-        return "java_packager_jdk_" + javaVersion + "_" + javaVendor + "_build_id";
+    /**
+     * Marks a JDK in the store as in use and sets it as the installed one, releasing the previous one.
+     */
+    private void use(JdkStore.Entry entry) throws IOException {
+        JdkStore.InUse used = entry != null ? store.use(entry) : null;
+        if (jdkInUse != null) jdkInUse.close();
+        jdkInUse = used;
+        jdkPath = used != null ? used.getFolder() : null;
     }
 
-    private String getBuildID(String javaVersion, String javaVendor) throws IOException {
-        for (File file : jdkPath.listFiles()) {
-            if (file.getName().startsWith(getFileNameWithoutID(javaVersion, javaVendor))) {
-                return file.getName().split(" ")[1];
-            }
-        }
-        setBuildID("0", javaVersion, javaVendor);
-        return "0";
-    }
-
-    private void setBuildID(String id, String javaVersion, String javaVendor) throws IOException {
-        for (File file : jdkPath.listFiles()) {
-            if (file.getName().startsWith(getFileNameWithoutID(javaVersion, javaVendor))) {
-                file.delete();
-            }
+    /**
+     * Releases the installed JDK, so it can be removed from the store again (e.g. once the build finishes).
+     */
+    @Override
+    public void close() throws IOException {
+        if (jdkInUse != null) {
+            jdkInUse.close();
+            jdkInUse = null;
         }
-        File file = new File(jdkPath + "/" + getFileNameWithoutID(javaVersion, javaVendor) + " " + id);
-        file.createNewFile();
     }
 
 }
@@ -0,0 +1,112 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import io.github.fvarrui.javapackager.utils.JdepsCache;
+import io.github.fvarrui.javapackager.utils.ToolUtils;
+import io.github.fvarrui.javapackager.utils.VersionUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class BundleJreTest {
+
+    @Test
+    void cachedModulesMatchAnalyzingAllJarsAtOnce(@TempDir Path tmp) throws Exception {
+        assumeTrue(VersionUtils.getJavaMajorVersion() >= 13);
+        assumeTrue(ToolProvider.getSystemJavaCompiler() != null);
+
+        // optional dependency, only resolved by jdeps along with non modular jars
+        File opt = module(tmp, "opt", null,
+                "module opt { exports opt; requires static java.sql; }",
+                "package opt; public class Opt { public static Object date() { return new java.sql.Date(0); } }");
+        File lib = module(tmp, "lib", null,
+                "module lib { exports lib; requires java.prefs; }",
+                "package lib; public class Lib { public static Object prefs() { return java.util.prefs.Preferences.userRoot(); } }");
+        File app = module(tmp, "app", opt.getParent() + File.pathSeparator + lib.getParent(),
+                "module app { requires lib; requires opt; }",
+                "package app; public class App { public static void main(String[] args) { lib.Lib.prefs(); opt.Opt.date(); } }");
+        File plain = module(tmp, "plain", null, null,
+                "package plain; public class Plain { public static void main(String[] args) { java.awt.Toolkit.getDefaultToolkit(); } }");
+
+        assertNull(BundleJre.getModuleName(plain, VersionUtils.getJavaMajorVersion()));
+        assertEquals("opt", BundleJre.getModuleName(opt, VersionUtils.getJavaMajorVersion()));
+
+        for (List<File> jars : Arrays.asList(Arrays.asList(opt, plain), Arrays.asList(opt, lib, app), Collections.singletonList(opt))) {
+            JdepsCache cache = new JdepsCache(tmp.resolve("jdeps").toFile());
+            Set<String> analyzed = new TreeSet<>(new BundleJre().getCachedRequiredModules(cache, javaHome(), true, jars, new ArrayList<>()));
+            Set<String> cached = new TreeSet<>(new BundleJre().getCachedRequiredModules(cache, javaHome(), true, jars, new ArrayList<>()));
+
+            assertEquals(analyzeAtOnce(jars), analyzed, "Modules of " + jars);
+            assertEquals(analyzed, cached);
+        }
+    }
+
+    private static Set<String> analyzeAtOnce(List<File> jars) throws Exception {
+        String modules = ToolUtils.execute(javaHome(), "jdeps", true,
+                "-q",
+                "--multi-release", VersionUtils.getJavaMajorVersion(),
+                "--ignore-missing-deps",
+                "--print-module-deps",
+                jars.toArray(new File[0]));
+        return Arrays.stream(modules.split(","))
+                .map(String::trim)
+                .filter(module -> !module.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static File javaHome() {
+        return new File(System.getProperty("java.home"));
+    }
+
+    /**
+     * Compiles a (modular if there's a module descriptor) jar with a single class
+     */
+    private static File module(Path tmp, String name, String modulePath, String descriptor, String source) throws Exception {
+        Path sources = Files.createDirectories(tmp.resolve("src").resolve(name));
+        Path classes = Files.createDirectories(tmp.resolve("classes").resolve(name));
+        List<String> args = new ArrayList<>(Arrays.asList("-d", classes.toString()));
+        if (modulePath != null) args.addAll(Arrays.asList("--module-path", modulePath));
+        if (descriptor != null) {
+            args.add(Files.write(sources.resolve("module-info.java"), descriptor.getBytes(StandardCharsets.UTF_8)).toString());
+        }
+        Path packageFolder = Files.createDirectories(sources.resolve(name));
+        String className = source.substring(source.indexOf("class ") + 6, source.indexOf(" {"));
+        args.add(Files.write(packageFolder.resolve(className + ".java"), source.getBytes(StandardCharsets.UTF_8)).toString());
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, args.toArray(new String[0])));
+
+        // jars are kept in their own folders, so modules can be found by folder
+        File jar = Files.createDirectories(tmp.resolve("jars").resolve(name)).resolve(name + ".jar").toFile();
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar.toPath()));
+             Stream<Path> files = Files.walk(classes)) {
+            for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                output.putNextEntry(new JarEntry(classes.relativize(file).toString().replace('\\', '/')));
+                Files.copy(file, (OutputStream) output);
+                output.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+}
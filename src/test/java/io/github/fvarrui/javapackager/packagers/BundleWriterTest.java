@@ -0,0 +1,206 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import io.github.fvarrui.javapackager.PackageTask;
+import io.github.fvarrui.javapackager.maven.MavenContext;
+import io.github.fvarrui.javapackager.model.TarballFormat;
+import io.github.fvarrui.javapackager.utils.Logger;
+import io.github.fvarrui.javapackager.utils.SourceDate;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BundleWriterTest {
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        Context.setContext(new MavenContext(null, new SystemStreamLog()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Logger.flush();
+        Context.setContext(null);
+    }
+
+    @Test
+    void writesSameEntriesToEveryBundle() throws Exception {
+        File appFolder = new File(tempDir, "app");
+        byte[] small = "small file".getBytes();
+        // big enough to be memory-mapped
+        byte[] big = new byte[3 * 1024 * 1024 + 7];
+        new Random(7).nextBytes(big);
+        write(new File(appFolder, "small.txt"), small);
+        write(new File(appFolder, "libs/big.bin"), big);
+        write(new File(appFolder, "libs/empty.txt"), new byte[0]);
+
+        File zipFile = new File(tempDir, "app.zip");
+        File tarFile = new File(tempDir, "app.tar.gz");
+        try (BundleWriter bundle = new BundleWriter(new ZipballWriter(zipFile), new TarballWriter(tarFile, TarballFormat.gz, 1, 2))) {
+            bundle.addFolder(appFolder, "app", new ExecutableFiles(new LinuxPackager(new PackageTask())));
+        }
+
+        Map<String, byte[]> zipEntries;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(zipFile.toPath()))) {
+            zipEntries = read(new ZipArchiveInputStream(in));
+        }
+        Map<String, byte[]> tarEntries;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(tarFile.toPath()))) {
+            tarEntries = read(new TarArchiveInputStream(new GzipCompressorInputStream(in)));
+        }
+
+        assertEquals(Arrays.asList("app/", "app/libs/", "app/libs/big.bin", "app/libs/empty.txt", "app/small.txt"), Arrays.asList(tarEntries.keySet().toArray()));
+        assertEquals(tarEntries.keySet(), zipEntries.keySet());
+        for (Map<String, byte[]> entries : Arrays.asList(zipEntries, tarEntries)) {
+            assertArrayEquals(small, entries.get("app/small.txt"));
+            assertArrayEquals(big, entries.get("app/libs/big.bin"));
+            assertArrayEquals(new byte[0], entries.get("app/libs/empty.txt"));
+        }
+    }
+
+    @Test
+    void reportsFailedBundleAfterFinishingTheOthers() throws Exception {
+        File appFolder = new File(tempDir, "app");
+        write(new File(appFolder, "file.txt"), "content".getBytes());
+
+        File tarFile = new File(tempDir, "app.tar.gz");
+        BundleSink failing = new BundleSink() {
+            @Override
+            public void addFolder(String path, long modTime) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void addFile(String path, int mode, long modTime, FileContent content) {
+            }
+
+            @Override
+            public void addLink(String path, String target, long modTime) {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        IOException error = assertThrows(IOException.class, () -> {
+            try (BundleWriter bundle = new BundleWriter(failing, new TarballWriter(tarFile))) {
+                bundle.addFolder(appFolder, "app", new ExecutableFiles(new LinuxPackager(new PackageTask())));
+            }
+        });
+        assertEquals("disk full", error.getMessage());
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(tarFile.toPath()))) {
+            assertArrayEquals("content".getBytes(), read(new TarArchiveInputStream(new GzipCompressorInputStream(in))).get("app/file.txt"));
+        }
+    }
+
+    @Test
+    void releasesContentsOnceEveryBundleIsWritten() throws Exception {
+        File appFolder = new File(tempDir, "app");
+        byte[] big = new byte[2 * 1024 * 1024];
+        new Random(3).nextBytes(big);
+        write(new File(appFolder, "big.bin"), big);
+        write(new File(appFolder, "small.txt"), "small".getBytes());
+
+        List<FileContent> contents = new ArrayList<>();
+        BundleSink recording = new BundleSink() {
+            @Override
+            public void addFolder(String path, long modTime) {
+            }
+
+            @Override
+            public void addFile(String path, int mode, long modTime, FileContent content) {
+                contents.add(content);
+            }
+
+            @Override
+            public void addLink(String path, String target, long modTime) {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        File zipFile = new File(tempDir, "app.zip");
+        try (BundleWriter bundle = new BundleWriter(recording, new ZipballWriter(zipFile))) {
+            bundle.addFolder(appFolder, "app", new ExecutableFiles(new LinuxPackager(new PackageTask())));
+        }
+
+        assertEquals(2, contents.size());
+        for (FileContent content : contents) {
+            assertThrows(IllegalStateException.class, content::openStream);
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(zipFile.toPath()))) {
+            assertArrayEquals(big, read(new ZipArchiveInputStream(in)).get("app/big.bin"));
+        }
+    }
+
+    @Test
+    void reproducibleBundlesAreIdentical() throws Exception {
+        File appFolder = new File(tempDir, "app");
+        write(new File(appFolder, "b.txt"), "b".getBytes());
+        write(new File(appFolder, "a/c.txt"), "c".getBytes());
+
+        byte[][] first = bundle(appFolder, new File(tempDir, "first"));
+        new File(appFolder, "b.txt").setLastModified(System.currentTimeMillis() - 3600 * 1000);
+        new File(appFolder, "a").setLastModified(System.currentTimeMillis() - 7200 * 1000);
+        byte[][] second = bundle(appFolder, new File(tempDir, "second"));
+
+        assertArrayEquals(first[0], second[0]);
+        assertArrayEquals(first[1], second[1]);
+    }
+
+    private static byte[][] bundle(File appFolder, File outputFolder) throws IOException {
+        outputFolder.mkdirs();
+        File zipFile = new File(outputFolder, "app.zip");
+        File tarFile = new File(outputFolder, "app.tar.zst");
+        try (BundleWriter bundle = new BundleWriter(new ZipballWriter(zipFile, true), new TarballWriter(tarFile, TarballFormat.zst, null, 4))) {
+            bundle.setFixedModTime(SourceDate.getTimestamp());
+            bundle.addFolder(appFolder, "app", new ExecutableFiles(new LinuxPackager(new PackageTask())));
+        }
+        return new byte[][] { Files.readAllBytes(zipFile.toPath()), Files.readAllBytes(tarFile.toPath()) };
+    }
+
+    private static Map<String, byte[]> read(ArchiveInputStream archive) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        ArchiveEntry entry;
+        while ((entry = archive.getNextEntry()) != null) {
+            entries.put(entry.getName(), IOUtils.toByteArray(archive));
+        }
+        return entries;
+    }
+
+    private static void write(File file, byte[] content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content);
+    }
+
+}
@@ -0,0 +1,70 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import io.github.fvarrui.javapackager.PackageTask;
+import io.github.fvarrui.javapackager.maven.MavenContext;
+import io.github.fvarrui.javapackager.utils.Logger;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class GenerateRpmTest {
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        Context.setContext(new MavenContext(null, new SystemStreamLog()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Logger.flush();
+        Context.setContext(null);
+    }
+
+    @Test
+    void reproducibleRpmsAreIdentical() throws Exception {
+        byte[] first = generateRpm(new File(tempDir, "first"));
+        Thread.sleep(1100);
+        byte[] second = generateRpm(new File(tempDir, "second"));
+        assertArrayEquals(first, second);
+    }
+
+    private static byte[] generateRpm(File outputDirectory) throws Exception {
+        PackageTask task = new PackageTask()
+                .appName("app")
+                .appDisplayName("App")
+                .version("1.0")
+                .description("App")
+                .organizationName("Org")
+                .outputDirectory(outputDirectory)
+                .reproducible(true);
+        LinuxPackager packager = new LinuxPackager(task);
+        packager.appFolder = new File(outputDirectory, "app");
+        packager.assetsFolder = new File(outputDirectory, "assets");
+        packager.executable = new File(packager.appFolder, "app");
+        packager.assetsFolder.mkdirs();
+        write(packager.executable, "#!/bin/sh");
+        write(new File(packager.appFolder, "libs/b.jar"), "b");
+        write(new File(packager.appFolder, "libs/a.jar"), "a");
+
+        File rpm = new GenerateRpm().doApply(packager);
+        return Files.readAllBytes(rpm.toPath());
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,88 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalBuildTest {
+
+    @Test
+    void keepsUnchangedFilesAndDropsStaleOnes(@TempDir Path tmp) throws Exception {
+        File assets = Files.createDirectories(tmp.resolve("assets")).toFile();
+        Path app = tmp.resolve("app");
+
+        IncrementalBuild first = new IncrementalBuild(app.toFile(), assets);
+        first.start();
+        write(app.resolve("app.jar"), "jar");
+        write(app.resolve("startup.sh"), "v1");
+        write(app.resolve("libs/removed.jar"), "removed");
+        assertFalse(first.reuse("jre", "key", app.resolve("jre").toFile()));
+        write(app.resolve("jre/release"), "JAVA_VERSION=17");
+        Files.setLastModifiedTime(app.resolve("app.jar"), FileTime.fromMillis(1000000000000L));
+        first.finish();
+
+        IncrementalBuild second = new IncrementalBuild(app.toFile(), assets);
+        second.start();
+        assertFalse(Files.exists(app));
+        write(app.resolve("app.jar"), "jar");
+        write(app.resolve("startup.sh"), "v2");
+        assertTrue(second.reuse("jre", "key", app.resolve("jre").toFile()));
+        second.finish();
+
+        assertEquals(1000000000000L, Files.getLastModifiedTime(app.resolve("app.jar")).toMillis());
+        assertEquals("v2", new String(Files.readAllBytes(app.resolve("startup.sh")), StandardCharsets.UTF_8));
+        assertEquals("JAVA_VERSION=17", new String(Files.readAllBytes(app.resolve("jre/release")), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(app.resolve("libs/removed.jar")));
+        assertFalse(Files.exists(assets.toPath().resolve("app.previous")));
+
+        IncrementalBuild third = new IncrementalBuild(app.toFile(), assets);
+        third.start();
+        assertFalse(third.reuse("jre", "another key", app.resolve("jre").toFile()));
+    }
+
+    @Test
+    void reusesCopiesOfUnchangedSources(@TempDir Path tmp) throws Exception {
+        File assets = Files.createDirectories(tmp.resolve("assets")).toFile();
+        Path app = tmp.resolve("app");
+        Path resource = tmp.resolve("resource.txt");
+        write(resource, "v1");
+
+        IncrementalBuild first = new IncrementalBuild(app.toFile(), assets);
+        first.start();
+        assertFalse(first.reuseCopy(resource.toFile(), app.resolve("resource.txt").toFile()));
+        write(app.resolve("resource.txt"), "v1");
+        write(app.resolve("startup.sh"), "v1");
+        first.finish();
+
+        IncrementalBuild second = new IncrementalBuild(app.toFile(), assets);
+        second.start();
+        assertTrue(second.reuseCopy(resource.toFile(), app.resolve("resource.txt").toFile()));
+        write(app.resolve("startup.sh"), "version 2");
+        second.finish();
+
+        assertEquals("v1", new String(Files.readAllBytes(app.resolve("resource.txt")), StandardCharsets.UTF_8));
+        // files whose size changed are not hashed
+        assertTrue(Files.readAllLines(assets.toPath().resolve("app.manifest")).contains("- 9 " + Files.getLastModifiedTime(app.resolve("startup.sh")).toMillis() + " startup.sh"));
+
+        write(resource, "v2");
+        Files.setLastModifiedTime(resource, FileTime.fromMillis(1000000000000L));
+        IncrementalBuild third = new IncrementalBuild(app.toFile(), assets);
+        third.start();
+        assertFalse(third.reuseCopy(resource.toFile(), app.resolve("resource.txt").toFile()));
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
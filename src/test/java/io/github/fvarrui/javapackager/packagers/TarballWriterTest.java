@@ -0,0 +1,134 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import io.github.fvarrui.javapackager.PackageTask;
+import com.github.luben.zstd.ZstdInputStream;
+import io.github.fvarrui.javapackager.maven.MavenContext;
+import io.github.fvarrui.javapackager.model.TarballFormat;
+import io.github.fvarrui.javapackager.utils.Logger;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TarballWriterTest {
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        Context.setContext(new MavenContext(null, new SystemStreamLog()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Logger.flush();
+        Context.setContext(null);
+    }
+
+    @Test
+    void keepsExecutablePermissionsAndSymlinks() throws Exception {
+        File appFolder = new File(tempDir, "app");
+        File jreFolder = new File(appFolder, "jre");
+        write(new File(appFolder, "app"), "#!/bin/sh");
+        write(new File(appFolder, "libs/lib.jar"), "jar");
+        write(new File(jreFolder, "bin/java"), "java");
+        write(new File(jreFolder, "lib/jspawnhelper"), "helper");
+        write(new File(jreFolder, "lib/modules"), "modules");
+        Files.createSymbolicLink(new File(appFolder, "link").toPath(), new File("libs/lib.jar").toPath());
+
+        LinuxPackager packager = new LinuxPackager(new PackageTask());
+        packager.appFolder = appFolder;
+        packager.executable = new File(appFolder, "app");
+        packager.jreDestinationFolder = jreFolder;
+
+        File tarFile = new File(tempDir, "app.tar.gz");
+        try (BundleWriter bundle = new BundleWriter(new TarballWriter(tarFile))) {
+            bundle.addFolder(appFolder, "app", new ExecutableFiles(packager));
+        }
+
+        Map<String, TarArchiveEntry> entries = read(tarFile);
+        assertEquals(0755, entries.get("app/app").getMode() & 0777);
+        assertEquals(0755, entries.get("app/jre/bin/java").getMode() & 0777);
+        assertEquals(0755, entries.get("app/jre/lib/jspawnhelper").getMode() & 0777);
+        assertEquals(0644, entries.get("app/jre/lib/modules").getMode() & 0777);
+        assertEquals(0644, entries.get("app/libs/lib.jar").getMode() & 0777);
+        assertTrue(entries.get("app/jre/").isDirectory());
+        assertTrue(entries.get("app/link").isSymbolicLink());
+        assertEquals("libs/lib.jar", entries.get("app/link").getLinkName());
+    }
+
+    @ParameterizedTest
+    @EnumSource(TarballFormat.class)
+    void compressesWithEveryFormat(TarballFormat format) throws Exception {
+        File appFolder = new File(tempDir, "app");
+        // big enough to be split in several compression blocks
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 400000; i++) {
+            content.append("line ").append(i).append('\n');
+        }
+        write(new File(appFolder, "data.txt"), content.toString());
+        write(new File(appFolder, "empty.txt"), "");
+
+        File tarFile = new File(tempDir, "app." + format.getExtension());
+        try (BundleWriter bundle = new BundleWriter(new TarballWriter(tarFile, format, 1, 2))) {
+            bundle.addFolder(appFolder, "app", new ExecutableFiles(new LinuxPackager(new PackageTask())));
+        }
+
+        Map<String, String> contents = new LinkedHashMap<>();
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(decompress(tarFile, format))) {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextTarEntry()) != null) {
+                if (entry.isFile()) contents.put(entry.getName(), IOUtils.toString(tar, StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(content.toString(), contents.get("app/data.txt"));
+        assertEquals("", contents.get("app/empty.txt"));
+    }
+
+    private static Map<String, TarArchiveEntry> read(File tarFile) throws IOException {
+        Map<String, TarArchiveEntry> entries = new LinkedHashMap<>();
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(decompress(tarFile, TarballFormat.gz))) {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextTarEntry()) != null) {
+                entries.put(entry.getName(), entry);
+            }
+        }
+        return entries;
+    }
+
+    private static InputStream decompress(File tarFile, TarballFormat format) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(tarFile.toPath()));
+        switch (format) {
+            case xz: return new XZCompressorInputStream(in, true);
+            case zst: return new ZstdInputStream(in);
+            default: return new GzipCompressorInputStream(in);
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,94 @@
+package io.github.fvarrui.javapackager.packagers;
+
+import io.github.fvarrui.javapackager.PackageTask;
+import io.github.fvarrui.javapackager.maven.MavenContext;
+import io.github.fvarrui.javapackager.utils.Logger;
+import org.apache.commons.compress.archivers.zip.Zip64ExtendedInformationExtraField;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipballWriterTest {
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        Context.setContext(new MavenContext(null, new SystemStreamLog()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Logger.flush();
+        Context.setContext(null);
+    }
+
+    @Test
+    void storesCompressedFilesAndKeepsPermissions() throws Exception {
+        File appFolder = new File(tempDir, "app");
+        File jreFolder = new File(appFolder, "jre");
+        write(new File(appFolder, "app"), "#!/bin/sh");
+        write(new File(appFolder, "libs/lib.jar"), "jar");
+        write(new File(appFolder, "README.txt"), "read me, read me, read me, read me");
+        write(new File(jreFolder, "bin/java"), "java");
+        write(new File(jreFolder, "lib/modules"), "modules");
+        Files.createSymbolicLink(new File(appFolder, "link").toPath(), new File("libs/lib.jar").toPath());
+
+        LinuxPackager packager = new LinuxPackager(new PackageTask());
+        packager.appFolder = appFolder;
+        packager.executable = new File(appFolder, "app");
+        packager.jreDestinationFolder = jreFolder;
+
+        File zipFile = new File(tempDir, "app.zip");
+        try (BundleWriter bundle = new BundleWriter(new ZipballWriter(zipFile, 2))) {
+            bundle.addFolder(appFolder, "app", new ExecutableFiles(packager));
+        }
+
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            assertEquals(0755, zip.getEntry("app/app").getUnixMode() & 0777);
+            assertEquals(0755, zip.getEntry("app/jre/bin/java").getUnixMode() & 0777);
+            assertEquals(0644, zip.getEntry("app/README.txt").getUnixMode() & 0777);
+            assertEquals(ZipEntry.DEFLATED, zip.getEntry("app/README.txt").getMethod());
+            assertEquals(ZipEntry.STORED, zip.getEntry("app/libs/lib.jar").getMethod());
+            assertEquals(ZipEntry.STORED, zip.getEntry("app/jre/lib/modules").getMethod());
+            assertTrue(zip.getEntry("app/jre/").isDirectory());
+            assertEquals("read me, read me, read me, read me", read(zip, "app/README.txt"));
+
+            ZipArchiveEntry link = zip.getEntry("app/link");
+            assertTrue(link.isUnixSymlink());
+            assertEquals("libs/lib.jar", zip.getUnixSymlink(link));
+
+            // small zipball, so no zip64 extra fields are needed
+            assertNull(zip.getEntry("app/libs/lib.jar").getExtraField(new Zip64ExtendedInformationExtraField().getHeaderId()));
+        }
+    }
+
+    private static String read(ZipFile zip, String name) throws IOException {
+        try (InputStream in = zip.getInputStream(zip.getEntry(name))) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,121 @@
+package io.github.fvarrui.javapackager.utils;
+
+import org.apache.commons.lang3.JavaVersion;
+import org.apache.commons.lang3.SystemUtils;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class CommandUtilsTest {
+
+    @Test
+    void keepsOutputPrintedRightBeforeExit(@TempDir Path tmp) throws Exception {
+        assumeFalse(SystemUtils.IS_OS_WINDOWS);
+        File script = Files.write(tmp.resolve("script.sh"), Arrays.asList(
+                "i=0",
+                "while [ $i -lt 2000 ]; do echo line$i; i=$((i+1)); done",
+                "echo failed >&2",
+                "exit 3")).toFile();
+
+        ExecutionResult result = CommandUtils.executeWithResult(tmp.toFile(), "sh", script);
+
+        assertEquals(3, result.getExitCode());
+        assertEquals(2000, result.getOutput().split("\n").length);
+        assertTrue(result.getOutput().endsWith("line1999\n"));
+        assertEquals("failed\n", result.getError());
+    }
+
+    @Test
+    void killsCommandOnTimeout() {
+        assumeFalse(SystemUtils.IS_OS_WINDOWS);
+
+        long start = System.currentTimeMillis();
+        assertThrows(CommandLineException.class, () -> CommandUtils.executeWithResult(new File("."), 500, "sleep", 30));
+        assertTrue(System.currentTimeMillis() - start < 10000);
+    }
+
+    @Test
+    void doesNotWaitForChildrenHoldingOutput(@TempDir Path tmp) throws Exception {
+        assumeFalse(SystemUtils.IS_OS_WINDOWS);
+        File script = Files.write(tmp.resolve("script.sh"), Arrays.asList(
+                "sleep 20 &",
+                "echo started")).toFile();
+
+        long start = System.currentTimeMillis();
+        ExecutionResult result = CommandUtils.executeWithResult(tmp.toFile(), 2000, "sh", script);
+
+        assertTrue(System.currentTimeMillis() - start < 10000);
+        assertEquals(0, result.getExitCode());
+        assertEquals("started\n", result.getOutput());
+    }
+
+    @Test
+    void keepsReadingOutputWhenLogFileFails(@TempDir Path tmp) throws Exception {
+        assumeFalse(SystemUtils.IS_OS_WINDOWS);
+        File fullDevice = new File("/dev/full");
+        assumeTrue(fullDevice.exists());
+        File script = Files.write(tmp.resolve("script.sh"), Arrays.asList(
+                "i=0",
+                "while [ $i -lt 20000 ]; do echo line$i; i=$((i+1)); done")).toFile();
+
+        ExecutionResult result = CommandUtils.executeWithResult(tmp.toFile(), new ExecutionOptions().timeout(30000).logFile(fullDevice), "sh", script.getAbsolutePath());
+
+        assertEquals(0, result.getExitCode());
+        assertTrue(result.getOutput().endsWith("line19999\n"));
+    }
+
+    @Test
+    void measuresCpuTimeOfShortCommands(@TempDir Path tmp) throws Exception {
+        assumeFalse(SystemUtils.IS_OS_WINDOWS);
+        assumeTrue(SystemUtils.isJavaVersionAtLeast(JavaVersion.JAVA_9));
+        File script = Files.write(tmp.resolve("script.sh"), Arrays.asList(
+                "i=0",
+                "while [ $i -lt 20000 ]; do i=$((i+1)); done")).toFile();
+
+        ExecutionResult result = CommandUtils.executeWithResult(tmp.toFile(), "sh", script);
+
+        assertEquals(0, result.getExitCode());
+        assertTrue(result.getCpuTime() >= 0);
+    }
+
+    @Test
+    void keepsOnlyLastLinesOfLongOutput(@TempDir Path tmp) throws Exception {
+        assumeFalse(SystemUtils.IS_OS_WINDOWS);
+        File script = Files.write(tmp.resolve("script.sh"), Arrays.asList(
+                "i=0",
+                "while [ $i -lt 2000 ]; do echo line$i; i=$((i+1)); done")).toFile();
+        File logFile = new File(tmp.toFile(), "logs/script.log");
+        List<String> lines = new ArrayList<>();
+
+        ExecutionOptions options = new ExecutionOptions()
+                .maxOutput(1000)
+                .logFile(logFile)
+                .outputListener(lines::add);
+        ExecutionResult result = CommandUtils.executeWithResult(tmp.toFile(), options, "sh", script);
+
+        assertEquals(0, result.getExitCode());
+        assertTrue(result.getOutput().length() <= 1000);
+        assertTrue(result.getOutput().endsWith("line1998\nline1999\n"));
+        assertTrue(result.getPeakOutputSize() <= 1000);
+        assertTrue(result.getOutputSize() > 10000);
+        assertTrue(result.getWallTime() >= 0);
+        assertEquals(2000, lines.size());
+        List<String> logged = Files.readAllLines(logFile.toPath());
+        assertEquals(2001, logged.size());
+        assertEquals("line1999", logged.get(2000));
+    }
+
+}
@@ -0,0 +1,91 @@
+package io.github.fvarrui.javapackager.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.fvarrui.javapackager.model.StagingMode;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FileCopierTest {
+
+    @Test
+    void copyFolderContent(@TempDir Path tmp) throws Exception {
+        Path source = Files.createDirectories(tmp.resolve("source/bin"));
+        Files.write(source.resolve("java"), "java".getBytes(StandardCharsets.UTF_8));
+        Files.write(tmp.resolve("source/release"), "release".getBytes(StandardCharsets.UTF_8));
+
+        Path dest = tmp.resolve("dest");
+        new FileCopier(false).copyFolderContent(tmp.resolve("source"), dest);
+
+        assertEquals("java", new String(Files.readAllBytes(dest.resolve("bin/java")), StandardCharsets.UTF_8));
+        assertEquals("release", new String(Files.readAllBytes(dest.resolve("release")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void preservesPermissionsAndSymlinks(@TempDir Path tmp) throws Exception {
+        assumeTrue(Files.getFileStore(tmp).supportsFileAttributeView("posix"));
+        Path source = Files.createDirectories(tmp.resolve("source"));
+        Path executable = Files.write(source.resolve("app"), "#!/bin/sh".getBytes(StandardCharsets.UTF_8));
+        Files.setPosixFilePermissions(executable, PosixFilePermissions.fromString("rwxr-xr-x"));
+        Files.createSymbolicLink(source.resolve("AppRun"), Paths.get("app"));
+
+        Path dest = tmp.resolve("dest");
+        new FileCopier(false).copyFolderContent(source, dest);
+
+        assertEquals("rwxr-xr-x", PosixFilePermissions.toString(Files.getPosixFilePermissions(dest.resolve("app"))));
+        assertTrue(Files.isSymbolicLink(dest.resolve("AppRun")));
+        assertEquals(Paths.get("app"), Files.readSymbolicLink(dest.resolve("AppRun")));
+    }
+
+    @Test
+    void linkModeStagesSameContent(@TempDir Path tmp) throws Exception {
+        Path source = Files.createDirectories(tmp.resolve("source/lib"));
+        Files.write(source.resolve("modules"), "modules".getBytes(StandardCharsets.UTF_8));
+
+        Path dest = tmp.resolve("dest");
+        new FileCopier(true, StagingMode.link).copyFolderContent(tmp.resolve("source"), dest);
+
+        assertEquals("modules", new String(Files.readAllBytes(dest.resolve("lib/modules")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void linkModeCopiesWhereFilesCantBeCloned(@TempDir Path tmp) throws Exception {
+        assumeTrue(Files.getFileStore(tmp).supportsFileAttributeView("posix"));
+        Path source = Files.createDirectories(tmp.resolve("source/bin"));
+        Path executable = Files.write(source.resolve("java"), "java".getBytes(StandardCharsets.UTF_8));
+        Files.setPosixFilePermissions(executable, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        // twice, checking the filesystem once and then using what was found
+        for (String name : new String[] { "dest", "again" }) {
+            Path dest = tmp.resolve(name);
+            new FileCopier(false, StagingMode.link, false).copyFolderContent(tmp.resolve("source"), dest);
+
+            assertEquals("java", new String(Files.readAllBytes(dest.resolve("bin/java")), StandardCharsets.UTF_8));
+            assertEquals("rwxr-xr-x", PosixFilePermissions.toString(Files.getPosixFilePermissions(dest.resolve("bin/java"))));
+            assertEquals(1, dest.toFile().list().length);
+        }
+    }
+
+    @Test
+    void linkModeWithoutHardLinksKeepsSourceUnchanged(@TempDir Path tmp) throws Exception {
+        Path source = Files.createDirectories(tmp.resolve("source/bin"));
+        Files.write(source.resolve("java"), "java".getBytes(StandardCharsets.UTF_8));
+
+        Path dest = tmp.resolve("dest");
+        new FileCopier(true, StagingMode.link, false).copyFolderContent(tmp.resolve("source"), dest);
+        Files.write(dest.resolve("bin/java"), "signed".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+
+        assertEquals("java", new String(Files.readAllBytes(source.resolve("java")), StandardCharsets.UTF_8));
+    }
+
+}
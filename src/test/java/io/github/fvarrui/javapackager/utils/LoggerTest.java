@@ -0,0 +1,104 @@
+package io.github.fvarrui.javapackager.utils;
+
+import io.github.fvarrui.javapackager.maven.MavenContext;
+import io.github.fvarrui.javapackager.packagers.Context;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoggerTest {
+
+    private final List<String> lines = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger debugChecks = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        Context.setContext(new MavenContext(null, new SystemStreamLog() {
+            @Override
+            public void info(CharSequence content) {
+                lines.add(content.toString());
+            }
+
+            @Override
+            public boolean isDebugEnabled() {
+                debugChecks.incrementAndGet();
+                return false;
+            }
+        }));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Logger.flush();
+        Context.setContext(null);
+    }
+
+    @Test
+    void keepsIndentationPerThread() throws Exception {
+        int threads = 4;
+        CountDownLatch indented = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String name = "task" + i;
+                futures.add(executor.submit(() -> {
+                    Logger.setPrefix("[" + name + "]");
+                    Logger.infoIndent("start");
+                    indented.countDown();
+                    indented.await();
+                    Logger.info("working");
+                    Logger.infoUnindent("end");
+                    Logger.setPrefix(null);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+        Logger.flush();
+
+        for (int i = 0; i < threads; i++) {
+            assertTrue(lines.contains("[task" + i + "] start"));
+            assertTrue(lines.contains("    [task" + i + "] working"));
+            assertTrue(lines.contains("[task" + i + "] end"));
+        }
+        assertEquals(0, Logger.getTabs());
+    }
+
+    @Test
+    void writesMessagesInOrder() {
+        for (int i = 0; i < 1000; i++) {
+            Logger.info("line" + i);
+        }
+        Logger.flush();
+
+        assertEquals(1000, lines.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("line" + i, lines.get(i));
+        }
+    }
+
+    @Test
+    void doesntBuildDisabledDebugMessages() {
+        Logger.debug(() -> {
+            throw new AssertionError("debug message built");
+        });
+        assertEquals(1, debugChecks.get());
+    }
+
+}
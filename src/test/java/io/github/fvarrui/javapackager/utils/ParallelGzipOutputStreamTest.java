@@ -0,0 +1,62 @@
+package io.github.fvarrui.javapackager.utils;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelGzipOutputStreamTest {
+
+    @Test
+    void compressesSeveralBlocks() throws IOException {
+        // compressible data bigger than several blocks, not multiple of block size
+        byte[] data = new byte[1024 * 1024 + 12345];
+        Random random = new Random(42);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('a' + random.nextInt(4));
+        }
+        byte[] compressed = compress(data);
+        assertTrue(compressed.length < data.length / 2);
+        assertArrayEquals(data, decompress(compressed));
+    }
+
+    @Test
+    void compressesEmptyData() throws IOException {
+        assertArrayEquals(new byte[0], decompress(compress(new byte[0])));
+    }
+
+    @Test
+    void compressesSmallWrites() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, 6, 3)) {
+            for (int i = 0; i < 300000; i++) {
+                gzip.write(i % 251);
+                expected.write(i % 251);
+            }
+        }
+        assertArrayEquals(expected.toByteArray(), decompress(out.toByteArray()));
+    }
+
+    private static byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out)) {
+            gzip.write(data, 0, data.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] data) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+}
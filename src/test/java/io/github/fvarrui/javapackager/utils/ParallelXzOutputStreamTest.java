@@ -0,0 +1,45 @@
+package io.github.fvarrui.javapackager.utils;
+
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelXzOutputStreamTest {
+
+    @Test
+    void compressesSeveralBlocks() throws IOException {
+        // compressible data bigger than several blocks (1 MB with preset 0), not multiple of block size
+        byte[] data = new byte[3 * 1024 * 1024 + 12345];
+        Random random = new Random(42);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('a' + random.nextInt(4));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelXzOutputStream xz = new ParallelXzOutputStream(out, 0, 3)) {
+            xz.write(data);
+        }
+        assertTrue(out.size() < data.length / 2);
+        try (XZCompressorInputStream in = new XZCompressorInputStream(new ByteArrayInputStream(out.toByteArray()), true)) {
+            assertArrayEquals(data, IOUtils.toByteArray(in));
+        }
+    }
+
+    @Test
+    void dictionaryIsNotBiggerThanBlock() throws IOException {
+        try (ParallelXzOutputStream xz = new ParallelXzOutputStream(new ByteArrayOutputStream(), 9, 16)) {
+            // preset 9 alone (64 MB dictionary) needs about 673 MB per encoder
+            assertTrue(xz.getEncoderMemoryUsage() <= 12L * xz.getBlockSize());
+            long threadMemory = xz.getEncoderMemoryUsage() + 2L * xz.getBlockSize();
+            assertTrue(xz.getThreads() == 1 || xz.getThreads() * threadMemory <= Runtime.getRuntime().maxMemory() / 2);
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package io.github.fvarrui.javapackager.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProcessLockTest {
+
+    @Test
+    @SuppressWarnings("try")
+    void waitsUntilReleased(@TempDir Path tmp) throws Exception {
+        File lockFile = new File(tmp.toFile(), "test.lock");
+
+        CompletableFuture<Void> other;
+        try (ProcessLock lock = ProcessLock.lock(lockFile)) {
+            // reentrant for the same thread
+            try (ProcessLock again = ProcessLock.lock(lockFile)) {
+                assertTrue(ProcessLock.isLocked(lockFile));
+            }
+            assertTrue(ProcessLock.isLocked(lockFile));
+
+            other = CompletableFuture.runAsync(() -> {
+                try (ProcessLock otherLock = ProcessLock.lock(lockFile)) {
+                    // acquired
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            assertThrows(TimeoutException.class, () -> other.get(200, TimeUnit.MILLISECONDS));
+        }
+
+        other.get(5, TimeUnit.SECONDS);
+        assertFalse(ProcessLock.isLocked(lockFile));
+    }
+
+    @Test
+    void sharedLockIsHeldUntilAllHoldsAreClosed(@TempDir Path tmp) throws Exception {
+        File lockFile = new File(tmp.toFile(), "shared.lock");
+        assertFalse(ProcessLock.isLocked(lockFile));
+
+        ProcessLock.SharedHold first = ProcessLock.holdShared(lockFile);
+        ProcessLock.SharedHold second = ProcessLock.holdShared(lockFile);
+        assertTrue(ProcessLock.isLocked(lockFile));
+
+        first.close();
+        first.close();
+        assertTrue(ProcessLock.isLocked(lockFile));
+
+        second.close();
+        assertFalse(ProcessLock.isLocked(lockFile));
+    }
+
+    @Test
+    void sharedLockSurvivesIsLockedInOtherProcess(@TempDir Path tmp) throws Exception {
+        File lockFile = new File(tmp.toFile(), "child.lock");
+
+        String classpath = Paths.get(ProcessLockTest.class.getProtectionDomain().getCodeSource().getLocation().toURI()) + File.pathSeparator
+                + Paths.get(ProcessLock.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process child = new ProcessBuilder(java, "-cp", classpath, SharedLockHolder.class.getName(), lockFile.getAbsolutePath())
+                .redirectErrorStream(true)
+                .start();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("ready", reader.readLine());
+
+            // the child checked its own lock, which must not release it
+            assertTrue(ProcessLock.isLocked(lockFile));
+        } finally {
+            child.getOutputStream().close();
+            assertTrue(child.waitFor(10, TimeUnit.SECONDS));
+        }
+        assertFalse(ProcessLock.isLocked(lockFile));
+    }
+
+    /**
+     * Holds a shared lock and checks it, until its input is closed
+     */
+    public static class SharedLockHolder {
+
+        public static void main(String[] args) throws Exception {
+            File lockFile = new File(args[0]);
+            ProcessLock.SharedHold hold = ProcessLock.holdShared(lockFile);
+            if (!ProcessLock.isLocked(lockFile)) throw new IllegalStateException("Not locked");
+            System.out.println("ready");
+            System.out.flush();
+            while (System.in.read() != -1) {
+                // waits until closed
+            }
+            hold.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+package io.github.fvarrui.javapackager.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProcessSchedulerTest {
+
+    @AfterEach
+    void restoreBudget() {
+        ProcessScheduler.configure(0, 0);
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    void heavyToolWaitsForRunningOnes() throws Exception {
+        ProcessScheduler.configure(2, 1000);
+        ProcessScheduler.setWeight("light-tool", new ProcessScheduler.Weight(1, 100));
+        ProcessScheduler.setWeight("heavy-tool", new ProcessScheduler.Weight(1, 800));
+
+        CompletableFuture<Void> heavy;
+        try (ProcessScheduler.Permit light = ProcessScheduler.acquire("/usr/bin/light-tool")) {
+            try (ProcessScheduler.Permit other = acquireOnOtherThread("light-tool").get(5, TimeUnit.SECONDS)) {
+                // both light tools fit, but not the heavy one, until they finish
+                heavy = acquireOnOtherThread("heavy-tool").thenAccept(ProcessScheduler.Permit::close);
+                assertThrows(TimeoutException.class, () -> heavy.get(500, TimeUnit.MILLISECONDS));
+            }
+        }
+        heavy.get(5, TimeUnit.SECONDS);
+        assertTrue(heavy.isDone());
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    void toolHeavierThanBudgetRunsAlone() throws Exception {
+        ProcessScheduler.configure(2, 1000);
+        ProcessScheduler.setWeight("huge-tool", new ProcessScheduler.Weight(Integer.MAX_VALUE, 8000));
+
+        CompletableFuture<Void> light;
+        try (ProcessScheduler.Permit huge = ProcessScheduler.acquire("huge-tool.exe")) {
+            light = acquireOnOtherThread("other-tool").thenAccept(ProcessScheduler.Permit::close);
+            assertThrows(TimeoutException.class, () -> light.get(500, TimeUnit.MILLISECONDS));
+        }
+        light.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void nestedToolsDontWaitForThemselves() throws Exception {
+        ProcessScheduler.configure(1, 0);
+
+        try (ProcessScheduler.Permit outer = ProcessScheduler.acquire("some-tool");
+             ProcessScheduler.Permit inner = ProcessScheduler.acquire("other-tool")) {
+            assertTrue(outer != inner);
+        }
+        acquireOnOtherThread("some-tool").get(5, TimeUnit.SECONDS).close();
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    void budgetIsOnlyIncreasedWhileToolsRun() throws Exception {
+        ProcessScheduler.configure(4, 2000);
+
+        try (ProcessScheduler.Permit permit = ProcessScheduler.acquire("some-tool")) {
+            // another packager starting with a smaller budget doesn't shrink the active one
+            ProcessScheduler.configure(1, 500);
+            assertEquals(4, ProcessScheduler.getMaxSlots());
+            assertEquals(2000, ProcessScheduler.getMaxMemory());
+            ProcessScheduler.configure(8, 4000);
+            assertEquals(8, ProcessScheduler.getMaxSlots());
+            assertEquals(4000, ProcessScheduler.getMaxMemory());
+        }
+
+        ProcessScheduler.configure(1, 500);
+        assertEquals(1, ProcessScheduler.getMaxSlots());
+        assertEquals(500, ProcessScheduler.getMaxMemory());
+    }
+
+    private static CompletableFuture<ProcessScheduler.Permit> acquireOnOtherThread(String tool) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ProcessScheduler.acquire(tool);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,115 @@
+package io.github.fvarrui.javapackager.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.fvarrui.javapackager.model.StagingMode;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeCacheTest {
+
+    @Test
+    void buildsEachRuntimeOnce(@TempDir Path tmp) throws Exception {
+        RuntimeCache cache = new RuntimeCache(tmp.toFile());
+        AtomicInteger builds = new AtomicInteger();
+        RuntimeCache.RuntimeBuilder builder = folder -> {
+            builds.incrementAndGet();
+            Files.createDirectories(folder.toPath().resolve("bin"));
+        };
+
+        File first = cache.get("key", builder);
+        File second = cache.get("key", builder);
+
+        assertEquals(1, builds.get());
+        assertEquals(first, second);
+        assertTrue(new File(second, "bin").isDirectory());
+    }
+
+    @Test
+    void concurrentBuildsWaitForTheSameRuntime(@TempDir Path tmp) throws Exception {
+        RuntimeCache cache = new RuntimeCache(tmp.toFile());
+        AtomicInteger builds = new AtomicInteger();
+        RuntimeCache.RuntimeBuilder builder = folder -> {
+            builds.incrementAndGet();
+            Thread.sleep(100);
+            Files.createDirectories(folder.toPath().resolve("bin"));
+        };
+
+        CompletableFuture<File> first = CompletableFuture.supplyAsync(() -> get(cache, builder));
+        CompletableFuture<File> second = CompletableFuture.supplyAsync(() -> get(cache, builder));
+
+        assertEquals(first.get(), second.get());
+        assertEquals(1, builds.get());
+    }
+
+    private static File get(RuntimeCache cache, RuntimeCache.RuntimeBuilder builder) {
+        try {
+            return cache.get("key", builder);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    void failedBuildIsNotCached(@TempDir Path tmp) throws Exception {
+        RuntimeCache cache = new RuntimeCache(tmp.toFile());
+
+        assertThrows(Exception.class, () -> cache.get("key", folder -> {
+            Files.createDirectories(folder.toPath());
+            throw new Exception("jlink failed");
+        }));
+
+        assertEquals(0, tmp.toFile().list((dir, name) -> !name.endsWith(".lock")).length);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedRuntimes(@TempDir Path tmp) throws Exception {
+        RuntimeCache cache = new RuntimeCache(tmp.toFile(), 25);
+        RuntimeCache.RuntimeBuilder builder = folder -> {
+            Files.createDirectories(folder.toPath());
+            Files.write(folder.toPath().resolve("lib"), new byte[10]);
+        };
+
+        File first = cache.get("first", builder);
+        Thread.sleep(5);
+        File second = cache.get("second", builder);
+        Thread.sleep(5);
+        // using the first one again makes the second one the least recently used one
+        cache.get("first", builder);
+        Thread.sleep(5);
+        File third = cache.get("third", builder);
+
+        assertTrue(first.isDirectory());
+        assertFalse(second.exists());
+        assertTrue(third.isDirectory());
+    }
+
+    @Test
+    void copiesAreIndependentFromCache(@TempDir Path tmp) throws Exception {
+        RuntimeCache cache = new RuntimeCache(new File(tmp.toFile(), "cache"));
+        RuntimeCache.RuntimeBuilder builder = folder -> {
+            Files.createDirectories(folder.toPath().resolve("bin"));
+            Files.write(folder.toPath().resolve("bin/java"), "java".getBytes(StandardCharsets.UTF_8));
+        };
+
+        File copy = new File(tmp.toFile(), "jre");
+        cache.copyTo("key", builder, copy, StagingMode.link);
+        Files.write(new File(copy, "bin/java").toPath(), "signed".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+
+        File cached = cache.get("key", builder);
+        assertEquals("java", new String(Files.readAllBytes(new File(cached, "bin/java").toPath()), StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,23 @@
+package io.github.fvarrui.javapackager.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ToolUtilsTest {
+
+    @Test
+    void inProcessToolMatchesForkedOne() throws Exception {
+        File javaHome = new File(System.getProperty("java.home"));
+        assumeTrue(VersionUtils.getJavaMajorVersion() >= 9);
+
+        String inProcess = ToolUtils.execute(javaHome, "jdeps", true, "--version");
+        String forked = ToolUtils.execute(javaHome, "jdeps", false, "--version");
+
+        assertEquals(forked.trim(), inProcess.trim());
+    }
+
+}
@@ -0,0 +1,31 @@
+package io.github.fvarrui.javapackager.utils.updater;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdoptV3APITest {
+
+    @Test
+    void cachesAvailableReleasesPerApi() throws Exception {
+        try (TestHttpServer adoptium = availableReleases("17");
+             TestHttpServer mirror = availableReleases("21")) {
+            AdoptV3API adoptiumApi = new AdoptV3API(AdoptV3API.DEFAULT_RELEASES_CACHE_TTL, adoptium.getUrl() + "/v3");
+            AdoptV3API mirrorApi = new AdoptV3API(AdoptV3API.DEFAULT_RELEASES_CACHE_TTL, mirror.getUrl() + "/v3/");
+
+            assertEquals("17", adoptiumApi.getLatestLTSRelease());
+            assertEquals("21", mirrorApi.getLatestLTSRelease());
+        }
+    }
+
+    private static TestHttpServer availableReleases(String lts) throws Exception {
+        TestHttpServer server = new TestHttpServer();
+        String releases = "{\"available_lts_releases\":[" + lts + "],\"available_releases\":[" + lts + "],"
+                + "\"most_recent_feature_release\":" + lts + ",\"most_recent_lts\":" + lts + "}";
+        server.serve("/v3/info/available_releases", releases.getBytes(StandardCharsets.UTF_8), "application/json");
+        return server;
+    }
+
+}
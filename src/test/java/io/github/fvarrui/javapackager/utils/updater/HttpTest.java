@@ -0,0 +1,45 @@
+package io.github.fvarrui.javapackager.utils.updater;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HttpTest {
+
+    @Test
+    void revalidatesCachedResponses(@TempDir Path tmp) throws Exception {
+        try (TestHttpServer server = new TestHttpServer()) {
+            String url = server.serve("/available_releases", "{\"most_recent_lts\":17}".getBytes());
+            OkHttpClient client = Http.newClient(tmp.toFile());
+
+            assertEquals("{\"most_recent_lts\":17}", get(client, url));
+            assertEquals("{\"most_recent_lts\":17}", get(client, url));
+
+            assertEquals(1, server.getNotModified());
+        }
+    }
+
+    @Test
+    void retriesFailedRequests(@TempDir Path tmp) throws Exception {
+        try (TestHttpServer server = new TestHttpServer()) {
+            String url = server.serve("/available_releases", "{}".getBytes());
+            server.respondWith(503, 2);
+
+            assertEquals("{}", get(Http.newClient(tmp.toFile()), url));
+            assertEquals(3, server.getRequests());
+        }
+    }
+
+    private static String get(OkHttpClient client, String url) throws Exception {
+        try (Response response = client.newCall(new Request.Builder().url(url).build()).execute()) {
+            return response.body().string();
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package io.github.fvarrui.javapackager.utils.updater;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JdkArchiveExtractorTest {
+
+    @Test
+    void extractsRelativeLinks(@TempDir Path tmp) throws Exception {
+        byte[] archive = tarGz(tar -> {
+            putFile(tar, "jdk/lib/libjvm.so", new byte[] { 1, 2, 3 });
+            putLink(tar, "jdk/bin/libjvm.so", "../lib/libjvm.so");
+        });
+        File destination = new File(tmp.toFile(), "jdk");
+
+        JdkArchiveExtractor.extract(new ByteArrayInputStream(archive), true, destination);
+
+        Path link = new File(destination, "bin/libjvm.so").toPath();
+        assertTrue(Files.isSymbolicLink(link));
+        assertArrayEquals(new byte[] { 1, 2, 3 }, Files.readAllBytes(link));
+    }
+
+    @Test
+    void rejectsAbsoluteLinks(@TempDir Path tmp) throws Exception {
+        File outside = Files.createDirectories(tmp.resolve("outside")).toFile();
+        byte[] archive = tarGz(tar -> {
+            putLink(tar, "jdk/a", outside.getAbsolutePath());
+            putFile(tar, "jdk/a/.ssh/authorized_keys", new byte[] { 1 });
+        });
+
+        assertThrows(IOException.class, () -> JdkArchiveExtractor.extract(new ByteArrayInputStream(archive), true, new File(tmp.toFile(), "jdk")));
+        assertFalse(new File(outside, ".ssh/authorized_keys").exists());
+    }
+
+    @Test
+    void rejectsLinksLeavingDestination(@TempDir Path tmp) throws Exception {
+        File outside = Files.createDirectories(tmp.resolve("outside")).toFile();
+        byte[] archive = tarGz(tar -> {
+            putLink(tar, "jdk/lib/a", "../../outside");
+            putFile(tar, "jdk/lib/a/.ssh/authorized_keys", new byte[] { 1 });
+        });
+
+        assertThrows(IOException.class, () -> JdkArchiveExtractor.extract(new ByteArrayInputStream(archive), true, new File(tmp.toFile(), "jdk")));
+        assertFalse(new File(outside, ".ssh/authorized_keys").exists());
+    }
+
+    @Test
+    void rejectsChainedLinksLeavingDestination(@TempDir Path tmp) throws Exception {
+        byte[] archive = tarGz(tar -> {
+            putFile(tar, "jdk/a/release", new byte[] { 1 });
+            putLink(tar, "jdk/a/l1", "..");
+            putLink(tar, "jdk/a/l2", "l1/..");
+        });
+        File destination = new File(tmp.toFile(), "jdk");
+
+        assertThrows(IOException.class, () -> JdkArchiveExtractor.extract(new ByteArrayInputStream(archive), true, destination));
+        assertFalse(Files.exists(destination.toPath().resolve("a/l2"), LinkOption.NOFOLLOW_LINKS));
+    }
+
+    private interface TarContent {
+        void write(TarArchiveOutputStream tar) throws IOException;
+    }
+
+    private static byte[] tarGz(TarContent content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(new GzipCompressorOutputStream(bytes))) {
+            tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            content.write(tar);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void putFile(TarArchiveOutputStream tar, String name, byte[] content) throws IOException {
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(content.length);
+        tar.putArchiveEntry(entry);
+        tar.write(content);
+        tar.closeArchiveEntry();
+    }
+
+    private static void putLink(TarArchiveOutputStream tar, String name, String target) throws IOException {
+        TarArchiveEntry entry = new TarArchiveEntry(name, TarArchiveEntry.LF_SYMLINK);
+        entry.setLinkName(target);
+        tar.putArchiveEntry(entry);
+        tar.closeArchiveEntry();
+    }
+
+}
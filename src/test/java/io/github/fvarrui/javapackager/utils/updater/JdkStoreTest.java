@@ -0,0 +1,69 @@
+package io.github.fvarrui.javapackager.utils.updater;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JdkStoreTest {
+
+    @Test
+    void keepsSeveralJdksAndEvictsLeastRecentlyUsed(@TempDir Path tmp) throws Exception {
+        JdkStore store = new JdkStore(tmp.toFile(), 25);
+
+        File jdk11 = store.install("adoptium", "11", "28", "linux", "x64", jdk(store, 10));
+        Thread.sleep(5);
+        File jdk17 = store.install("adoptium", "17", "35", "linux", "x64", jdk(store, 10));
+        assertEquals("28", store.findLatest("adoptium", "11", "linux", "x64").build);
+        assertNull(store.findLatest("adoptium", "11", "mac", "x64"));
+
+        // using 11 again makes 17 the least recently used one
+        Thread.sleep(5);
+        store.use(store.findLatest("adoptium", "11", "linux", "x64")).close();
+        Thread.sleep(5);
+        File graalvm = store.install("graalvm", "17", "22.3.0", "linux", "x64", jdk(store, 10));
+
+        assertTrue(jdk11.isDirectory());
+        assertFalse(jdk17.exists());
+        assertTrue(graalvm.isDirectory());
+        assertNull(store.findLatest("adoptium", "17", "linux", "x64"));
+    }
+
+    @Test
+    void keepsJdksInUseByOtherBuilds(@TempDir Path tmp) throws Exception {
+        JdkStore store = new JdkStore(tmp.toFile(), 15);
+
+        File jdk11 = store.install("adoptium", "11", "28", "linux", "x64", jdk(store, 10));
+        File jdk17;
+        try (JdkStore.InUse inUse = store.use(store.findLatest("adoptium", "11", "linux", "x64"))) {
+            assertEquals(jdk11, inUse.getFolder());
+            Thread.sleep(5);
+            jdk17 = store.install("adoptium", "17", "35", "linux", "x64", jdk(store, 10));
+
+            // 11 is the least recently used one, but it's still in use
+            assertTrue(jdk11.isDirectory());
+            assertTrue(jdk17.isDirectory());
+            assertEquals("28", store.findLatest("adoptium", "11", "linux", "x64").build);
+        }
+
+        // once released (e.g. the build finished, but not the JVM) it can be removed
+        Thread.sleep(5);
+        store.install("graalvm", "17", "22.3.0", "linux", "x64", jdk(store, 10));
+        assertFalse(jdk11.exists());
+        assertFalse(jdk17.exists());
+    }
+
+    private static File jdk(JdkStore store, int size) throws Exception {
+        File folder = store.createStagingFolder();
+        Files.write(new File(folder, "release").toPath(), new byte[size]);
+        return folder;
+    }
+
+}
@@ -0,0 +1,150 @@
+package io.github.fvarrui.javapackager.utils.updater;
+
+import io.github.fvarrui.javapackager.utils.FileUtils;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskJavaDownloadTest {
+
+    private static final byte[] CONTENT = new byte[20 * 1024 * 1024];
+
+    static {
+        new Random(42).nextBytes(CONTENT);
+    }
+
+    @Test
+    void downloadsInParallelSegments(@TempDir Path tmp) throws Exception {
+        try (TestHttpServer server = new TestHttpServer()) {
+            String url = server.serve("/jdk.tar.gz", CONTENT);
+            File dest = new File(tmp.toFile(), "jdk.file");
+
+            TaskJavaDownload download = new TaskJavaDownload(4);
+            download.execute(url, dest, AdoptV3API.OperatingSystemType.LINUX);
+
+            assertTrue(download.isTar());
+            assertArrayEquals(CONTENT, Files.readAllBytes(download.getNewCacheDest().toPath()));
+            assertTrue(download.compareWithSHA256(FileUtils.sha256(download.getNewCacheDest())));
+        }
+    }
+
+    @Test
+    void resumesInterruptedDownload(@TempDir Path tmp) throws Exception {
+        try (TestHttpServer server = new TestHttpServer()) {
+            String url = server.serve("/jdk.zip", CONTENT);
+            File dest = new File(tmp.toFile(), "jdk.file");
+
+            server.failAt(CONTENT.length - 1024 * 1024);
+            assertThrows(Exception.class, () -> new TaskJavaDownload(4).execute(url, dest, AdoptV3API.OperatingSystemType.WINDOWS));
+            long sentBeforeResume = server.getRangeBytesSent();
+
+            TaskJavaDownload download = new TaskJavaDownload(4);
+            download.execute(url, dest, AdoptV3API.OperatingSystemType.WINDOWS);
+
+            assertArrayEquals(CONTENT, Files.readAllBytes(download.getNewCacheDest().toPath()));
+            // only the missing bytes of the broken segment are sent again
+            assertTrue(server.getRangeBytesSent() - sentBeforeResume <= 1024 * 1024);
+        }
+    }
+
+    @Test
+    void downloadsWithSingleConnection(@TempDir Path tmp) throws Exception {
+        try (TestHttpServer server = new TestHttpServer()) {
+            String url = server.serve("/jdk.zip", CONTENT);
+
+            TaskJavaDownload download = new TaskJavaDownload(1);
+            download.execute(url, new File(tmp.toFile(), "jdk.file"), AdoptV3API.OperatingSystemType.WINDOWS);
+
+            assertArrayEquals(CONTENT, Files.readAllBytes(download.getNewCacheDest().toPath()));
+            assertTrue(download.compareWithSHA256(FileUtils.sha256(download.getNewCacheDest())));
+        }
+    }
+
+    @Test
+    void extractsTarWhileDownloading(@TempDir Path tmp) throws Exception {
+        byte[] archive = tarGz();
+        try (TestHttpServer server = new TestHttpServer()) {
+            String url = server.serve("/jdk.tar.gz", archive);
+            File dest = new File(tmp.toFile(), "jdk.file");
+            File extractDir = new File(tmp.toFile(), "jdk");
+
+            TaskJavaDownload download = new TaskJavaDownload(1);
+            download.execute(url, dest, AdoptV3API.OperatingSystemType.LINUX, extractDir);
+
+            assertFalse(dest.exists());
+            assertEquals("JAVA_VERSION=\"17\"", new String(Files.readAllBytes(new File(extractDir, "release").toPath())));
+            assertArrayEquals(CONTENT, Files.readAllBytes(new File(extractDir, "lib/modules").toPath()));
+            assertTrue(new File(extractDir, "bin/java").canExecute());
+            assertTrue(download.compareWithSHA256(sha256(tmp, archive)));
+        }
+    }
+
+    @Test
+    void extractsZipDownloadedInSegments(@TempDir Path tmp) throws Exception {
+        byte[] archive = zip();
+        try (TestHttpServer server = new TestHttpServer()) {
+            String url = server.serve("/jdk.zip", archive);
+            File extractDir = new File(tmp.toFile(), "jdk");
+
+            TaskJavaDownload download = new TaskJavaDownload(4);
+            download.execute(url, new File(tmp.toFile(), "jdk.file"), AdoptV3API.OperatingSystemType.WINDOWS, extractDir);
+
+            assertArrayEquals(CONTENT, Files.readAllBytes(new File(extractDir, "lib/modules").toPath()));
+            assertTrue(download.compareWithSHA256(sha256(tmp, archive)));
+        }
+    }
+
+    private static String sha256(Path tmp, byte[] content) throws Exception {
+        File file = Files.write(tmp.resolve("expected"), content).toFile();
+        return FileUtils.sha256(file);
+    }
+
+    private static byte[] tarGz() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(new GzipCompressorOutputStream(bytes))) {
+            tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            tar.putArchiveEntry(new TarArchiveEntry("jdk-17+35/"));
+            tar.closeArchiveEntry();
+            putTarEntry(tar, "jdk-17+35/release", "JAVA_VERSION=\"17\"".getBytes(), 0644);
+            putTarEntry(tar, "jdk-17+35/bin/java", new byte[16], 0755);
+            putTarEntry(tar, "jdk-17+35/lib/modules", CONTENT, 0644);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void putTarEntry(TarArchiveOutputStream tar, String name, byte[] content, int mode) throws Exception {
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(content.length);
+        entry.setMode(mode);
+        tar.putArchiveEntry(entry);
+        tar.write(content);
+        tar.closeArchiveEntry();
+    }
+
+    private static byte[] zip() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(bytes)) {
+            zip.putArchiveEntry(new ZipArchiveEntry("jdk-17+35/lib/modules"));
+            zip.write(CONTENT);
+            zip.closeArchiveEntry();
+        }
+        return bytes.toByteArray();
+    }
+
+}
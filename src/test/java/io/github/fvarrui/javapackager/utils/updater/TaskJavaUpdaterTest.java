@@ -1,9 +1,23 @@
 package io.github.fvarrui.javapackager.utils.updater;
 
 import io.github.fvarrui.javapackager.model.Platform;
+import io.github.fvarrui.javapackager.utils.FileUtils;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TaskJavaUpdaterTest {
@@ -33,4 +47,81 @@ class TaskJavaUpdaterTest {
         assertTrue(taskJavaUpdater.jdkPath.listFiles().length != 0);
         System.out.println(taskJavaUpdater.jdkPath);
     }
-}
\ No newline at end of file
+
+    @Test
+    void installsFromStandInServer(@TempDir Path tmp) throws Exception {
+        try (TestHttpServer server = adoptiumStandIn(tmp)) {
+            JdkStore store = new JdkStore(tmp.resolve("store").toFile(), JdkStore.DEFAULT_MAX_SIZE);
+
+            TaskJavaUpdater taskJavaUpdater = new TaskJavaUpdater(Platform.linux, store);
+            taskJavaUpdater.adoptiumUrl = server.getUrl() + "/v3";
+            taskJavaUpdater.execute("17", "adoptium");
+
+            assertNotNull(taskJavaUpdater.jdkPath);
+            assertEquals("JAVA_VERSION=\"17.0.5\"", new String(Files.readAllBytes(new File(taskJavaUpdater.jdkPath, "release").toPath()), StandardCharsets.UTF_8));
+            assertTrue(new File(taskJavaUpdater.jdkPath, "bin/java").isFile());
+
+            // already on the latest build, so it's not downloaded again
+            long downloads = server.getRequests("/v3/binary/version/*");
+            TaskJavaUpdater again = new TaskJavaUpdater(Platform.linux, store);
+            again.adoptiumUrl = server.getUrl() + "/v3";
+            again.execute("17", "adoptium");
+            assertEquals(taskJavaUpdater.jdkPath, again.jdkPath);
+            assertEquals(downloads, server.getRequests("/v3/binary/version/*"));
+        }
+    }
+
+    @Test
+    void offlineResolvesFromStoreOnly(@TempDir Path tmp) throws Exception {
+        JdkStore store = new JdkStore(tmp.resolve("store").toFile(), JdkStore.DEFAULT_MAX_SIZE);
+        try (TestHttpServer server = adoptiumStandIn(tmp)) {
+            TaskJavaUpdater taskJavaUpdater = new TaskJavaUpdater(Platform.linux, store);
+            taskJavaUpdater.adoptiumUrl = server.getUrl() + "/v3";
+            taskJavaUpdater.execute("17", "adoptium");
+        }
+
+        TaskJavaUpdater offline = new TaskJavaUpdater(Platform.linux, store);
+        offline.adoptiumUrl = "http://127.0.0.1:1/v3";
+        offline.offline = true;
+        offline.execute("17", "adoptium");
+        assertNotNull(offline.jdkPath);
+        assertEquals("17", offline.findInstalledMajor("adoptium"));
+
+        TaskJavaUpdater missing = new TaskJavaUpdater(Platform.linux, store);
+        missing.offline = true;
+        missing.execute("11", "adoptium");
+        assertNull(missing.jdkPath);
+    }
+
+    /**
+     * Serves recorded Adoptium API responses and a tiny JDK archive.
+     */
+    private static TestHttpServer adoptiumStandIn(Path tmp) throws Exception {
+        byte[] archive = jdkArchive();
+        String checksum = FileUtils.sha256(Files.write(tmp.resolve("archive.tar.gz"), archive).toFile());
+        TestHttpServer server = new TestHttpServer();
+        server.serve("/v3/info/release_versions", resource("release_versions.json").getBytes(StandardCharsets.UTF_8), "application/json");
+        server.serve("/v3/assets/version/*", resource("assets.json").replace("${checksum}", checksum).getBytes(StandardCharsets.UTF_8), "application/json");
+        server.serve("/v3/binary/version/*", archive, "application/x-gtar");
+        return server;
+    }
+
+    private static String resource(String name) throws Exception {
+        return IOUtils.toString(TaskJavaUpdaterTest.class.getResource("/adoptium/" + name), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] jdkArchive() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(new GzipCompressorOutputStream(bytes))) {
+            for (String[] file : new String[][] { { "release", "JAVA_VERSION=\"17.0.5\"" }, { "bin/java", "" } }) {
+                byte[] content = file[1].getBytes(StandardCharsets.UTF_8);
+                TarArchiveEntry entry = new TarArchiveEntry("jdk-17.0.5+8/" + file[0]);
+                entry.setSize(content.length);
+                tar.putArchiveEntry(entry);
+                tar.write(content);
+                tar.closeArchiveEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
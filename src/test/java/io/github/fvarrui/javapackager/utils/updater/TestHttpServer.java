@@ -0,0 +1,184 @@
+package io.github.fvarrui.javapackager.utils.updater;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local HTTP stand-in for download and API servers, serving files with HTTP Range support.
+ * Paths ending with "*" serve every path starting with them.
+ */
+class TestHttpServer implements AutoCloseable {
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d*)");
+
+    private final HttpServer server;
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> pathRequests = new ConcurrentHashMap<>();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private volatile long failAt = -1;
+    private volatile int errorCode;
+    private volatile int errors;
+
+    TestHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Serves a file at the given path.
+     *
+     * @return the file url.
+     */
+    String serve(String path, byte[] content) {
+        return serve(path, content, "application/octet-stream");
+    }
+
+    /**
+     * Serves a file at the given path, with the given content type.
+     *
+     * @return the file url.
+     */
+    String serve(String path, byte[] content, String contentType) {
+        files.put(path, content);
+        contentTypes.put(path, contentType);
+        return getUrl() + path;
+    }
+
+    /**
+     * Base url of the server.
+     */
+    String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Breaks the connection of a range request sending the byte at the given offset (once).
+     */
+    void failAt(long offset) {
+        failAt = offset;
+    }
+
+    /**
+     * Responds to the next requests with an error code.
+     */
+    void respondWith(int errorCode, int times) {
+        this.errorCode = errorCode;
+        this.errors = times;
+    }
+
+    /**
+     * Requests received so far.
+     */
+    long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Requests received so far for the given served path.
+     */
+    long getRequests(String path) {
+        AtomicLong count = pathRequests.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * 304 (Not Modified) responses sent so far.
+     */
+    long getNotModified() {
+        return notModified.get();
+    }
+
+    /**
+     * Bytes of file content sent so far by range requests.
+     */
+    long getRangeBytesSent() {
+        return bytesSent.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        if (errors > 0) {
+            errors--;
+            exchange.sendResponseHeaders(errorCode, -1);
+            exchange.close();
+            return;
+        }
+        String path = exchange.getRequestURI().getRawPath();
+        String route = files.containsKey(path) ? path : files.keySet().stream()
+                .filter(p -> p.endsWith("*") && path.startsWith(p.substring(0, p.length() - 1)))
+                .findFirst().orElse(null);
+        if (route == null) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        pathRequests.computeIfAbsent(route, r -> new AtomicLong()).incrementAndGet();
+        byte[] content = files.get(route);
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        exchange.getResponseHeaders().set("Content-Type", contentTypes.get(route));
+        exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=" + fileName);
+        exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+        String etag = "\"" + content.length + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        long start = 0;
+        long end = content.length;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        Matcher matcher = range != null ? RANGE.matcher(range) : null;
+        if (matcher != null && matcher.matches()) {
+            start = Long.parseLong(matcher.group(1));
+            if (!matcher.group(2).isEmpty()) end = Long.parseLong(matcher.group(2)) + 1;
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + (end - 1) + "/" + content.length);
+            exchange.sendResponseHeaders(206, end - start);
+        } else {
+            exchange.sendResponseHeaders(200, content.length);
+        }
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.close();
+            return;
+        }
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (long position = start; position < end; ) {
+                int length = (int) Math.min(8192, end - position);
+                long fail = range != null ? failAt : -1;
+                if (fail >= position && fail < position + length) {
+                    failAt = -1;
+                    out.write(content, (int) position, (int) (fail - position));
+                    out.flush();
+                    bytesSent.addAndGet(fail - position);
+                    // the connection is closed without sending the rest
+                    throw new IOException("Connection broken on purpose");
+                }
+                out.write(content, (int) position, length);
+                if (range != null) bytesSent.addAndGet(length);
+                position += length;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+}